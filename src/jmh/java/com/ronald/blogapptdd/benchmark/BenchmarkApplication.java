@@ -0,0 +1,26 @@
+package com.ronald.blogapptdd.benchmark;
+
+import com.ronald.blogapptdd.BlogAppTddApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Boots the application without the web layer on its own in-memory H2 database.
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String databaseName, String... extraArgs) {
+        String[] args = new String[extraArgs.length + 3];
+        args[0] = "--spring.datasource.url=jdbc:h2:mem:" + databaseName + ";DB_CLOSE_DELAY=-1";
+        args[1] = "--spring.main.banner-mode=off";
+        args[2] = "--logging.level.root=WARN";
+        System.arraycopy(extraArgs, 0, args, 3, extraArgs.length);
+        return new SpringApplicationBuilder(BlogAppTddApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args);
+    }
+}
@@ -0,0 +1,66 @@
+package com.ronald.blogapptdd.benchmark;
+
+import com.ronald.blogapptdd.entity.Category;
+import com.ronald.blogapptdd.entity.Post;
+import com.ronald.blogapptdd.entity.PostTag;
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.entity.composite.PostTagKey;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds detached posts shaped like the ones the repositories return: a category and
+ * tags reached through {@link PostTag} links, with realistic text lengths.
+ */
+final class BenchmarkPosts {
+
+    private static final int TAG_POOL_SIZE = 20;
+
+    private BenchmarkPosts() {
+    }
+
+    static List<Post> posts(int count, int tagsPerPost) {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Category category = Category.builder()
+                .id(1L)
+                .name("Java")
+                .description("Everything about the JVM")
+                .createdAt(now)
+                .build();
+        List<Tag> tagPool = new ArrayList<>(TAG_POOL_SIZE);
+        for (long i = 1; i <= TAG_POOL_SIZE; i++) {
+            tagPool.add(Tag.builder()
+                    .id(i)
+                    .name("tag-" + i)
+                    .description("Benchmark tag " + i)
+                    .createdAt(now)
+                    .build());
+        }
+
+        String content = "Lorem ipsum dolor sit amet, consectetur adipiscing elit. ".repeat(20);
+        List<Post> posts = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            Post post = Post.builder()
+                    .id(id)
+                    .title("Benchmark post " + id)
+                    .content(content)
+                    .category(category)
+                    .createdAt(now)
+                    .build();
+            List<PostTag> postTags = new ArrayList<>(tagsPerPost);
+            for (int i = 0; i < tagsPerPost; i++) {
+                Tag tag = tagPool.get((int) ((id + i) % TAG_POOL_SIZE));
+                postTags.add(PostTag.builder()
+                        .id(new PostTagKey(id, tag.getId()))
+                        .post(post)
+                        .tag(tag)
+                        .build());
+            }
+            post.setPostTags(postTags);
+            posts.add(post);
+        }
+        return posts;
+    }
+}
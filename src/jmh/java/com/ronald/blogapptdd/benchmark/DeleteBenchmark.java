@@ -0,0 +1,193 @@
+package com.ronald.blogapptdd.benchmark;
+
+import com.ronald.blogapptdd.entity.Category;
+import com.ronald.blogapptdd.entity.Post;
+import com.ronald.blogapptdd.entity.PostTag;
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.entity.composite.PostTagKey;
+import com.ronald.blogapptdd.repository.CategoryRepository;
+import com.ronald.blogapptdd.repository.PostRepository;
+import com.ronald.blogapptdd.repository.PostTagRepository;
+import com.ronald.blogapptdd.repository.TagRepository;
+import com.ronald.blogapptdd.service.PostService;
+import com.ronald.blogapptdd.service.TagService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Latency of deleting a post carrying {@code linkCount} tags, and a tag carried by
+ * {@code linkCount} posts, next to {@value #BACKGROUND_LINKS} other {@code post_tag} rows.
+ * <p>
+ * The {@code loadingLinks} variants are the way deletes used to work: load the entity and its
+ * links into the persistence context and remove them one by one. The {@code cascading} variants
+ * go through the services, which issue one delete and leave the links to the database's
+ * {@code on delete cascade}. Every iteration deletes one freshly saved post or tag, so the
+ * benchmark runs in single-shot mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class DeleteBenchmark {
+
+    private static final int BACKGROUND_POSTS = 10_000;
+
+    private static final int TAGS_PER_BACKGROUND_POST = 10;
+
+    static final int BACKGROUND_LINKS = BACKGROUND_POSTS * TAGS_PER_BACKGROUND_POST;
+
+    @Param({"100", "10000"})
+    private int linkCount;
+
+    private ConfigurableApplicationContext context;
+
+    private PostService postService;
+
+    private TagService tagService;
+
+    private PostRepository postRepository;
+
+    private PostTagRepository postTagRepository;
+
+    private TagRepository tagRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Category category;
+
+    private List<Tag> tags;
+
+    private List<Post> posts;
+
+    private int saved;
+
+    @State(Scope.Thread)
+    public static class PostToDelete {
+        private Long postId;
+
+        @Setup(Level.Iteration)
+        public void setUp(DeleteBenchmark benchmark) {
+            postId = benchmark.savePostWithEveryTag();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class TagToDelete {
+        private Long tagId;
+
+        @Setup(Level.Iteration)
+        public void setUp(DeleteBenchmark benchmark) {
+            tagId = benchmark.saveTagOnPosts();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("delete-" + linkCount);
+        postService = context.getBean(PostService.class);
+        tagService = context.getBean(TagService.class);
+        postRepository = context.getBean(PostRepository.class);
+        postTagRepository = context.getBean(PostTagRepository.class);
+        tagRepository = context.getBean(TagRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        category = context.getBean(CategoryRepository.class).save(Category.builder()
+                .name("Benchmark")
+                .description("Benchmark category")
+                .build());
+        tags = tagRepository.saveAll(IntStream.range(0, linkCount)
+                .mapToObj(i -> Tag.builder()
+                        .name("tag-" + i)
+                        .description("Benchmark tag " + i)
+                        .build())
+                .collect(Collectors.toList()));
+        posts = postRepository.saveAll(IntStream.range(0, Math.max(BACKGROUND_POSTS, linkCount))
+                .mapToObj(i -> post("Background post " + i))
+                .collect(Collectors.toList()));
+
+        List<PostTag> links = new ArrayList<>(BACKGROUND_LINKS);
+        for (int i = 0; i < BACKGROUND_POSTS; i++) {
+            for (int j = 0; j < TAGS_PER_BACKGROUND_POST; j++) {
+                links.add(link(posts.get(i), tags.get((i + j) % tags.size())));
+            }
+        }
+        postTagRepository.saveAll(links);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void deletePostLoadingLinks(PostToDelete post) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Post loaded = postRepository.findById(post.postId).orElseThrow();
+            postTagRepository.deleteAll(loaded.getPostTags());
+            postRepository.delete(loaded);
+        });
+    }
+
+    @Benchmark
+    public void deletePostCascading(PostToDelete post) {
+        postService.deletePost(post.postId);
+    }
+
+    @Benchmark
+    public void deleteTagLoadingLinks(TagToDelete tag) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Tag loaded = tagRepository.findById(tag.tagId).orElseThrow();
+            postTagRepository.deleteAll(loaded.getPostTags());
+            tagRepository.delete(loaded);
+        });
+    }
+
+    @Benchmark
+    public void deleteTagCascading(TagToDelete tag) {
+        tagService.deleteTag(tag.tagId);
+    }
+
+    private Long savePostWithEveryTag() {
+        Post post = postRepository.save(post("Deleted post " + saved++));
+        postTagRepository.saveAll(tags.stream()
+                .map(tag -> link(post, tag))
+                .collect(Collectors.toList()));
+        return post.getId();
+    }
+
+    private Long saveTagOnPosts() {
+        Tag tag = tagRepository.save(Tag.builder()
+                .name("deleted-tag-" + saved++)
+                .description("Deleted benchmark tag")
+                .build());
+        postTagRepository.saveAll(posts.subList(0, linkCount).stream()
+                .map(post -> link(post, tag))
+                .collect(Collectors.toList()));
+        return tag.getId();
+    }
+
+    private Post post(String title) {
+        return Post.builder()
+                .title(title)
+                .content("Benchmark content")
+                .category(category)
+                .build();
+    }
+
+    private static PostTag link(Post post, Tag tag) {
+        return PostTag.builder()
+                .id(new PostTagKey(post.getId(), tag.getId()))
+                .post(post)
+                .tag(tag)
+                .build();
+    }
+}
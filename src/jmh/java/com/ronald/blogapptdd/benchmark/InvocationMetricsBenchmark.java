@@ -0,0 +1,90 @@
+package com.ronald.blogapptdd.benchmark;
+
+import com.ronald.blogapptdd.dto.request.CreatePostRequest;
+import com.ronald.blogapptdd.dto.response.PostResponseDTO;
+import com.ronald.blogapptdd.entity.Category;
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.metrics.InvocationMetricsAspect;
+import com.ronald.blogapptdd.repository.CategoryRepository;
+import com.ronald.blogapptdd.repository.TagRepository;
+import com.ronald.blogapptdd.service.PostService;
+import com.ronald.blogapptdd.service.TagService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link InvocationMetricsAspect}: the same calls with the aspect switched on and off.
+ * <p>
+ * {@code getPostDetailCached} is a cache hit that never reaches the database, so it shows the
+ * per-call overhead against the cheapest service call there is; the other two include one
+ * primary key lookup in H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InvocationMetricsBenchmark {
+
+    @Param({"true", "false"})
+    private boolean instrumented;
+
+    private ConfigurableApplicationContext context;
+
+    private PostService postService;
+
+    private TagService tagService;
+
+    private TagRepository tagRepository;
+
+    private Long postId;
+
+    private Long tagId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("invocation-metrics-" + instrumented,
+                "--blog.metrics.enabled=" + instrumented);
+        postService = context.getBean(PostService.class);
+        tagService = context.getBean(TagService.class);
+        tagRepository = context.getBean(TagRepository.class);
+
+        Category category = context.getBean(CategoryRepository.class).save(Category.builder()
+                .name("Benchmark")
+                .description("Benchmark category")
+                .build());
+        tagId = tagRepository.save(Tag.builder()
+                .name("benchmark")
+                .description("Benchmark tag")
+                .build()).getId();
+        postId = postService.createPost(CreatePostRequest.builder()
+                .title("Benchmark post")
+                .content("Benchmark content")
+                .categoryId(category.getId())
+                .tagIds(Collections.singletonList(tagId))
+                .build()).getId();
+        postService.getPostDetail(postId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PostResponseDTO getPostDetailCached() {
+        return postService.getPostDetail(postId);
+    }
+
+    @Benchmark
+    public Tag getTagDetail() {
+        return tagService.getTagDetail(tagId);
+    }
+
+    @Benchmark
+    public Optional<Tag> tagRepositoryFindById() {
+        return tagRepository.findById(tagId);
+    }
+}
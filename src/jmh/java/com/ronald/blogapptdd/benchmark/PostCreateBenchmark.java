@@ -0,0 +1,70 @@
+package com.ronald.blogapptdd.benchmark;
+
+import com.ronald.blogapptdd.dto.request.CreatePostRequest;
+import com.ronald.blogapptdd.entity.Category;
+import com.ronald.blogapptdd.entity.Post;
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.repository.CategoryRepository;
+import com.ronald.blogapptdd.repository.TagRepository;
+import com.ronald.blogapptdd.service.PostService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Latency of {@link PostService#createPost} as the number of tags on the post grows.
+ * Tags are resolved with one query and the post_tag rows go out as one JDBC batch,
+ * so the cost per extra tag should be a small fraction of a round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PostCreateBenchmark {
+
+    @Param({"0", "1", "5", "20", "100"})
+    private int tagCount;
+
+    private ConfigurableApplicationContext context;
+
+    private PostService postService;
+
+    private CreatePostRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("post-create-" + tagCount);
+        postService = context.getBean(PostService.class);
+
+        Category category = context.getBean(CategoryRepository.class).save(Category.builder()
+                .name("Benchmark")
+                .description("Benchmark category")
+                .build());
+        List<Tag> tags = context.getBean(TagRepository.class).saveAll(IntStream.range(0, tagCount)
+                .mapToObj(i -> Tag.builder()
+                        .name("tag-" + i)
+                        .description("Benchmark tag " + i)
+                        .build())
+                .collect(Collectors.toList()));
+
+        request = CreatePostRequest.builder()
+                .title("Benchmark post")
+                .content("Benchmark content")
+                .categoryId(category.getId())
+                .tagIds(tags.stream().map(Tag::getId).collect(Collectors.toList()))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Post createPost() {
+        return postService.createPost(request);
+    }
+}
@@ -0,0 +1,69 @@
+package com.ronald.blogapptdd.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ronald.blogapptdd.dto.response.PostResponseDTO;
+import com.ronald.blogapptdd.entity.Post;
+import com.ronald.blogapptdd.utils.PostMapperUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning loaded posts into a response body: mapping entities to
+ * {@link PostResponseDTO} and serializing the DTOs, with their embedded category and tag
+ * entities, the way Spring MVC does, against writing the body encoded ahead of time as the
+ * {@code EncodedResponseCache} does. Run with the GC profiler, {@code gc.alloc.rate.norm}
+ * gives the bytes allocated per list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PostResponseBenchmark {
+
+    private static final int TAGS_PER_POST = 3;
+
+    @Param({"10", "100", "10000"})
+    private int postCount;
+
+    private List<Post> posts;
+
+    private List<PostResponseDTO> responses;
+
+    private ObjectMapper objectMapper;
+
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        posts = BenchmarkPosts.posts(postCount, TAGS_PER_POST);
+        responses = PostMapperUtils.mapPostsToPostResponseDTOs(posts);
+        // the same defaults Spring Boot applies to the MVC object mapper
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        encoded = objectMapper.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public List<PostResponseDTO> map() {
+        return PostMapperUtils.mapPostsToPostResponseDTOs(posts);
+    }
+
+    @Benchmark
+    public void serialize() throws IOException {
+        // a discarding stream keeps buffer growth out of the numbers, as with a servlet response
+        objectMapper.writeValue(OutputStream.nullOutputStream(), responses);
+    }
+
+    @Benchmark
+    public void mapAndSerialize() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), PostMapperUtils.mapPostsToPostResponseDTOs(posts));
+    }
+
+    @Benchmark
+    public void writeEncoded() throws IOException {
+        OutputStream.nullOutputStream().write(encoded);
+    }
+}
@@ -0,0 +1,61 @@
+package com.ronald.blogapptdd.benchmark;
+
+import com.ronald.blogapptdd.search.PostSearchDocument;
+import com.ronald.blogapptdd.search.PostSearchIndex;
+import com.ronald.blogapptdd.search.SearchHit;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Top-10 query latency of {@link PostSearchIndex} over synthetic posts.
+ * Words follow a skewed distribution, so {@code common} hits a large share of the posts
+ * while {@code rare} hits only a few; a LIKE scan costs the same for both.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PostSearchBenchmark {
+
+    private static final int VOCABULARY_SIZE = 50_000;
+
+    private static final int WORDS_PER_POST = 60;
+
+    @Param({"100000", "1000000"})
+    private int postCount;
+
+    private PostSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new PostSearchIndex();
+        index.rebuild(LongStream.rangeClosed(1, postCount)
+                .mapToObj(id -> {
+                    Random random = new Random(id);
+                    return new PostSearchDocument(id, words(random, 8), words(random, WORDS_PER_POST));
+                }));
+    }
+
+    @Benchmark
+    public List<SearchHit> common() {
+        return index.search("w1 w2", 10);
+    }
+
+    @Benchmark
+    public List<SearchHit> rare() {
+        return index.search("w20000 w30000", 10);
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            // squaring a uniform draw skews the picks towards the low word numbers
+            double u = random.nextDouble();
+            text.append('w').append(1 + (int) (u * u * VOCABULARY_SIZE)).append(' ');
+        }
+        return text.toString();
+    }
+}
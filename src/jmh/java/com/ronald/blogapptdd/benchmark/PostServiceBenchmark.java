@@ -0,0 +1,109 @@
+package com.ronald.blogapptdd.benchmark;
+
+import com.ronald.blogapptdd.cache.PostDetailCache;
+import com.ronald.blogapptdd.dto.request.CreatePostRequest;
+import com.ronald.blogapptdd.dto.response.CursorPageResponseDTO;
+import com.ronald.blogapptdd.dto.response.PostResponseDTO;
+import com.ronald.blogapptdd.entity.Category;
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.repository.CategoryRepository;
+import com.ronald.blogapptdd.repository.TagRepository;
+import com.ronald.blogapptdd.service.PostService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Throughput of the read paths of {@link PostService} over an in-memory H2 dataset,
+ * including the queries, entity mapping and the post detail cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PostServiceBenchmark {
+
+    private static final int TAG_COUNT = 10;
+
+    private static final int TAGS_PER_POST = 3;
+
+    @Param({"100", "1000"})
+    private int postCount;
+
+    private ConfigurableApplicationContext context;
+
+    private PostService postService;
+
+    private PostDetailCache postDetailCache;
+
+    private long[] postIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("post-service-" + postCount);
+        postService = context.getBean(PostService.class);
+        postDetailCache = context.getBean(PostDetailCache.class);
+
+        Category category = context.getBean(CategoryRepository.class).save(Category.builder()
+                .name("Benchmark")
+                .description("Benchmark category")
+                .build());
+        List<Long> tagIds = context.getBean(TagRepository.class).saveAll(IntStream.range(0, TAG_COUNT)
+                        .mapToObj(i -> Tag.builder()
+                                .name("tag-" + i)
+                                .description("Benchmark tag " + i)
+                                .build())
+                        .collect(Collectors.toList()))
+                .stream()
+                .map(Tag::getId)
+                .collect(Collectors.toList());
+
+        postIds = new long[postCount];
+        for (int i = 0; i < postCount; i++) {
+            int first = i;
+            postIds[i] = postService.createPost(CreatePostRequest.builder()
+                    .title("Benchmark post " + i)
+                    .content("Benchmark content " + i)
+                    .categoryId(category.getId())
+                    .tagIds(IntStream.range(0, TAGS_PER_POST)
+                            .mapToObj(t -> tagIds.get((first + t) % TAG_COUNT))
+                            .collect(Collectors.toList()))
+                    .build()).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PostResponseDTO getPostDetailCached() {
+        return postService.getPostDetail(randomPostId());
+    }
+
+    @Benchmark
+    public PostResponseDTO getPostDetailUncached() {
+        long postId = randomPostId();
+        postDetailCache.evict(postId);
+        return postService.getPostDetail(postId);
+    }
+
+    @Benchmark
+    public CursorPageResponseDTO<PostResponseDTO> getFirstPostPage() {
+        return postService.getPostPage(null, 20);
+    }
+
+    @Benchmark
+    public List<PostResponseDTO> getAllPosts() {
+        return postService.getAllPosts();
+    }
+
+    private long randomPostId() {
+        return postIds[ThreadLocalRandom.current().nextInt(postIds.length)];
+    }
+}
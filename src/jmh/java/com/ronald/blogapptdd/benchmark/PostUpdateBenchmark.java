@@ -0,0 +1,113 @@
+package com.ronald.blogapptdd.benchmark;
+
+import com.ronald.blogapptdd.dto.request.CreatePostRequest;
+import com.ronald.blogapptdd.dto.request.UpdatePostRequest;
+import com.ronald.blogapptdd.dto.response.PostResponseDTO;
+import com.ronald.blogapptdd.entity.Category;
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.repository.CategoryRepository;
+import com.ronald.blogapptdd.repository.TagRepository;
+import com.ronald.blogapptdd.service.PostService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Latency of {@link PostService#updatePost} on a post with a large tag set, for an unchanged
+ * tag list, a list with one tag swapped, and a list with every tag replaced. Only the
+ * difference is written, so the first should cost no post_tag statement and the second
+ * one delete and one insert, whatever the size of the set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PostUpdateBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int tagCount;
+
+    private ConfigurableApplicationContext context;
+
+    private PostService postService;
+
+    private Long postId;
+
+    private UpdatePostRequest unchanged;
+
+    private UpdatePostRequest[] oneSwapped;
+
+    private UpdatePostRequest[] allReplaced;
+
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("post-update-" + tagCount);
+        postService = context.getBean(PostService.class);
+
+        Category category = context.getBean(CategoryRepository.class).save(Category.builder()
+                .name("Benchmark")
+                .description("Benchmark category")
+                .build());
+        // twice as many tags as a post carries, so a second, disjoint set is available
+        List<Long> tagIds = context.getBean(TagRepository.class).saveAll(IntStream.range(0, tagCount * 2)
+                        .mapToObj(i -> Tag.builder()
+                                .name("tag-" + i)
+                                .description("Benchmark tag " + i)
+                                .build())
+                        .collect(Collectors.toList()))
+                .stream()
+                .map(Tag::getId)
+                .collect(Collectors.toList());
+        List<Long> firstSet = tagIds.subList(0, tagCount);
+        List<Long> secondSet = tagIds.subList(tagCount, tagCount * 2);
+        List<Long> firstSetSwapped = new ArrayList<>(firstSet);
+        firstSetSwapped.set(0, secondSet.get(0));
+
+        postId = postService.createPost(CreatePostRequest.builder()
+                .title("Benchmark post")
+                .content("Benchmark content")
+                .categoryId(category.getId())
+                .tagIds(firstSet)
+                .build()).getId();
+
+        unchanged = request(category.getId(), firstSet);
+        // each pair alternates, so every invocation really changes the tags and ends where the next expects
+        oneSwapped = new UpdatePostRequest[]{request(category.getId(), firstSetSwapped), request(category.getId(), firstSet)};
+        allReplaced = new UpdatePostRequest[]{request(category.getId(), secondSet), request(category.getId(), firstSet)};
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PostResponseDTO updateUnchangedTags() {
+        return postService.updatePost(postId, unchanged);
+    }
+
+    @Benchmark
+    public PostResponseDTO updateOneTagSwapped() {
+        return postService.updatePost(postId, oneSwapped[invocation++ & 1]);
+    }
+
+    @Benchmark
+    public PostResponseDTO updateAllTagsReplaced() {
+        return postService.updatePost(postId, allReplaced[invocation++ & 1]);
+    }
+
+    private static UpdatePostRequest request(Long categoryId, List<Long> tagIds) {
+        return UpdatePostRequest.builder()
+                .title("Benchmark post")
+                .content("Benchmark content")
+                .categoryId(categoryId)
+                .tagIds(new ArrayList<>(tagIds))
+                .build();
+    }
+}
@@ -0,0 +1,104 @@
+package com.ronald.blogapptdd.benchmark;
+
+import com.ronald.blogapptdd.config.ExecutorConfig;
+import com.ronald.blogapptdd.dto.request.UpdateTagRequest;
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.exception.UpdateConflictException;
+import com.ronald.blogapptdd.repository.TagRepository;
+import com.ronald.blogapptdd.service.TagService;
+import com.ronald.blogapptdd.service.impl.OptimisticUpdateRetrier;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Throughput of concurrent tag updates through {@link OptimisticUpdateRetrier} when eight
+ * threads share one hot tag, and when they spread over 16 tags. The per-thread counters give
+ * the conflict rate: {@code conflicts} per operation, and {@code exhausted} for updates that
+ * ran out of attempts and would have been answered with 409.
+ * <p>
+ * Updates go through the application's write executor, as they do behind the controllers, so
+ * the numbers include handing backed-off retries back to it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class UpdateContentionBenchmark {
+
+    @Param({"1", "16"})
+    private int hotTags;
+
+    private ConfigurableApplicationContext context;
+
+    private TagService tagService;
+
+    private OptimisticUpdateRetrier updateRetrier;
+
+    private Executor writeExecutor;
+
+    private List<Long> tagIds;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long conflicts;
+        public long exhausted;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("update-contention-" + hotTags);
+        tagService = context.getBean(TagService.class);
+        updateRetrier = context.getBean(OptimisticUpdateRetrier.class);
+        writeExecutor = context.getBean(ExecutorConfig.WRITE_EXECUTOR, Executor.class);
+        tagIds = context.getBean(TagRepository.class).saveAll(IntStream.range(0, hotTags)
+                        .mapToObj(i -> Tag.builder()
+                                .name("hot-" + i)
+                                .description("Hot tag " + i)
+                                .build())
+                        .collect(Collectors.toList()))
+                .stream()
+                .map(Tag::getId)
+                .collect(Collectors.toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Tag updateHotTag(Outcomes outcomes) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long tagId = tagIds.get(random.nextInt(tagIds.size()));
+        // a new description every time, so every update really writes
+        UpdateTagRequest request = UpdateTagRequest.builder()
+                .description("Updated " + random.nextLong())
+                .build();
+        int[] attempts = {0};
+        try {
+            return updateRetrier.execute("tag", () -> {
+                attempts[0]++;
+                return tagService.updateTag(tagId, request);
+            }, writeExecutor).join();
+        } catch (CompletionException e) {
+            if (!(e.getCause() instanceof UpdateConflictException)) {
+                throw e;
+            }
+            // the last attempt conflicted as well
+            outcomes.conflicts++;
+            outcomes.exhausted++;
+            return null;
+        } finally {
+            outcomes.conflicts += attempts[0] - 1;
+        }
+    }
+}
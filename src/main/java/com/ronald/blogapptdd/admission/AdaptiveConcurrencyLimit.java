@@ -0,0 +1,75 @@
+package com.ronald.blogapptdd.admission;
+
+import com.ronald.blogapptdd.config.BlogProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A concurrency limit that adapts by additive increase, multiplicative decrease (AIMD).
+ * <p>
+ * Every finished request is a sample. A request that took longer than the latency target, or
+ * finished while reads were slow, cuts the limit by {@value #BACKOFF_RATIO}; any other request
+ * that finished while at least half of the limit was in use raises it by {@code 1 / limit},
+ * about one per round of requests. A limit that is far from used does not grow, so a quiet
+ * period does not leave it too high for the next burst. The limit stays between its bounds.
+ */
+class AdaptiveConcurrencyLimit {
+
+    static final double BACKOFF_RATIO = 0.9;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final long latencyTargetNanos;
+
+    private volatile double limit;
+
+    AdaptiveConcurrencyLimit(BlogProperties.LimitSpec spec) {
+        this.minLimit = Math.max(1, spec.getMinLimit());
+        this.maxLimit = Math.max(minLimit, spec.getMaxLimit());
+        this.latencyTargetNanos = spec.getLatencyTarget().toNanos();
+        this.limit = Math.min(maxLimit, Math.max(minLimit, spec.getInitialLimit()));
+    }
+
+    /**
+     * Takes a place for one request, unless the limit is reached.
+     */
+    boolean tryAcquire() {
+        for (;;) {
+            int current = inFlight.get();
+            if (current >= getLimit()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives the place of a finished request back and adapts the limit to how it went.
+     */
+    void release(long latencyNanos, boolean readsSlow) {
+        int wasInFlight = inFlight.getAndDecrement();
+        adapt(wasInFlight, readsSlow || latencyNanos > latencyTargetNanos);
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void adapt(int wasInFlight, boolean overloaded) {
+        if (overloaded) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+        } else if (wasInFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.ronald.blogapptdd.admission;
+
+import com.ronald.blogapptdd.config.BlogProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Turns write and bulk requests away with 429 and {@code Retry-After} once their group has as
+ * many requests in flight as its {@link AdaptiveConcurrencyLimit} allows, before any work is
+ * queued for them.
+ * <p>
+ * Reads are always admitted; their latency is averaged, and while the average is above
+ * {@code blog.admission.read-latency-target} every finished write or bulk request lowers its
+ * group's limit, so an import burst gives way to the readers it slows down. The average only
+ * counts while reads keep finishing, see {@link ReadLatencyAverage}. Limits, requests in
+ * flight, rejections and the read latency are exposed as {@value #LIMIT_METRIC},
+ * {@value #IN_FLIGHT_METRIC}, {@value #REJECTED_METRIC} and {@value #READ_LATENCY_METRIC}.
+ * <p>
+ * As in {@link com.ronald.blogapptdd.metrics.QueryStatsFilter}, an asynchronous request keeps its
+ * admission in a request attribute and gives it back after the last dispatch. The container's
+ * completion, timeout and error callbacks give it back as well, for requests whose last dispatch
+ * never comes; whichever is first counts.
+ * <p>
+ * Runs right after {@code QueryStatsFilter}, which has the highest precedence, so rejected
+ * requests are still counted and logged there, with no statements.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "blog.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    static final String LIMIT_METRIC = "blog.admission.limit";
+
+    static final String IN_FLIGHT_METRIC = "blog.admission.inflight";
+
+    static final String REJECTED_METRIC = "blog.admission.rejected";
+
+    static final String READ_LATENCY_METRIC = "blog.admission.read.latency";
+
+    private static final String ADMISSION_ATTRIBUTE = AdmissionControlFilter.class.getName() + ".admission";
+
+    private static final String API_PATH = "/api/";
+
+    private final Map<AdmissionGroup, AdaptiveConcurrencyLimit> limits = new EnumMap<>(AdmissionGroup.class);
+
+    private final Map<AdmissionGroup, Counter> rejections = new EnumMap<>(AdmissionGroup.class);
+
+    private final AtomicInteger readsInFlight = new AtomicInteger();
+
+    private final ReadLatencyAverage readLatency;
+
+    private final long readLatencyTargetNanos;
+
+    public AdmissionControlFilter(BlogProperties blogProperties, MeterRegistry meterRegistry) {
+        BlogProperties.Admission settings = blogProperties.getAdmission();
+        this.readLatencyTargetNanos = settings.getReadLatencyTarget().toNanos();
+        this.readLatency = new ReadLatencyAverage(settings.getReadLatencyWindow());
+        limits.put(AdmissionGroup.WRITE, new AdaptiveConcurrencyLimit(settings.getWrite()));
+        limits.put(AdmissionGroup.BULK, new AdaptiveConcurrencyLimit(settings.getBulk()));
+
+        limits.forEach((group, limit) -> {
+            Gauge.builder(LIMIT_METRIC, limit, AdaptiveConcurrencyLimit::getLimit)
+                    .description("Requests a group may have in flight")
+                    .tag("group", group.tag())
+                    .register(meterRegistry);
+            Gauge.builder(IN_FLIGHT_METRIC, limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .description("Admitted requests not finished yet")
+                    .tag("group", group.tag())
+                    .register(meterRegistry);
+            rejections.put(group, Counter.builder(REJECTED_METRIC)
+                    .description("Requests turned away with 429")
+                    .tag("group", group.tag())
+                    .register(meterRegistry));
+        });
+        Gauge.builder(IN_FLIGHT_METRIC, readsInFlight, AtomicInteger::get)
+                .description("Admitted requests not finished yet")
+                .tag("group", AdmissionGroup.READ.tag())
+                .register(meterRegistry);
+        Gauge.builder(READ_LATENCY_METRIC, readLatency, latency -> latency.get(System.nanoTime()) / 1e9)
+                .description("Moving average of the read latency")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + API_PATH);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        Admission admission = (Admission) request.getAttribute(ADMISSION_ATTRIBUTE);
+        if (admission == null) {
+            AdmissionGroup group = AdmissionGroup.of(request);
+            if (!tryAcquire(group)) {
+                reject(group, response);
+                return;
+            }
+            admission = new Admission(group);
+            request.setAttribute(ADMISSION_ATTRIBUTE, admission);
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (!isAsyncStarted(request)) {
+                admission.release();
+            } else if (admission.listening.compareAndSet(false, true)) {
+                request.getAsyncContext().addListener(admission);
+            }
+        }
+    }
+
+    private boolean tryAcquire(AdmissionGroup group) {
+        if (group == AdmissionGroup.READ) {
+            readsInFlight.incrementAndGet();
+            return true;
+        }
+        return limits.get(group).tryAcquire();
+    }
+
+    private void reject(AdmissionGroup group, HttpServletResponse response) throws IOException {
+        rejections.get(group).increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Too many requests, retry later");
+    }
+
+    private void finished(AdmissionGroup group, long latencyNanos) {
+        if (group == AdmissionGroup.READ) {
+            readsInFlight.decrementAndGet();
+            readLatency.record(latencyNanos, System.nanoTime());
+            return;
+        }
+        limits.get(group).release(latencyNanos, readLatency.get(System.nanoTime()) > readLatencyTargetNanos);
+    }
+
+    private final class Admission implements AsyncListener {
+        private final AdmissionGroup group;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final AtomicBoolean listening = new AtomicBoolean();
+
+        Admission(AdmissionGroup group) {
+            this.group = group;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                finished(group, System.nanoTime() - startNanos);
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // listeners are dropped when a dispatch starts async processing again
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
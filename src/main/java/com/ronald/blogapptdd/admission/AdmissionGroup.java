@@ -0,0 +1,33 @@
+package com.ronald.blogapptdd.admission;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The endpoint groups admission is decided for. They follow the executors the controllers hand
+ * their work to, except that unpaged listings count as reads.
+ */
+enum AdmissionGroup {
+
+    READ,
+    WRITE,
+    BULK;
+
+    private static final Set<String> BULK_PATHS = Set.of("/api/v1/post/import", "/api/v1/post/export",
+            "/api/v1/post/bulk-delete");
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    static AdmissionGroup of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (BULK_PATHS.contains(path)) {
+            return BULK;
+        }
+        return READ_METHODS.contains(request.getMethod()) ? READ : WRITE;
+    }
+
+    String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,41 @@
+package com.ronald.blogapptdd.admission;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moving average of the read latency, as the write and bulk limits see it.
+ * <p>
+ * The average only moves when a read finishes. Left alone, the last slow reads before a quiet
+ * spell would hold it above the target for as long as no other read came in, and every write
+ * in the meantime would keep cutting its limit. An average that no read has refreshed within
+ * {@code blog.admission.read-latency-window} is therefore taken to be zero: with no reads
+ * finishing there are no readers for the writes to give way to.
+ */
+class ReadLatencyAverage {
+
+    // each read moves the average an eighth of the way to its own latency
+    private static final int SMOOTHING = 8;
+
+    private final long windowNanos;
+
+    private final AtomicLong averageNanos = new AtomicLong();
+
+    private volatile long lastRecordedNanos;
+
+    ReadLatencyAverage(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    void record(long latencyNanos, long nowNanos) {
+        averageNanos.updateAndGet(average -> average + (latencyNanos - average) / SMOOTHING);
+        lastRecordedNanos = nowNanos;
+    }
+
+    /**
+     * The average at {@code nowNanos}, or zero if no read has finished within the window.
+     */
+    long get(long nowNanos) {
+        return nowNanos - lastRecordedNanos > windowNanos ? 0 : averageNanos.get();
+    }
+}
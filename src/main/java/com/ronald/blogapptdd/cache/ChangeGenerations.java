@@ -0,0 +1,110 @@
+package com.ronald.blogapptdd.cache;
+
+import com.ronald.blogapptdd.event.CategoryChangedEvent;
+import com.ronald.blogapptdd.event.PostChangedEvent;
+import com.ronald.blogapptdd.event.TagChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory generation counters of the posts, tags, categories and post counts, for entity tags
+ * that cost no query.
+ * <p>
+ * Every write goes through a service that publishes a change event, and a generation moves once
+ * the writing transaction has committed, as in {@link PostDetailCache}. Writes that bypass the
+ * services, such as a repository call from a test, are not seen. The post counts generation is
+ * moved by the counter flush instead, when the stored counts change. The counters start over with
+ * the application, so every tag built from them also carries the {@link #getEpoch() start time}; a
+ * tag handed out by an earlier run never matches. Like the caches, this assumes a single instance.
+ * <p>
+ * Each post also has a stamp: the post generation of its last change. Stamps live in a fixed
+ * table of {@value #POST_STAMP_SLOTS} slots indexed by post id, so memory stays flat however many
+ * posts there are; posts sharing a slot move each other's stamp, which only costs a spurious miss.
+ */
+@Component
+public class ChangeGenerations {
+
+    static final int POST_STAMP_SLOTS = 1 << 12;
+
+    private final long epoch = System.currentTimeMillis();
+
+    private final AtomicLong posts = new AtomicLong();
+
+    private final AtomicLong tags = new AtomicLong();
+
+    private final AtomicLong categories = new AtomicLong();
+
+    private final AtomicLong postCounts = new AtomicLong();
+
+    private final AtomicLongArray postStamps = new AtomicLongArray(POST_STAMP_SLOTS);
+
+    private volatile long lastChangeNanos = System.nanoTime();
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public long getPosts() {
+        return posts.get();
+    }
+
+    public long getTags() {
+        return tags.get();
+    }
+
+    public long getCategories() {
+        return categories.get();
+    }
+
+    public long getPostCounts() {
+        return postCounts.get();
+    }
+
+    /**
+     * Stamp of one post; it moves whenever the post does and stays put otherwise, barring a post
+     * that shares its slot.
+     */
+    public long getPost(Long postId) {
+        return postStamps.get(slot(postId));
+    }
+
+    /**
+     * Whether no generation has moved for at least {@code nanos}.
+     */
+    public boolean isSettledFor(long nanos) {
+        return System.nanoTime() - lastChangeNanos >= nanos;
+    }
+
+    /**
+     * Called by the counter flush after it changed stored post counts.
+     */
+    public void postCountsChanged() {
+        postCounts.incrementAndGet();
+        lastChangeNanos = System.nanoTime();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        postStamps.set(slot(event.getPostId()), posts.incrementAndGet());
+        lastChangeNanos = System.nanoTime();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagChanged(TagChangedEvent event) {
+        tags.incrementAndGet();
+        lastChangeNanos = System.nanoTime();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        categories.incrementAndGet();
+        lastChangeNanos = System.nanoTime();
+    }
+
+    private static int slot(Long postId) {
+        return Long.hashCode(postId) & (POST_STAMP_SLOTS - 1);
+    }
+}
@@ -0,0 +1,101 @@
+package com.ronald.blogapptdd.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * A JSON response body encoded once, optionally with a gzip-compressed copy, and the ETag of the
+ * data it was encoded from. Shared by all requests, the arrays must not be modified.
+ * <p>
+ * The two copies are different bytes, so clients taking gzip are sent the ETag with
+ * {@value #GZIP_SUFFIX} before the closing quote, see {@link #checkNotModified}. They keep that
+ * ETag when the body is too small to be compressed.
+ */
+public final class EncodedResponse {
+
+    private static final String GZIP = "gzip";
+
+    private static final String GZIP_SUFFIX = "-gzip";
+
+    private final String eTag;
+
+    private final byte[] body;
+
+    private final byte[] gzipBody;
+
+    EncodedResponse(String eTag, byte[] body, byte[] gzipBody) {
+        this.eTag = eTag;
+        this.body = body;
+        this.gzipBody = gzipBody;
+    }
+
+    public String getETag() {
+        return eTag;
+    }
+
+    /**
+     * The response for a client sending {@code acceptEncoding}: the compressed copy if there is one
+     * and the client takes gzip, the plain body otherwise. Byte arrays are written to the servlet
+     * output stream as they are.
+     */
+    public ResponseEntity<byte[]> toResponseEntity(String acceptEncoding) {
+        boolean gzip = gzipBody != null && acceptsGzip(acceptEncoding);
+        byte[] bytes = gzip ? gzipBody : body;
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(bytes.length)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        return response.body(bytes);
+    }
+
+    /**
+     * {@link WebRequest#checkNotModified(String)} for the representation of data tagged
+     * {@code eTag} that {@code webRequest} is sent. A cache revalidating the other representation
+     * with its own ETag gets a 304 for it as well.
+     */
+    public static boolean checkNotModified(WebRequest webRequest, String eTag) {
+        if (eTag == null) {
+            return webRequest.checkNotModified(eTag);
+        }
+        String gzipETag = gzipETag(eTag);
+        boolean gzip = acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String sent = gzip ? gzipETag : eTag;
+        String other = gzip ? eTag : gzipETag;
+        String ifNoneMatch = webRequest.getHeader(HttpHeaders.IF_NONE_MATCH);
+        return webRequest.checkNotModified(ifNoneMatch != null && ifNoneMatch.contains(other) ? other : sent);
+    }
+
+    static String gzipETag(String eTag) {
+        return eTag.endsWith("\"")
+                ? eTag.substring(0, eTag.length() - 1) + GZIP_SUFFIX + "\""
+                : eTag + GZIP_SUFFIX;
+    }
+
+    int weight() {
+        return body.length + (gzipBody == null ? 0 : gzipBody.length);
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (!GZIP.equalsIgnoreCase(name) && !"*".equals(name)) {
+                continue;
+            }
+            // gzip;q=0 means the client refuses it
+            boolean refused = parts.length > 1 && parts[1].trim().matches("q=0(\\.0*)?");
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,141 @@
+package com.ronald.blogapptdd.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ronald.blogapptdd.config.BlogProperties;
+import com.ronald.blogapptdd.event.CategoryChangedEvent;
+import com.ronald.blogapptdd.event.PostChangedEvent;
+import com.ronald.blogapptdd.event.TagChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bounded cache of encoded responses for the most read endpoints: post detail, tag list and
+ * category list.
+ * <p>
+ * A hit is written out as bytes, without running Jackson or the compressor again. Each entry is
+ * only served while the ETag of the request matches the one it was encoded under, and those tags
+ * come from {@link ChangeGenerations}, so a hit runs no query; a request without an ETag bypasses
+ * the cache. Changes are applied after the writing transaction commits, as in
+ * {@link PostDetailCache}: a post change drops that post, and a tag or category change drops its
+ * list and every cached post. Post writes leave the lists alone; the post counts they carry are
+ * refreshed when the counter flush moves their ETag.
+ * <p>
+ * With a read replica, a request that does not follow a write of its own may read data the
+ * replica has not caught up with yet, while the generations have already moved. Nothing is
+ * stored until no generation has moved for the replication lag, so such a body is never kept
+ * under the newer ETag.
+ */
+@Component
+public class EncodedResponseCache {
+
+    public static final String TAG_LIST = "tags";
+
+    public static final String CATEGORY_LIST = "categories";
+
+    private static final String POST_PREFIX = "post-";
+
+    private final Cache<String, EncodedResponse> cache;
+
+    private final ObjectMapper objectMapper;
+
+    private final ChangeGenerations generations;
+
+    private final boolean enabled;
+
+    private final long gzipMinSize;
+
+    private final long replicationLagNanos;
+
+    public EncodedResponseCache(BlogProperties blogProperties, ObjectMapper objectMapper, ChangeGenerations generations) {
+        BlogProperties.ResponseCacheSpec spec = blogProperties.getCache().getResponses();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(spec.getMaxSize().toBytes())
+                .weigher((String key, EncodedResponse response) -> response.weight())
+                .expireAfterWrite(spec.getTtl().toNanos(), TimeUnit.NANOSECONDS)
+                .build();
+        this.objectMapper = objectMapper;
+        this.generations = generations;
+        this.enabled = spec.isEnabled();
+        this.gzipMinSize = spec.getGzipMinSize().toBytes();
+        BlogProperties.ReadReplica replica = blogProperties.getReadReplica();
+        this.replicationLagNanos = replica.isEnabled() ? replica.getReplicationLag().toNanos() : 0;
+    }
+
+    public static String postKey(Long postId) {
+        return POST_PREFIX + postId;
+    }
+
+    /**
+     * The response cached under {@code key} if it was encoded under {@code eTag}, otherwise the
+     * body from {@code loader}, encoded and cached.
+     */
+    public CompletableFuture<EncodedResponse> get(String key, String eTag, Supplier<? extends CompletableFuture<?>> loader) {
+        boolean cacheable = enabled && eTag != null;
+        if (cacheable) {
+            EncodedResponse cached = cache.getIfPresent(key);
+            if (cached != null && eTag.equals(cached.getETag())) {
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+        return loader.get().thenApply(body -> {
+            EncodedResponse encoded = encode(eTag, body);
+            if (cacheable && generations.isSettledFor(replicationLagNanos)) {
+                cache.put(key, encoded);
+            }
+            return encoded;
+        });
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        cache.invalidate(postKey(event.getPostId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagChanged(TagChangedEvent event) {
+        cache.invalidate(TAG_LIST);
+        evictPosts();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        cache.invalidate(CATEGORY_LIST);
+        evictPosts();
+    }
+
+    private void evictPosts() {
+        // tag and category writes are rare, see PostDetailCache#evictByTag
+        cache.asMap().keySet().removeIf(key -> key.startsWith(POST_PREFIX));
+    }
+
+    private EncodedResponse encode(String eTag, Object body) {
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(body);
+            return new EncodedResponse(eTag, bytes, bytes.length >= gzipMinSize ? gzip(bytes) : null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,100 @@
+package com.ronald.blogapptdd.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.ronald.blogapptdd.config.BlogProperties;
+import com.ronald.blogapptdd.dto.response.CacheStatsResponseDTO;
+import com.ronald.blogapptdd.dto.response.PostResponseDTO;
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.event.CategoryChangedEvent;
+import com.ronald.blogapptdd.event.PostChangedEvent;
+import com.ronald.blogapptdd.event.TagChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of post details keyed by post id.
+ * <p>
+ * Entries are evicted by size and by time since write. Changes are applied after the
+ * writing transaction commits: a post change drops that post, a tag or category change
+ * drops every cached post that embeds the tag or category.
+ */
+@Component
+public class PostDetailCache {
+
+    private final Cache<Long, PostResponseDTO> cache;
+
+    public PostDetailCache(BlogProperties blogProperties) {
+        BlogProperties.CacheSpec spec = blogProperties.getCache().getPostDetail();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(spec.getMaxSize())
+                .expireAfterWrite(spec.getTtl().toNanos(), TimeUnit.NANOSECONDS)
+                .recordStats()
+                .build();
+    }
+
+    public PostResponseDTO get(Long postId, Function<Long, PostResponseDTO> loader) {
+        return cache.get(postId, loader);
+    }
+
+    public void evict(Long postId) {
+        cache.invalidate(postId);
+    }
+
+    public void evictByTag(Long tagId) {
+        // tag and category writes are rare, so a scan of the bounded cache is cheaper
+        // than keeping a reverse index consistent with evictions
+        cache.asMap().values().removeIf(post -> embedsTag(post, tagId));
+    }
+
+    public void evictByCategory(Long categoryId) {
+        cache.asMap().values().removeIf(post -> post.getCategory() != null
+                && categoryId.equals(post.getCategory().getId()));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStatsResponseDTO stats() {
+        CacheStats stats = cache.stats();
+        return CacheStatsResponseDTO.builder()
+                .size(cache.estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        evict(event.getPostId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagChanged(TagChangedEvent event) {
+        evictByTag(event.getTagId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        evictByCategory(event.getCategoryId());
+    }
+
+    private boolean embedsTag(PostResponseDTO post, Long tagId) {
+        if (post.getTags() == null) {
+            return false;
+        }
+        for (Tag tag : post.getTags()) {
+            if (tagId.equals(tag.getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
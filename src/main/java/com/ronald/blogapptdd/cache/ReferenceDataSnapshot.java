@@ -0,0 +1,240 @@
+package com.ronald.blogapptdd.cache;
+
+import com.ronald.blogapptdd.entity.Category;
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.event.CategoryChangedEvent;
+import com.ronald.blogapptdd.event.ChangeType;
+import com.ronald.blogapptdd.event.TagChangedEvent;
+import com.ronald.blogapptdd.repository.CategoryRepository;
+import com.ronald.blogapptdd.repository.TagRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-memory copy of the category and tag tables, indexed by id and by name.
+ * <p>
+ * Each table is held in an immutable snapshot behind a volatile reference, so reads take no
+ * lock. A table is loaded on first use; a change made through the services is applied after
+ * the writing transaction commits by reloading that one row and swapping in a new snapshot.
+ * An id missing from the snapshot is looked up in the database, which covers rows written
+ * by other instances; such rows are not added to the snapshot.
+ * <p>
+ * The entities handed out are detached copies shared by all callers and must not be modified.
+ * They carry id and version, so they can be referenced from a post being saved.
+ */
+@Component
+public class ReferenceDataSnapshot {
+
+    private final CategoryRepository categoryRepository;
+
+    private final TagRepository tagRepository;
+
+    private final Table<Category> categories;
+
+    private final Table<Tag> tags;
+
+    public ReferenceDataSnapshot(CategoryRepository categoryRepository, TagRepository tagRepository) {
+        this.categoryRepository = categoryRepository;
+        this.tagRepository = tagRepository;
+        this.categories = new Table<>(categoryRepository::findAll, Category::getId, Category::getName, ReferenceDataSnapshot::copyOf);
+        this.tags = new Table<>(tagRepository::findAll, Tag::getId, Tag::getName, ReferenceDataSnapshot::copyOf);
+    }
+
+    /**
+     * All categories ordered by id; the list is read-only.
+     */
+    public List<Category> getCategories() {
+        return categories.current().rows;
+    }
+
+    public Optional<Category> findCategory(Long categoryId) {
+        Category category = categories.current().byId.get(categoryId);
+        return category != null ? Optional.of(category) : categoryRepository.findById(categoryId);
+    }
+
+    /**
+     * The category with the lowest id among those named {@code name}; snapshot only.
+     */
+    public Optional<Category> findCategoryByName(String name) {
+        return Optional.ofNullable(categories.current().byName.get(name));
+    }
+
+    /**
+     * All tags ordered by id; the list is read-only.
+     */
+    public List<Tag> getTags() {
+        return tags.current().rows;
+    }
+
+    public Optional<Tag> findTag(Long tagId) {
+        Tag tag = tags.current().byId.get(tagId);
+        return tag != null ? Optional.of(tag) : tagRepository.findById(tagId);
+    }
+
+    /**
+     * The existing tags among {@code tagIds}, in request order followed by any found only in
+     * the database. Unknown ids are left out.
+     */
+    public List<Tag> findTags(Collection<Long> tagIds) {
+        Snapshot<Tag> snapshot = tags.current();
+        List<Tag> found = new ArrayList<>(tagIds.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long tagId : new LinkedHashSet<>(tagIds)) {
+            Tag tag = snapshot.byId.get(tagId);
+            if (tag != null) {
+                found.add(tag);
+            } else {
+                missing.add(tagId);
+            }
+        }
+        if (!missing.isEmpty()) {
+            found.addAll(tagRepository.findByIdIn(missing));
+        }
+        return found;
+    }
+
+    /**
+     * The tag with the lowest id among those named {@code name}; snapshot only.
+     */
+    public Optional<Tag> findTagByName(String name) {
+        return Optional.ofNullable(tags.current().byName.get(name));
+    }
+
+    /**
+     * Reads both tables from the database again.
+     */
+    public void reload() {
+        categories.reload();
+        tags.reload();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        Long categoryId = event.getCategoryId();
+        categories.apply(categoryId, event.getType() == ChangeType.DELETED
+                ? Optional::empty
+                : () -> categoryRepository.findById(categoryId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagChanged(TagChangedEvent event) {
+        Long tagId = event.getTagId();
+        tags.apply(tagId, event.getType() == ChangeType.DELETED
+                ? Optional::empty
+                : () -> tagRepository.findById(tagId));
+    }
+
+    // the loaded entity may still be managed by the caller's persistence context
+    private static Category copyOf(Category category) {
+        return Category.builder()
+                .id(category.getId())
+                .name(category.getName())
+                .description(category.getDescription())
+                .createdAt(category.getCreatedAt())
+                .updatedAt(category.getUpdatedAt())
+                .version(category.getVersion())
+                .build();
+    }
+
+    private static Tag copyOf(Tag tag) {
+        return Tag.builder()
+                .id(tag.getId())
+                .name(tag.getName())
+                .description(tag.getDescription())
+                .createdAt(tag.getCreatedAt())
+                .updatedAt(tag.getUpdatedAt())
+                .version(tag.getVersion())
+                .build();
+    }
+
+    /**
+     * One table's current snapshot. Readers go through the volatile field; loads and changes
+     * are serialized, so a change arriving during a load is applied on top of it.
+     */
+    private static final class Table<T> {
+        private final Supplier<List<T>> loader;
+        private final Function<T, Long> idOf;
+        private final Function<T, String> nameOf;
+        private final Function<T, T> copy;
+        private volatile Snapshot<T> snapshot;
+
+        Table(Supplier<List<T>> loader, Function<T, Long> idOf, Function<T, String> nameOf, Function<T, T> copy) {
+            this.loader = loader;
+            this.idOf = idOf;
+            this.nameOf = nameOf;
+            this.copy = copy;
+        }
+
+        Snapshot<T> current() {
+            Snapshot<T> current = snapshot;
+            return current != null ? current : load();
+        }
+
+        synchronized void reload() {
+            snapshot = build(loader.get());
+        }
+
+        synchronized void apply(Long id, Supplier<Optional<T>> row) {
+            Snapshot<T> current = snapshot;
+            if (current == null) {
+                // the first load reads the committed row
+                return;
+            }
+            List<T> rows = new ArrayList<>(current.rows.size() + 1);
+            for (T existing : current.rows) {
+                if (!id.equals(idOf.apply(existing))) {
+                    rows.add(existing);
+                }
+            }
+            row.get().map(copy).ifPresent(rows::add);
+            snapshot = new Snapshot<>(rows, idOf, nameOf);
+        }
+
+        private synchronized Snapshot<T> load() {
+            if (snapshot == null) {
+                snapshot = build(loader.get());
+            }
+            return snapshot;
+        }
+
+        private Snapshot<T> build(List<T> loaded) {
+            List<T> rows = new ArrayList<>(loaded.size());
+            loaded.forEach(row -> rows.add(copy.apply(row)));
+            return new Snapshot<>(rows, idOf, nameOf);
+        }
+    }
+
+    private static final class Snapshot<T> {
+        private final List<T> rows;
+        private final Map<Long, T> byId;
+        private final Map<String, T> byName;
+
+        Snapshot(List<T> rows, Function<T, Long> idOf, Function<T, String> nameOf) {
+            rows.sort(Comparator.comparing(idOf, Comparator.nullsLast(Comparator.naturalOrder())));
+            Map<Long, T> byId = new HashMap<>();
+            Map<String, T> byName = new HashMap<>();
+            for (T row : rows) {
+                byId.put(idOf.apply(row), row);
+                String name = nameOf.apply(row);
+                if (name != null) {
+                    byName.putIfAbsent(name, row);
+                }
+            }
+            this.rows = Collections.unmodifiableList(rows);
+            this.byId = byId;
+            this.byName = byName;
+        }
+    }
+}
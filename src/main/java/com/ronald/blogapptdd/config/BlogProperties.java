@@ -0,0 +1,365 @@
+package com.ronald.blogapptdd.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "blog")
+public class BlogProperties {
+
+    private final Pagination pagination = new Pagination();
+
+    private final Cache cache = new Cache();
+
+    private final BulkImport bulkImport = new BulkImport();
+
+    private final BulkDelete bulkDelete = new BulkDelete();
+
+    private final WriteBehind writeBehind = new WriteBehind();
+
+    private final Search search = new Search();
+
+    private final Counters counters = new Counters();
+
+    private final Executors executors = new Executors();
+
+    private final Metrics metrics = new Metrics();
+
+    private final QueryBudget queryBudget = new QueryBudget();
+
+    private final ReadReplica readReplica = new ReadReplica();
+
+    private final UpdateRetry updateRetry = new UpdateRetry();
+
+    private final Admission admission = new Admission();
+
+    @Getter
+    @Setter
+    public static class Pagination {
+        /**
+         * Page size used when the client does not ask for one.
+         */
+        private int defaultSize = 20;
+
+        /**
+         * Upper bound for the page size a client can request.
+         */
+        private int maxSize = 100;
+    }
+
+    @Getter
+    @Setter
+    public static class BulkImport {
+        /**
+         * Number of records written per transaction.
+         */
+        private int chunkSize = 500;
+
+        /**
+         * Per-record errors listed in the import report; further errors are only counted.
+         */
+        private int maxReportedErrors = 100;
+
+        /**
+         * Per-chunk results listed in the import report; further chunks are only counted in the totals.
+         */
+        private int maxReportedChunks = 100;
+
+        /**
+         * Longest record accepted, counted in characters; a longer line is skipped without being buffered and reported.
+         */
+        private DataSize maxRecordSize = DataSize.ofMegabytes(1);
+    }
+
+    @Getter
+    @Setter
+    public static class BulkDelete {
+        /**
+         * Number of posts deleted per transaction.
+         */
+        private int chunkSize = 500;
+    }
+
+    @Getter
+    @Setter
+    public static class WriteBehind {
+        /**
+         * Whether post creates are queued and written in batches instead of one transaction each.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Creates allowed to wait for the writer; further creates are rejected.
+         */
+        private int queueCapacity = 10_000;
+
+        /**
+         * Upper bound for the number of creates written in one transaction.
+         */
+        private int batchSize = 100;
+
+        /**
+         * How long the writer waits for a batch to fill once its first create has arrived.
+         */
+        private Duration linger = Duration.ofMillis(5);
+
+        /**
+         * How long shutdown waits for queued creates to be written; creates still queued after it fail.
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+    }
+
+    @Getter
+    @Setter
+    public static class Search {
+        /**
+         * Number of hits returned when the client does not ask for a limit.
+         */
+        private int defaultLimit = 10;
+
+        /**
+         * Upper bound for the number of hits a client can request.
+         */
+        private int maxLimit = 100;
+
+        /**
+         * Whether the search index is filled from the database once the application is ready.
+         */
+        private boolean rebuildOnStartup = true;
+    }
+
+    @Getter
+    @Setter
+    public static class Counters {
+        /**
+         * Delay between two flushes of the in-memory post counters to the count tables.
+         */
+        private Duration flushInterval = Duration.ofSeconds(5);
+
+        /**
+         * When the stored post counts are recounted from the posts and repaired.
+         */
+        private String reconcileCron = "0 0 3 * * *";
+    }
+
+    @Getter
+    @Setter
+    public static class Executors {
+        /**
+         * Single-entity and paged reads.
+         */
+        private final ExecutorSpec read = new ExecutorSpec(16, 1_000);
+
+        /**
+         * Creates, updates and deletes.
+         */
+        private final ExecutorSpec write = new ExecutorSpec(8, 500);
+
+        /**
+         * Unpaged listings, imports and exports.
+         */
+        private final ExecutorSpec bulk = new ExecutorSpec(2, 20);
+    }
+
+    @Getter
+    @Setter
+    public static class Metrics {
+        /**
+         * Whether service and repository calls are timed.
+         */
+        private boolean enabled = true;
+    }
+
+    @Getter
+    @Setter
+    public static class QueryBudget {
+        /**
+         * Statements a request may issue when its endpoint has no budget of its own.
+         */
+        private int defaultMaxStatements = 10;
+
+        /**
+         * Budgets keyed by method and path pattern, e.g. {@code GET /api/v1/post/{id}}; a negative budget means no limit.
+         */
+        private final Map<String, Integer> endpoints = new HashMap<>();
+
+        /**
+         * Whether a request over budget fails instead of logging a warning.
+         */
+        private boolean failOnExceeded = false;
+    }
+
+    @Getter
+    @Setter
+    public static class ReadReplica {
+        /**
+         * Whether read-only transactions are sent to the replica instead of {@code spring.datasource}.
+         */
+        private boolean enabled = false;
+
+        /**
+         * JDBC URL of the replica.
+         */
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        /**
+         * Longest the replica is expected to trail the primary; a client's reads go to the primary for this long after it wrote.
+         */
+        private Duration replicationLag = Duration.ofSeconds(1);
+    }
+
+    @Getter
+    @Setter
+    public static class UpdateRetry {
+        /**
+         * Attempts an update gets when it loses an optimistic locking race, the first one included.
+         */
+        private int maxAttempts = 4;
+
+        /**
+         * Upper bound of the random delay before the first retry; doubles with every further retry.
+         */
+        private Duration initialBackoff = Duration.ofMillis(5);
+
+        /**
+         * Upper bound of the random delay before any retry.
+         */
+        private Duration maxBackoff = Duration.ofMillis(100);
+    }
+
+    @Getter
+    @Setter
+    public static class Admission {
+        /**
+         * Whether write and bulk requests are limited in their concurrency; reads are never turned away.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Average read latency above which the write and bulk limits are lowered.
+         */
+        private Duration readLatencyTarget = Duration.ofMillis(250);
+
+        /**
+         * How long the read latency average counts without a read finishing; after that it is taken to be zero.
+         */
+        private Duration readLatencyWindow = Duration.ofSeconds(5);
+
+        /**
+         * Creates, updates and deletes.
+         */
+        private final LimitSpec write = new LimitSpec(32, 4, 256, Duration.ofMillis(500));
+
+        /**
+         * Imports and exports, which run for as long as the data they move takes.
+         */
+        private final LimitSpec bulk = new LimitSpec(2, 1, 4, Duration.ofMinutes(10));
+    }
+
+    @Getter
+    @Setter
+    public static class LimitSpec {
+        /**
+         * Concurrent requests allowed before the limit has adapted.
+         */
+        private int initialLimit;
+
+        /**
+         * Lower bound of the limit.
+         */
+        private int minLimit;
+
+        /**
+         * Upper bound of the limit.
+         */
+        private int maxLimit;
+
+        /**
+         * Latency above which a request lowers the limit.
+         */
+        private Duration latencyTarget;
+
+        public LimitSpec(int initialLimit, int minLimit, int maxLimit, Duration latencyTarget) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.latencyTarget = latencyTarget;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class ExecutorSpec {
+        /**
+         * Number of worker threads.
+         */
+        private int threads;
+
+        /**
+         * Tasks allowed to wait for a thread; further tasks are rejected.
+         */
+        private int queueCapacity;
+
+        public ExecutorSpec(int threads, int queueCapacity) {
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Cache {
+        private final CacheSpec postDetail = new CacheSpec();
+
+        private final ResponseCacheSpec responses = new ResponseCacheSpec();
+    }
+
+    @Getter
+    @Setter
+    public static class CacheSpec {
+        /**
+         * Maximum number of entries kept before the least valuable ones are evicted.
+         */
+        private long maxSize = 10_000;
+
+        /**
+         * How long an entry lives after it was written.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+
+    @Getter
+    @Setter
+    public static class ResponseCacheSpec {
+        /**
+         * Whether encoded post detail, tag list and category list responses are kept.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Upper bound for the encoded bytes kept, compressed copies included.
+         */
+        private DataSize maxSize = DataSize.ofMegabytes(64);
+
+        /**
+         * How long an entry lives after it was written.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /**
+         * Smallest body that is also kept gzip-compressed; smaller bodies are always sent as they are.
+         */
+        private DataSize gzipMinSize = DataSize.ofKilobytes(1);
+    }
+}
@@ -0,0 +1,85 @@
+package com.ronald.blogapptdd.config;
+
+import com.ronald.blogapptdd.metrics.QueryStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * One bounded executor per workload class, so a burst of bulk listings cannot starve cheap
+ * reads and writes of threads.
+ * <p>
+ * Each executor has a fixed number of threads and a bounded queue; a task arriving at a full
+ * queue is rejected right away instead of piling up, and counted in
+ * {@value #REJECTED_METRIC}. Pool size, active threads and queue depth are published by
+ * Spring Boot's executor metrics under the bean name.
+ */
+@Configuration
+public class ExecutorConfig implements WebMvcConfigurer {
+
+    public static final String READ_EXECUTOR = "readExecutor";
+
+    public static final String WRITE_EXECUTOR = "writeExecutor";
+
+    public static final String BULK_EXECUTOR = "bulkExecutor";
+
+    static final String REJECTED_METRIC = "blog.executor.rejected";
+
+    private final ThreadPoolTaskExecutor bulkExecutor;
+
+    public ExecutorConfig(@Qualifier(BULK_EXECUTOR) ThreadPoolTaskExecutor bulkExecutor) {
+        this.bulkExecutor = bulkExecutor;
+    }
+
+    @Bean(READ_EXECUTOR)
+    public static ThreadPoolTaskExecutor readExecutor(BlogProperties blogProperties, MeterRegistry meterRegistry) {
+        return boundedExecutor("read", blogProperties.getExecutors().getRead(), meterRegistry);
+    }
+
+    @Bean(WRITE_EXECUTOR)
+    public static ThreadPoolTaskExecutor writeExecutor(BlogProperties blogProperties, MeterRegistry meterRegistry) {
+        return boundedExecutor("write", blogProperties.getExecutors().getWrite(), meterRegistry);
+    }
+
+    @Bean(BULK_EXECUTOR)
+    public static ThreadPoolTaskExecutor bulkExecutor(BlogProperties blogProperties, MeterRegistry meterRegistry) {
+        return boundedExecutor("bulk", blogProperties.getExecutors().getBulk(), meterRegistry);
+    }
+
+    /**
+     * Streaming responses such as the post export are written on the bulk executor as well.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(bulkExecutor);
+    }
+
+    static ThreadPoolTaskExecutor boundedExecutor(String name, BlogProperties.ExecutorSpec spec, MeterRegistry meterRegistry) {
+        Counter rejected = Counter.builder(REJECTED_METRIC)
+                .description("Tasks rejected because the executor queue was full")
+                .tag("name", name)
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(name + "-");
+        executor.setCorePoolSize(spec.getThreads());
+        executor.setMaxPoolSize(spec.getThreads());
+        executor.setQueueCapacity(spec.getQueueCapacity());
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            throw new RejectedExecutionException("The " + name + " executor is saturated");
+        });
+        // statements run on behalf of a request count towards its query budget, and its client's
+        // last write decides whether reads may go to the replica
+        executor.setTaskDecorator(task -> QueryStats.propagate(LastWrite.propagate(task)));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
@@ -0,0 +1,61 @@
+package com.ronald.blogapptdd.config;
+
+/**
+ * When the client behind the current request last wrote, as told by its {@code blog-last-write}
+ * cookie.
+ * <p>
+ * Bound to the request thread by {@link ReadYourWritesFilter} and carried over to executor threads
+ * by {@link #propagate(Runnable)}, so {@link ReadWriteRoutingDataSource} can keep that client on the
+ * primary while the replica may not have its write yet. Work outside a request has no last write.
+ */
+final class LastWrite {
+
+    private static final ThreadLocal<LastWrite> CURRENT = new ThreadLocal<>();
+
+    private final long writtenAtMillis;
+
+    LastWrite(long writtenAtMillis) {
+        this.writtenAtMillis = writtenAtMillis;
+    }
+
+    /**
+     * Whether the write was less than {@code lagMillis} ago; a time in the future does not count.
+     */
+    boolean isWithin(long lagMillis, long nowMillis) {
+        long age = nowMillis - writtenAtMillis;
+        return age >= 0 && age < lagMillis;
+    }
+
+    static LastWrite current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Wraps {@code task} so it runs with the last write of the request that submitted it; meant
+     * for the task decorator of the application's executors.
+     */
+    static Runnable propagate(Runnable task) {
+        LastWrite lastWrite = CURRENT.get();
+        if (lastWrite == null) {
+            return task;
+        }
+        return () -> {
+            LastWrite previous = bind(lastWrite);
+            try {
+                task.run();
+            } finally {
+                bind(previous);
+            }
+        };
+    }
+
+    static LastWrite bind(LastWrite lastWrite) {
+        LastWrite previous = CURRENT.get();
+        if (lastWrite == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(lastWrite);
+        }
+        return previous;
+    }
+}
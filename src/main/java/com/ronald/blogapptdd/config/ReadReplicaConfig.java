@@ -0,0 +1,79 @@
+package com.ronald.blogapptdd.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Splits reads and writes over two connection pools, enabled with {@code blog.read-replica.enabled}.
+ * <p>
+ * {@code spring.datasource} becomes the primary pool and {@code blog.read-replica} the replica pool.
+ * Read-only transactions are served by the replica unless the client behind the request wrote less than
+ * {@code blog.read-replica.replication-lag} ago, see {@link ReadWriteRoutingDataSource} and
+ * {@link ReadYourWritesFilter}. The schema is created on the primary only; keeping the replica in sync
+ * is left to the database.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "blog.read-replica", name = "enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    public static final String PRIMARY_DATA_SOURCE = "primaryDataSource";
+
+    public static final String REPLICA_DATA_SOURCE = "replicaDataSource";
+
+    @Bean(PRIMARY_DATA_SOURCE)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(REPLICA_DATA_SOURCE)
+    public HikariDataSource replicaDataSource(DataSourceProperties dataSourceProperties, BlogProperties blogProperties) {
+        BlogProperties.ReadReplica replica = blogProperties.getReadReplica();
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(dataSourceProperties.determineDriverClassName())
+                .url(replica.getUrl())
+                .username(replica.getUsername())
+                .password(replica.getPassword())
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier(PRIMARY_DATA_SOURCE) DataSource primary,
+                                 @Qualifier(REPLICA_DATA_SOURCE) DataSource replica,
+                                 BlogProperties blogProperties) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica,
+                blogProperties.getReadReplica().getReplicationLag());
+        routing.afterPropertiesSet();
+        // defers the routing decision until the transaction is set up and the first statement runs
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(BlogProperties blogProperties) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(
+                new ReadYourWritesFilter(blogProperties.getReadReplica().getReplicationLag()));
+        registration.setUrlPatterns(List.of("/api/*"));
+        return registration;
+    }
+}
@@ -0,0 +1,43 @@
+package com.ronald.blogapptdd.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Hands out replica connections to read-only transactions and primary connections to everything else.
+ * <p>
+ * Stickiness is scoped to the client that wrote: a read-only transaction goes to the primary as well
+ * while the {@link LastWrite} of its request is more recent than the replication lag, so a client
+ * always reads its own writes, and other clients keep reading from the replica meanwhile. The decision
+ * is taken when the connection is fetched, which requires the transaction to be set up by then; wrap
+ * this data source in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final long replicationLagMillis;
+
+    ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration replicationLag) {
+        this.replicationLagMillis = replicationLag.toMillis();
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.PRIMARY;
+        }
+        LastWrite lastWrite = LastWrite.current();
+        return lastWrite != null && lastWrite.isWithin(replicationLagMillis, System.currentTimeMillis())
+                ? Route.PRIMARY
+                : Route.REPLICA;
+    }
+}
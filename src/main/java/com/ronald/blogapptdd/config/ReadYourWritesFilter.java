@@ -0,0 +1,81 @@
+package com.ronald.blogapptdd.config;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Remembers for each client when it last wrote, in a {@value #COOKIE} cookie, and binds it to the
+ * request as a {@link LastWrite}.
+ * <p>
+ * A {@code POST}, {@code PUT}, {@code PATCH} or {@code DELETE} is answered with the cookie set to
+ * the current time, taken once the write is done: at the start of the async dispatch for the
+ * asynchronous controllers, after the handler otherwise. The cookie expires with the replication
+ * lag. Clients that do not send cookies back are served by the replica right after their writes.
+ */
+class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "blog-last-write";
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final int cookieMaxAgeSeconds;
+
+    ReadYourWritesFilter(Duration replicationLag) {
+        this.cookieMaxAgeSeconds = (int) Math.max(1, (replicationLag.toMillis() + 999) / 1000);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        boolean write = WRITE_METHODS.contains(request.getMethod());
+        if (write && isAsyncDispatch(request)) {
+            rememberWrite(response);
+        }
+        LastWrite previous = LastWrite.bind(lastWrite(request));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            LastWrite.bind(previous);
+        }
+        if (write && !isAsyncDispatch(request) && !isAsyncStarted(request) && !response.isCommitted()) {
+            rememberWrite(response);
+        }
+    }
+
+    private static LastWrite lastWrite(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return new LastWrite(Long.parseLong(cookie.getValue()));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void rememberWrite(HttpServletResponse response) {
+        Cookie cookie = new Cookie(COOKIE, String.valueOf(System.currentTimeMillis()));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge(cookieMaxAgeSeconds);
+        response.addCookie(cookie);
+    }
+}
@@ -1,49 +1,66 @@
 package com.ronald.blogapptdd.controller;
 
+import com.ronald.blogapptdd.cache.EncodedResponse;
+import com.ronald.blogapptdd.cache.EncodedResponseCache;
 import com.ronald.blogapptdd.dto.request.CreateCategoryRequest;
 import com.ronald.blogapptdd.dto.request.UpdateCategoryRequest;
-import com.ronald.blogapptdd.entity.Category;
-import com.ronald.blogapptdd.service.CategoryService;
+import com.ronald.blogapptdd.service.AsyncCategoryService;
+import com.ronald.blogapptdd.service.ETagService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/category")
 public class CategoryController {
-    private final CategoryService categoryService;
+    private final AsyncCategoryService asyncCategoryService;
+
+    private final ETagService eTagService;
+
+    private final EncodedResponseCache encodedResponseCache;
 
     @Autowired
-    public CategoryController(CategoryService categoryService) {
-        this.categoryService = categoryService;
+    public CategoryController(AsyncCategoryService asyncCategoryService, ETagService eTagService, EncodedResponseCache encodedResponseCache) {
+        this.asyncCategoryService = asyncCategoryService;
+        this.eTagService = eTagService;
+        this.encodedResponseCache = encodedResponseCache;
     }
 
     @PostMapping("/")
-    public ResponseEntity<?> createCategory(@RequestBody CreateCategoryRequest request) {
-        Category category = categoryService.createCategory(request);
-        return ResponseEntity.ok(category);
+    public CompletableFuture<ResponseEntity<?>> createCategory(@RequestBody CreateCategoryRequest request) {
+        return asyncCategoryService.createCategory(request).thenApply(ResponseEntity::ok);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getCategoryDetail(@PathVariable Long id) {
-        Category category = categoryService.findCategoryById(id);
-        return ResponseEntity.ok(category);
+    public CompletableFuture<ResponseEntity<?>> getCategoryDetail(@PathVariable Long id, WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTagService.getCategoryETag(id))) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return asyncCategoryService.findCategoryById(id).thenApply(ResponseEntity::ok);
     }
 
     @GetMapping("/")
-    public ResponseEntity<?> getAllCategory() {
-        return ResponseEntity.ok(categoryService.findAllCategory());
+    public CompletableFuture<ResponseEntity<?>> getAllCategory(WebRequest webRequest) {
+        String eTag = eTagService.getCategoryListETag();
+        if (EncodedResponse.checkNotModified(webRequest, eTag)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String acceptEncoding = webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return encodedResponseCache.get(EncodedResponseCache.CATEGORY_LIST, eTag, asyncCategoryService::findAllCategory)
+                .thenApply(encoded -> encoded.toResponseEntity(acceptEncoding));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateCategory(@PathVariable Long id, @RequestBody UpdateCategoryRequest request) {
-        Category category = categoryService.updateCategory(id, request);
-        return ResponseEntity.ok(category);
+    public CompletableFuture<ResponseEntity<?>> updateCategory(@PathVariable Long id, @RequestBody UpdateCategoryRequest request) {
+        return asyncCategoryService.updateCategory(id, request).thenApply(ResponseEntity::ok);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteCategory(@PathVariable Long id) {
-        categoryService.deleteCategory(id);
-        return ResponseEntity.ok("Category deleted");
+    public CompletableFuture<ResponseEntity<?>> deleteCategory(@PathVariable Long id) {
+        return asyncCategoryService.deleteCategory(id).thenApply(done -> ResponseEntity.ok("Category deleted"));
     }
 }
@@ -1,16 +1,29 @@
 package com.ronald.blogapptdd.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ronald.blogapptdd.cache.EncodedResponse;
+import com.ronald.blogapptdd.cache.EncodedResponseCache;
+import com.ronald.blogapptdd.cache.PostDetailCache;
 import com.ronald.blogapptdd.dto.request.CreatePostRequest;
+import com.ronald.blogapptdd.dto.request.DeletePostsRequest;
 import com.ronald.blogapptdd.dto.request.UpdatePostRequest;
-import com.ronald.blogapptdd.dto.response.PostResponseDTO;
-import com.ronald.blogapptdd.entity.Post;
+import com.ronald.blogapptdd.service.AsyncPostService;
+import com.ronald.blogapptdd.service.ETagService;
 import com.ronald.blogapptdd.service.PostService;
-import com.ronald.blogapptdd.utils.PostMapperUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/post")
@@ -18,38 +31,139 @@ public class PostController {
 
     private final PostService postService;
 
-    public PostController(PostService postService) {
+    private final AsyncPostService asyncPostService;
+
+    private final PostDetailCache postDetailCache;
+
+    private final ObjectMapper objectMapper;
+
+    private final ETagService eTagService;
+
+    private final EncodedResponseCache encodedResponseCache;
+
+    public PostController(PostService postService, AsyncPostService asyncPostService, PostDetailCache postDetailCache, ObjectMapper objectMapper, ETagService eTagService, EncodedResponseCache encodedResponseCache) {
         this.postService = postService;
+        this.asyncPostService = asyncPostService;
+        this.postDetailCache = postDetailCache;
+        this.objectMapper = objectMapper;
+        this.eTagService = eTagService;
+        this.encodedResponseCache = encodedResponseCache;
     }
 
     @GetMapping("/")
-    public ResponseEntity<?> getAllPost() {
-        List<PostResponseDTO> allPosts = postService.getAllPosts();
-        return ResponseEntity.ok(allPosts);
+    public CompletableFuture<ResponseEntity<?>> getAllPost(@RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Integer size,
+                                        @RequestParam(defaultValue = "full") String view,
+                                        @RequestParam(defaultValue = "false") boolean excerpt,
+                                        WebRequest webRequest) {
+        boolean summary = "summary".equalsIgnoreCase(view);
+        if (!summary && !"full".equalsIgnoreCase(view)) {
+            throw new IllegalArgumentException("Unsupported view: " + view);
+        }
+        if (webRequest.checkNotModified(eTagService.getPostListETag())) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (summary) {
+            // summaries are always paged: a listing never needs every post at once
+            return asyncPostService.getPostSummaryPage(cursor, size, excerpt).thenApply(ResponseEntity::ok);
+        }
+        if (cursor == null && size == null) {
+            return asyncPostService.getAllPosts().thenApply(ResponseEntity::ok);
+        }
+        return asyncPostService.getPostPage(cursor, size).thenApply(ResponseEntity::ok);
     }
 
     @PostMapping("/")
-    public ResponseEntity<?> createPost(@RequestBody CreatePostRequest request) {
-        Post post = postService.createPost(request);
-        PostResponseDTO postResponseDTO = PostMapperUtils.mapPostToPostResponseDTO(post);
-        return ResponseEntity.ok(postResponseDTO);
+    public CompletableFuture<ResponseEntity<?>> createPost(@RequestBody CreatePostRequest request) {
+        return asyncPostService.createPost(request).thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Bulk import of a streamed newline-delimited JSON body, one {@link CreatePostRequest} per line.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public CompletableFuture<ResponseEntity<?>> importPosts(InputStream body) {
+        return asyncPostService.importPosts(body).thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Streams every post as NDJSON (default) or as one JSON array, writing each post as it is read.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPosts(@RequestParam(defaultValue = "ndjson") String format) {
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        if (!ndjson && !"json".equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+        StreamingResponseBody body = outputStream -> writeExport(outputStream, ndjson);
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    /**
+     * Full-text search over post titles and contents, best match first.
+     */
+    @GetMapping("/search")
+    public CompletableFuture<ResponseEntity<?>> searchPosts(@RequestParam("q") String query,
+                                                            @RequestParam(required = false) Integer limit) {
+        return asyncPostService.searchPosts(query, limit).thenApply(ResponseEntity::ok);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getPostDetail(@PathVariable Long id) {
-        PostResponseDTO postDetail = postService.getPostDetail(id);
-        return ResponseEntity.ok(postDetail);
+    public CompletableFuture<ResponseEntity<?>> getPostDetail(@PathVariable Long id, WebRequest webRequest) {
+        String eTag = eTagService.getPostETag(id);
+        if (EncodedResponse.checkNotModified(webRequest, eTag)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String acceptEncoding = webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return encodedResponseCache.get(EncodedResponseCache.postKey(id), eTag, () -> asyncPostService.getPostDetail(id))
+                .thenApply(encoded -> encoded.toResponseEntity(acceptEncoding));
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<?> getPostDetailCacheStats() {
+        return ResponseEntity.ok(postDetailCache.stats());
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> updatePost(@PathVariable Long id, UpdatePostRequest request) {
-        PostResponseDTO post = postService.updatePost(id, request);
-        return ResponseEntity.ok(post);
+    public CompletableFuture<ResponseEntity<?>> updatePost(@PathVariable Long id, UpdatePostRequest request) {
+        return asyncPostService.updatePost(id, request).thenApply(ResponseEntity::ok);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deletePost(@PathVariable Long id) {
-        postService.deletePost(id);
-        return ResponseEntity.ok("Post deleted");
+    public CompletableFuture<ResponseEntity<?>> deletePost(@PathVariable Long id) {
+        return asyncPostService.deletePost(id).thenApply(done -> ResponseEntity.ok("Post deleted"));
+    }
+
+    /**
+     * Deletes the posts with the given ids, or every post in a category or creation time range, in chunks.
+     */
+    @PostMapping("/bulk-delete")
+    public CompletableFuture<ResponseEntity<?>> deletePosts(@RequestBody DeletePostsRequest request) {
+        return asyncPostService.deletePosts(request).thenApply(ResponseEntity::ok);
+    }
+
+    private void writeExport(OutputStream outputStream, boolean ndjson) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.setRootValueSeparator(null);
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+            postService.exportPosts(post -> {
+                try {
+                    generator.writeObject(post);
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+        }
     }
 }
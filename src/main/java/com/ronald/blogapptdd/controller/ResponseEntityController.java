@@ -1,13 +1,35 @@
 package com.ronald.blogapptdd.controller;
 
+import com.ronald.blogapptdd.exception.UpdateConflictException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import java.util.concurrent.RejectedExecutionException;
+
 @ControllerAdvice
 public class ResponseEntityController extends ResponseEntityExceptionHandler {
 
+    /**
+     * A saturated executor is a temporary condition: tell the client to come back shortly.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> handleRejectedExecution(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body("Server busy, retry later");
+    }
+
+    /**
+     * The entity kept changing under the update; the client may read it again and decide.
+     */
+    @ExceptionHandler(UpdateConflictException.class)
+    public ResponseEntity<String> handleUpdateConflict(UpdateConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<String> handleException(Exception e) {
         return ResponseEntity.badRequest().body((e.getMessage()));
@@ -1,48 +1,101 @@
 package com.ronald.blogapptdd.controller;
 
+import com.ronald.blogapptdd.cache.EncodedResponse;
+import com.ronald.blogapptdd.cache.EncodedResponseCache;
 import com.ronald.blogapptdd.dto.request.CreateTagRequest;
 import com.ronald.blogapptdd.dto.request.UpdateTagRequest;
-import com.ronald.blogapptdd.entity.Tag;
-import com.ronald.blogapptdd.service.TagService;
+import com.ronald.blogapptdd.search.TagMatch;
+import com.ronald.blogapptdd.service.AsyncPostService;
+import com.ronald.blogapptdd.service.AsyncTagService;
+import com.ronald.blogapptdd.service.ETagService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/tag")
 public class TagController {
 
-    private final TagService tagService;
+    private final AsyncTagService asyncTagService;
+
+    private final AsyncPostService asyncPostService;
+
+    private final ETagService eTagService;
+
+    private final EncodedResponseCache encodedResponseCache;
 
-    public TagController(TagService tagService) {
-        this.tagService = tagService;
+    public TagController(AsyncTagService asyncTagService, AsyncPostService asyncPostService, ETagService eTagService, EncodedResponseCache encodedResponseCache) {
+        this.asyncTagService = asyncTagService;
+        this.asyncPostService = asyncPostService;
+        this.eTagService = eTagService;
+        this.encodedResponseCache = encodedResponseCache;
     }
 
     @GetMapping("/")
-    public ResponseEntity<?> getAllTag() {
-        return ResponseEntity.ok(tagService.getAllTags());
+    public CompletableFuture<ResponseEntity<?>> getAllTag(WebRequest webRequest) {
+        String eTag = eTagService.getTagListETag();
+        if (EncodedResponse.checkNotModified(webRequest, eTag)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String acceptEncoding = webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return encodedResponseCache.get(EncodedResponseCache.TAG_LIST, eTag, asyncTagService::getAllTags)
+                .thenApply(encoded -> encoded.toResponseEntity(acceptEncoding));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getTagDetail(@PathVariable Long id) {
-        Tag tagDetail = tagService.getTagDetail(id);
-        return ResponseEntity.ok(tagDetail);
+    public CompletableFuture<ResponseEntity<?>> getTagDetail(@PathVariable Long id, WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTagService.getTagETag(id))) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return asyncTagService.getTagDetail(id).thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Posts carrying the tag, newest first.
+     */
+    @GetMapping("/{id}/posts")
+    public CompletableFuture<ResponseEntity<?>> getTagPosts(@PathVariable Long id,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer size,
+                                                            WebRequest webRequest) {
+        if (webRequest.checkNotModified(eTagService.getPostListETag())) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return asyncPostService.getPostPageByTags(List.of(id), TagMatch.ALL, cursor, size).thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Posts carrying all ({@code match=all}, the default) or any ({@code match=any}) of the tags, newest first.
+     */
+    @GetMapping("/posts")
+    public CompletableFuture<ResponseEntity<?>> getPostsByTags(@RequestParam List<Long> ids,
+                                                               @RequestParam(defaultValue = "all") String match,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer size,
+                                                               WebRequest webRequest) {
+        TagMatch tagMatch = TagMatch.parse(match);
+        if (webRequest.checkNotModified(eTagService.getPostListETag())) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return asyncPostService.getPostPageByTags(ids, tagMatch, cursor, size).thenApply(ResponseEntity::ok);
     }
 
     @PostMapping("/")
-    public ResponseEntity<?> createTag(@RequestBody CreateTagRequest request) {
-        Tag newTag = tagService.createTag(request);
-        return ResponseEntity.ok(newTag);
+    public CompletableFuture<ResponseEntity<?>> createTag(@RequestBody CreateTagRequest request) {
+        return asyncTagService.createTag(request).thenApply(ResponseEntity::ok);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateTag(@PathVariable Long id, @RequestBody UpdateTagRequest request) {
-        Tag updatedTag = tagService.updateTag(id, request);
-        return ResponseEntity.ok(updatedTag);
+    public CompletableFuture<ResponseEntity<?>> updateTag(@PathVariable Long id, @RequestBody UpdateTagRequest request) {
+        return asyncTagService.updateTag(id, request).thenApply(ResponseEntity::ok);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteTag(@PathVariable Long id) {
-        tagService.deleteTag(id);
-        return ResponseEntity.ok("Tag deleted");
+    public CompletableFuture<ResponseEntity<?>> deleteTag(@PathVariable Long id) {
+        return asyncTagService.deleteTag(id).thenApply(done -> ResponseEntity.ok("Tag deleted"));
     }
 }
@@ -0,0 +1,29 @@
+package com.ronald.blogapptdd.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Selects the posts of a bulk delete. Every given criterion has to match; at least one is required.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeletePostsRequest {
+    private List<Long> ids;
+    private Long categoryId;
+    /**
+     * Inclusive lower bound of the creation time.
+     */
+    private Instant createdFrom;
+    /**
+     * Exclusive upper bound of the creation time.
+     */
+    private Instant createdTo;
+}
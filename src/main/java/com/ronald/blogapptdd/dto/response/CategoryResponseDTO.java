@@ -0,0 +1,16 @@
+package com.ronald.blogapptdd.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.sql.Timestamp;
+
+@Data
+@Builder
+public class CategoryResponseDTO {
+    private Long id;
+    private String name;
+    private String description;
+    private Timestamp createdAt;
+    private long postCount;
+}
@@ -0,0 +1,17 @@
+package com.ronald.blogapptdd.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class CursorPageResponseDTO<T> {
+    private List<T> items;
+    private int size;
+    /**
+     * Opaque token to pass back as {@code cursor} for the next page, {@code null} on the last page.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,16 @@
+package com.ronald.blogapptdd.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class DeleteChunkResultDTO {
+    private int chunk;
+    private long firstPostId;
+    private long lastPostId;
+    private int postsDeleted;
+    private int postTagsDeleted;
+    private long elapsedMillis;
+    private double postsPerSecond;
+}
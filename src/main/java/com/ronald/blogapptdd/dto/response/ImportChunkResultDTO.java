@@ -0,0 +1,16 @@
+package com.ronald.blogapptdd.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ImportChunkResultDTO {
+    private int chunk;
+    private long firstLine;
+    private long lastLine;
+    private int imported;
+    private int failed;
+    private long elapsedMillis;
+    private double recordsPerSecond;
+}
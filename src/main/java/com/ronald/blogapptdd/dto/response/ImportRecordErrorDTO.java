@@ -0,0 +1,11 @@
+package com.ronald.blogapptdd.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ImportRecordErrorDTO {
+    private long line;
+    private String message;
+}
@@ -0,0 +1,16 @@
+package com.ronald.blogapptdd.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class PostDeleteResponseDTO {
+    private long postsDeleted;
+    private long postTagsDeleted;
+    private long elapsedMillis;
+    private double postsPerSecond;
+    private List<DeleteChunkResultDTO> chunks;
+}
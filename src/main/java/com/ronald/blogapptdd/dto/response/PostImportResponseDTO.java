@@ -0,0 +1,26 @@
+package com.ronald.blogapptdd.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class PostImportResponseDTO {
+    private long records;
+    private long imported;
+    private long failed;
+    private long elapsedMillis;
+    private double recordsPerSecond;
+    private List<ImportChunkResultDTO> chunks;
+    /**
+     * {@code true} when more chunks were written than are listed in {@link #chunks}.
+     */
+    private boolean chunksTruncated;
+    private List<ImportRecordErrorDTO> errors;
+    /**
+     * {@code true} when more records failed than are listed in {@link #errors}.
+     */
+    private boolean errorsTruncated;
+}
@@ -0,0 +1,14 @@
+package com.ronald.blogapptdd.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class PostSearchResultDTO {
+    private PostResponseDTO post;
+    /**
+     * BM25 relevance of the post for the query; only meaningful relative to the other results.
+     */
+    private double score;
+}
@@ -0,0 +1,21 @@
+package com.ronald.blogapptdd.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@Data
+@Builder
+public class PostSummaryDTO {
+    private Long id;
+    private String title;
+    private String categoryName;
+    private Timestamp createdAt;
+    private List<String> tagNames;
+    /**
+     * Start of the content, only present when the listing asked for excerpts.
+     */
+    private String excerpt;
+}
@@ -16,4 +16,5 @@ public class TagResponseDTO {
     private String name;
     private String description;
     private Timestamp createdAt;
+    private long postCount;
 }
@@ -27,8 +27,21 @@ public class Category {
     @Column(name = "created_at")
     private Timestamp createdAt;
 
+    @Column(name = "updated_at")
+    private Timestamp updatedAt;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     @PrePersist
     public void prePersist() {
         createdAt = new Timestamp(System.currentTimeMillis());
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = new Timestamp(System.currentTimeMillis());
     }
 }
@@ -0,0 +1,24 @@
+package com.ronald.blogapptdd.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+
+/**
+ * Number of posts in a category, kept up to date by the post counters instead of counting posts on read.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "category_post_count")
+public class CategoryPostCount {
+    @Id
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(name = "post_count")
+    private long postCount;
+}
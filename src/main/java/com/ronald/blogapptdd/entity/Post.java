@@ -13,7 +13,11 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-@Table(name = "post")
+@Table(name = "post", indexes = {
+        @Index(name = "idx_post_created_at_id", columnList = "created_at, id"),
+        // checked by every category delete, and by the category filter of the bulk delete
+        @Index(name = "idx_post_category_id", columnList = "category_id")
+})
 public class Post {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -33,11 +37,28 @@ public class Post {
     @Column(name = "created_at")
     private Timestamp createdAt;
 
+    /**
+     * Also touched when only the tag links change, which live in {@code post_tag}, so that
+     * {@link #version} moves with everything a post response shows.
+     */
+    @Column(name = "updated_at")
+    private Timestamp updatedAt;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     @OneToMany(mappedBy = "post")
     private List<PostTag> postTags;
 
     @PrePersist
     public void prePersist() {
         createdAt = new Timestamp(System.currentTimeMillis());
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = new Timestamp(System.currentTimeMillis());
     }
 }
@@ -2,6 +2,9 @@ package com.ronald.blogapptdd.entity;
 
 import com.ronald.blogapptdd.entity.composite.PostTagKey;
 import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.springframework.data.domain.Persistable;
 
 import javax.persistence.*;
 
@@ -11,18 +14,44 @@ import javax.persistence.*;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
-@Table(name = "post_tag")
-public class PostTag {
+@Table(name = "post_tag", indexes = @Index(name = "idx_post_tag_tag_id", columnList = "tag_id"))
+public class PostTag implements Persistable<PostTagKey> {
     @EmbeddedId
     private PostTagKey id;
 
+    /**
+     * Links go with their post or tag in the database ({@code on delete cascade}), so either can
+     * be deleted in one statement without deleting its links first.
+     */
     @ManyToOne
     @MapsId("postId")
+    @OnDelete(action = OnDeleteAction.CASCADE)
     @JoinColumn(name = "post_id")
     private Post post;
 
     @ManyToOne
     @MapsId("tagId")
+    @OnDelete(action = OnDeleteAction.CASCADE)
     @JoinColumn(name = "tag_id")
     private Tag tag;
+
+    /**
+     * The key is assigned by the application, so Spring Data cannot tell a new row from an
+     * existing one by looking at the id. Without this flag every save would be a merge that
+     * selects the row first, which also defeats JDBC insert batching.
+     */
+    @Transient
+    @Builder.Default
+    private boolean isNew = true;
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
 }
@@ -29,6 +29,13 @@ public class Tag {
     @Column(name = "created_at")
     private Timestamp createdAt;
 
+    @Column(name = "updated_at")
+    private Timestamp updatedAt;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     @OneToMany(mappedBy = "tag")
     @JsonIgnore
     private List<PostTag> postTags;
@@ -36,6 +43,12 @@ public class Tag {
     @PrePersist
     public void prePersist() {
         createdAt = new Timestamp(System.currentTimeMillis());
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = new Timestamp(System.currentTimeMillis());
     }
 
 }
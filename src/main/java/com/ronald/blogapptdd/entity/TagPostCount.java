@@ -0,0 +1,24 @@
+package com.ronald.blogapptdd.entity;
+
+import lombok.*;
+
+import javax.persistence.*;
+
+/**
+ * Number of posts carrying a tag, kept up to date by the post counters instead of counting posts on read.
+ */
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table(name = "tag_post_count")
+public class TagPostCount {
+    @Id
+    @Column(name = "tag_id")
+    private Long tagId;
+
+    @Column(name = "post_count")
+    private long postCount;
+}
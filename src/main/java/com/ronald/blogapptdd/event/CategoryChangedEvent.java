@@ -0,0 +1,14 @@
+package com.ronald.blogapptdd.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by the category service after a category is created, updated or deleted.
+ */
+@Getter
+@AllArgsConstructor
+public class CategoryChangedEvent {
+    private final ChangeType type;
+    private final Long categoryId;
+}
@@ -0,0 +1,7 @@
+package com.ronald.blogapptdd.event;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,41 @@
+package com.ronald.blogapptdd.event;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Published by the post service after a post is created, updated or deleted.
+ * <p>
+ * Besides the post id the event carries what listeners maintaining derived indexes need,
+ * so they do not have to read the post back: the new title and content ({@code null} for
+ * deletes), and the post's category and tag ids before and after the change.
+ */
+@Getter
+@Builder
+public class PostChangedEvent {
+    private final ChangeType type;
+    private final Long postId;
+    private final String title;
+    private final String content;
+    /**
+     * Category of the post after the change; {@code null} for deletes.
+     */
+    private final Long categoryId;
+    /**
+     * Category of the post before the change; {@code null} for creates.
+     */
+    private final Long previousCategoryId;
+    /**
+     * Tags of the post after the change; empty for deletes.
+     */
+    @Builder.Default
+    private final Set<Long> tagIds = Collections.emptySet();
+    /**
+     * Tags of the post before the change; empty for creates.
+     */
+    @Builder.Default
+    private final Set<Long> previousTagIds = Collections.emptySet();
+}
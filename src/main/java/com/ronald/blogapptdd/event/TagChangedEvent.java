@@ -0,0 +1,14 @@
+package com.ronald.blogapptdd.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by the tag service after a tag is created, updated or deleted.
+ */
+@Getter
+@AllArgsConstructor
+public class TagChangedEvent {
+    private final ChangeType type;
+    private final Long tagId;
+}
@@ -0,0 +1,18 @@
+package com.ronald.blogapptdd.exception;
+
+public class UpdateConflictException extends RuntimeException {
+    public UpdateConflictException() {
+    }
+
+    public UpdateConflictException(String message) {
+        super(message);
+    }
+
+    public UpdateConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public UpdateConflictException(Throwable cause) {
+        super(cause);
+    }
+}
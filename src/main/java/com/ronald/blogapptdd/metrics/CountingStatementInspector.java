@@ -0,0 +1,16 @@
+package com.ronald.blogapptdd.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every statement Hibernate prepares towards the current request's {@link QueryStats}.
+ * Registered through {@code hibernate.session_factory.statement_inspector}.
+ */
+public class CountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryStats.recordStatement();
+        return sql;
+    }
+}
@@ -0,0 +1,143 @@
+package com.ronald.blogapptdd.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Times every call into the post, tag and category services and every Spring Data repository
+ * call.
+ * <p>
+ * Each call is recorded in the {@value #INVOCATIONS_METRIC} timer, tagged with the layer, the
+ * class, the method, the outcome and the exception type of a failed call; the error count of
+ * a method is the count of its {@code outcome=error} series. Calls still running are published
+ * in the {@value #ACTIVE_METRIC} gauge. Percentile histograms are switched on for the timer in
+ * {@code application.properties}, so they can be aggregated across instances.
+ * <p>
+ * Meters are looked up once per class and method and kept, so a call costs two clock reads,
+ * two atomic updates and one timer update. Overloads of a method share its tags, and so share
+ * one set of meters. Repository methods returning a stream are timed
+ * until the stream is handed out, not until it is consumed.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(prefix = "blog.metrics", name = "enabled", matchIfMissing = true)
+public class InvocationMetricsAspect {
+
+    static final String INVOCATIONS_METRIC = "blog.invocations";
+
+    static final String ACTIVE_METRIC = "blog.invocations.active";
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<Class<?>, ClassMeters> metersByClass = new ConcurrentHashMap<>();
+
+    public InvocationMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.ronald.blogapptdd.service.impl.PostServiceImpl.*(..))"
+            + " || execution(public * com.ronald.blogapptdd.service.impl.TagServiceImpl.*(..))"
+            + " || execution(public * com.ronald.blogapptdd.service.impl.CategoryServiceImpl.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        ClassMeters classMeters = metersByClass.computeIfAbsent(joinPoint.getTarget().getClass(),
+                type -> new ClassMeters("service", ClassUtils.getUserClass(type).getSimpleName()));
+        return time(joinPoint, classMeters);
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        // the target is Spring Data's shared implementation; the proxy carries the interface we declared
+        ClassMeters classMeters = metersByClass.computeIfAbsent(joinPoint.getThis().getClass(),
+                type -> new ClassMeters("repository", repositoryName(type)));
+        return time(joinPoint, classMeters);
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, ClassMeters classMeters) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        MethodMeters meters = classMeters.forMethod(method);
+        meters.active.incrementAndGet();
+        long started = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            meters.success.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            meters.failure(e).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            throw e;
+        } finally {
+            meters.active.decrementAndGet();
+        }
+    }
+
+    private static String repositoryName(Class<?> proxyType) {
+        for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(proxyType)) {
+            if (Repository.class.isAssignableFrom(type) && !type.getName().startsWith("org.springframework.")) {
+                return type.getSimpleName();
+            }
+        }
+        return proxyType.getSimpleName();
+    }
+
+    private final class ClassMeters {
+        private final Tags tags;
+        private final ConcurrentMap<Method, MethodMeters> metersByMethod = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, MethodMeters> metersByName = new ConcurrentHashMap<>();
+
+        ClassMeters(String layer, String className) {
+            this.tags = Tags.of("layer", layer, "class", className);
+        }
+
+        MethodMeters forMethod(Method method) {
+            MethodMeters meters = metersByMethod.get(method);
+            return meters != null
+                    ? meters
+                    : metersByMethod.computeIfAbsent(method, m -> metersByName.computeIfAbsent(m.getName(),
+                            name -> new MethodMeters(tags.and("method", name))));
+        }
+    }
+
+    private final class MethodMeters {
+        private final Tags tags;
+        private final AtomicInteger active = new AtomicInteger();
+        private final Timer success;
+        private final ConcurrentMap<Class<?>, Timer> failures = new ConcurrentHashMap<>();
+
+        MethodMeters(Tags tags) {
+            this.tags = tags;
+            this.success = timer("success", "none");
+            Gauge.builder(ACTIVE_METRIC, active, AtomicInteger::get)
+                    .description("Service and repository calls in progress")
+                    .tags(tags)
+                    .register(meterRegistry);
+        }
+
+        Timer failure(Throwable e) {
+            return failures.computeIfAbsent(e.getClass(), type -> timer("error", type.getSimpleName()));
+        }
+
+        private Timer timer(String outcome, String exception) {
+            return Timer.builder(INVOCATIONS_METRIC)
+                    .description("Service and repository calls")
+                    .tags(tags)
+                    .tag("outcome", outcome)
+                    .tag("exception", exception)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.ronald.blogapptdd.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Adds the time spent executing statements and batches to the current request's
+ * {@link QueryStats}. Hibernate creates one listener per session, through
+ * {@code hibernate.session.events.auto}, and a session is used by one thread at a time.
+ */
+public class JdbcTimingSessionListener extends BaseSessionEventListener {
+
+    private long started;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        started = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        QueryStats.recordJdbcTime(System.nanoTime() - started);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        started = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        QueryStats.recordJdbcTime(System.nanoTime() - started);
+    }
+}
@@ -0,0 +1,79 @@
+package com.ronald.blogapptdd.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SQL statements prepared and JDBC time spent on behalf of one HTTP request.
+ * <p>
+ * The stats of the running request are bound to the thread handling it by
+ * {@link QueryStatsFilter}, and carried over to executor threads by {@link #propagate(Runnable)},
+ * so the work a controller hands to the read, write and bulk executors is counted as well.
+ * Statements issued outside a request, such as the scheduled counter flush, are not counted.
+ */
+public final class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private final AtomicInteger statementCount = new AtomicInteger();
+
+    private final AtomicLong jdbcNanos = new AtomicLong();
+
+    public int getStatementCount() {
+        return statementCount.get();
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos.get();
+    }
+
+    /**
+     * Stats of the request the current thread works for, {@code null} outside a request.
+     */
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Wraps {@code task} so it counts towards the request that submitted it; meant as the task
+     * decorator of the application's executors.
+     */
+    public static Runnable propagate(Runnable task) {
+        QueryStats stats = CURRENT.get();
+        if (stats == null) {
+            return task;
+        }
+        return () -> {
+            QueryStats previous = bind(stats);
+            try {
+                task.run();
+            } finally {
+                bind(previous);
+            }
+        };
+    }
+
+    static QueryStats bind(QueryStats stats) {
+        QueryStats previous = CURRENT.get();
+        if (stats == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(stats);
+        }
+        return previous;
+    }
+
+    static void recordStatement() {
+        QueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statementCount.incrementAndGet();
+        }
+    }
+
+    static void recordJdbcTime(long nanos) {
+        QueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.jdbcNanos.addAndGet(nanos);
+        }
+    }
+}
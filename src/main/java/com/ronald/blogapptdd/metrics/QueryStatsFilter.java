@@ -0,0 +1,89 @@
+package com.ronald.blogapptdd.metrics;
+
+import com.ronald.blogapptdd.config.BlogProperties;
+import com.ronald.blogapptdd.exception.QueryBudgetExceededException;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements of every request and holds it to the budget of its endpoint.
+ * <p>
+ * Budgets are keyed by method and path pattern, e.g. {@code GET /api/v1/post/{id}}; endpoints
+ * without one get {@code blog.query-budget.default-max-statements}, and a negative budget means
+ * no limit. A request over budget is logged as a warning, or fails with
+ * {@link QueryBudgetExceededException} when {@code blog.query-budget.fail-on-exceeded} is set,
+ * as it is in the tests. Every request is logged with its count and JDBC time at debug level
+ * under the {@code blog.query-stats} logger, which application.properties turns on.
+ * <p>
+ * An asynchronous request is dispatched more than once; the stats live in a request attribute
+ * and are checked after the last dispatch, once the executor work behind it is done.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    private static final Logger statsLog = LoggerFactory.getLogger("blog.query-stats");
+
+    private static final String STATS_ATTRIBUTE = QueryStatsFilter.class.getName() + ".stats";
+
+    private final BlogProperties blogProperties;
+
+    public QueryStatsFilter(BlogProperties blogProperties) {
+        this.blogProperties = blogProperties;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        QueryStats stats = (QueryStats) request.getAttribute(STATS_ATTRIBUTE);
+        if (stats == null) {
+            stats = new QueryStats();
+            request.setAttribute(STATS_ATTRIBUTE, stats);
+        }
+        QueryStats previous = QueryStats.bind(stats);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryStats.bind(previous);
+        }
+        if (!isAsyncStarted(request)) {
+            checkBudget(request, stats);
+        }
+    }
+
+    private void checkBudget(HttpServletRequest request, QueryStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+        int statements = stats.getStatementCount();
+        double jdbcMillis = stats.getJdbcNanos() / 1_000_000d;
+        statsLog.debug("{}: {} statements, {} ms JDBC", endpoint, statements, jdbcMillis);
+
+        BlogProperties.QueryBudget budget = blogProperties.getQueryBudget();
+        int maxStatements = budget.getEndpoints().getOrDefault(endpoint, budget.getDefaultMaxStatements());
+        if (maxStatements < 0 || statements <= maxStatements) {
+            return;
+        }
+        String message = endpoint + " issued " + statements + " statements, budget is " + maxStatements;
+        if (budget.isFailOnExceeded()) {
+            throw new QueryBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+}
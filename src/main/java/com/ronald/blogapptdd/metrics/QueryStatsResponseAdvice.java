@@ -0,0 +1,43 @@
+package com.ronald.blogapptdd.metrics;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Locale;
+
+/**
+ * Reports the request's statement count and JDBC time in the {@value #STATEMENT_COUNT_HEADER}
+ * and {@value #SERVER_TIMING_HEADER} headers of every response with a body. The headers have
+ * to be set before the body is written, which is after the handler and any executor work it
+ * waited for have finished.
+ */
+@ControllerAdvice
+public class QueryStatsResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String STATEMENT_COUNT_HEADER = "X-Query-Count";
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            response.getHeaders().set(STATEMENT_COUNT_HEADER, String.valueOf(stats.getStatementCount()));
+            response.getHeaders().add(SERVER_TIMING_HEADER,
+                    String.format(Locale.ROOT, "db;dur=%.3f", stats.getJdbcNanos() / 1_000_000d));
+        }
+        return body;
+    }
+}
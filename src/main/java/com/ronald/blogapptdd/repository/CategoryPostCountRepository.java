@@ -0,0 +1,15 @@
+package com.ronald.blogapptdd.repository;
+
+import com.ronald.blogapptdd.entity.CategoryPostCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CategoryPostCountRepository extends JpaRepository<CategoryPostCount, Long> {
+    @Modifying
+    @Query("delete from CategoryPostCount c where c.categoryId = :categoryId")
+    int deleteByCategoryId(@Param("categoryId") Long categoryId);
+}
@@ -2,8 +2,26 @@ package com.ronald.blogapptdd.repository;
 
 import com.ronald.blogapptdd.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    @Query("select c.version from Category c where c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Removes the category in a single statement, without loading it first. Returns the number of
+     * rows removed; fails while posts still belong to the category.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Category c where c.id = :id")
+    int deleteDirectlyById(@Param("id") Long id);
 }
@@ -1,9 +1,148 @@
 package com.ronald.blogapptdd.repository;
 
 import com.ronald.blogapptdd.entity.Post;
+import com.ronald.blogapptdd.repository.projection.IdCount;
+import com.ronald.blogapptdd.repository.projection.PostCategoryId;
+import com.ronald.blogapptdd.repository.projection.PostSummaryRow;
+import com.ronald.blogapptdd.repository.projection.PostVersionRow;
+import com.ronald.blogapptdd.search.PostSearchDocument;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
+
+    int EXPORT_FETCH_SIZE = 500;
+
+    int SUMMARY_EXCERPT_LENGTH = 200;
+
+    @Query("select distinct p from Post p " +
+            "left join fetch p.category " +
+            "left join fetch p.postTags pt " +
+            "left join fetch pt.tag")
+    List<Post> findAllWithCategoryAndTags();
+
+    /**
+     * Read-only on its own, so that post detail reads can go to a replica without the cached
+     * path opening a transaction.
+     */
+    @Transactional(readOnly = true)
+    @Query("select distinct p from Post p " +
+            "left join fetch p.category " +
+            "left join fetch p.postTags pt " +
+            "left join fetch pt.tag " +
+            "where p.id = :id")
+    Optional<Post> findWithCategoryAndTagsById(@Param("id") Long id);
+
+    @Query("select distinct p from Post p " +
+            "left join fetch p.category " +
+            "left join fetch p.postTags pt " +
+            "left join fetch pt.tag " +
+            "where p.id in :ids")
+    List<Post> findAllWithCategoryAndTagsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.id from Post p order by p.createdAt desc, p.id desc")
+    List<Long> findFirstPageIds(Pageable pageable);
+
+    /**
+     * Keyset page: ids of the posts strictly after the given {@code (createdAt, id)} position, newest first.
+     * Served by the {@code (created_at, id)} index, so page N costs the same as page 1.
+     */
+    @Query("select p.id from Post p " +
+            "where p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id) " +
+            "order by p.createdAt desc, p.id desc")
+    List<Long> findPageIdsAfter(@Param("createdAt") Timestamp createdAt, @Param("id") Long id, Pageable pageable);
+
+    @Query("select new com.ronald.blogapptdd.repository.projection.PostSummaryRow(p.id, p.title, c.name, p.createdAt) " +
+            "from Post p left join p.category c where p.id in :ids")
+    List<PostSummaryRow> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Like {@link #findSummariesByIdIn}, plus the first {@link #SUMMARY_EXCERPT_LENGTH} characters of the content,
+     * cut in the database so the full body never leaves it.
+     */
+    @Query("select new com.ronald.blogapptdd.repository.projection.PostSummaryRow(p.id, p.title, c.name, p.createdAt, " +
+            "substring(p.content, 1, " + SUMMARY_EXCERPT_LENGTH + ")) " +
+            "from Post p left join p.category c where p.id in :ids")
+    List<PostSummaryRow> findSummariesWithExcerptByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Scrolls over all posts with their category, reading {@link #EXPORT_FETCH_SIZE} rows per round trip.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("select p from Post p left join fetch p.category order by p.id")
+    Stream<Post> streamAllWithCategory();
+
+    /**
+     * Scrolls over the searchable fields of all posts. Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("select new com.ronald.blogapptdd.search.PostSearchDocument(p.id, p.title, p.content) from Post p")
+    Stream<PostSearchDocument> streamSearchDocuments();
+
+    @Query("select p.category.id as id, count(p) as count from Post p " +
+            "where p.category is not null group by p.category.id")
+    List<IdCount> countPostsByCategory();
+
+    /**
+     * Versions of the post and of everything its response embeds, one row per tag, without loading any entity.
+     * Empty if the post does not exist.
+     */
+    @Query("select p.version as postVersion, c.id as categoryId, c.version as categoryVersion, " +
+            "t.id as tagId, t.version as tagVersion " +
+            "from Post p left join p.category c left join p.postTags pt left join pt.tag t " +
+            "where p.id = :id order by t.id")
+    List<PostVersionRow> findVersionRowsById(@Param("id") Long id);
+
+    /**
+     * Keyset page in id order over the posts after {@code afterId} that match every non-null filter.
+     * The creation time range includes {@code createdFrom} and excludes {@code createdTo}.
+     */
+    @Query("select p.id from Post p " +
+            "where p.id > :afterId " +
+            "and (:categoryId is null or p.category.id = :categoryId) " +
+            "and (:createdFrom is null or p.createdAt >= :createdFrom) " +
+            "and (:createdTo is null or p.createdAt < :createdTo) " +
+            "order by p.id")
+    List<Long> findIdsMatching(@Param("afterId") Long afterId, @Param("categoryId") Long categoryId,
+                               @Param("createdFrom") Timestamp createdFrom, @Param("createdTo") Timestamp createdTo,
+                               Pageable pageable);
+
+    /**
+     * Like {@link #findIdsMatching}, restricted to the given ids instead of paged.
+     */
+    @Query("select p.id from Post p " +
+            "where p.id in :ids " +
+            "and (:categoryId is null or p.category.id = :categoryId) " +
+            "and (:createdFrom is null or p.createdAt >= :createdFrom) " +
+            "and (:createdTo is null or p.createdAt < :createdTo) " +
+            "order by p.id")
+    List<Long> findIdsMatchingIn(@Param("ids") Collection<Long> ids, @Param("categoryId") Long categoryId,
+                                 @Param("createdFrom") Timestamp createdFrom, @Param("createdTo") Timestamp createdTo);
+
+    @Query("select p.id as postId, c.id as categoryId from Post p left join p.category c where p.id in :ids")
+    List<PostCategoryId> findCategoryIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Removes the given posts in a single statement, without loading them first. Their
+     * {@code post_tag} rows go with them through the cascading foreign key.
+     */
+    @Modifying
+    @Query("delete from Post p where p.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
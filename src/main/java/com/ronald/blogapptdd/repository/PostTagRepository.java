@@ -2,11 +2,60 @@ package com.ronald.blogapptdd.repository;
 
 import com.ronald.blogapptdd.entity.PostTag;
 import com.ronald.blogapptdd.entity.composite.PostTagKey;
+import com.ronald.blogapptdd.repository.projection.IdCount;
+import com.ronald.blogapptdd.repository.projection.PostTagName;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PostTagRepository extends JpaRepository<PostTag, PostTagKey> {
+
+    @Query("select pt from PostTag pt join fetch pt.tag where pt.id.postId in :postIds")
+    List<PostTag> findAllWithTagByPostIdIn(@Param("postIds") Collection<Long> postIds);
+
+    /**
+     * Removes the given links of one post in a single statement, without loading them first.
+     */
+    @Modifying
+    @Query("delete from PostTag pt where pt.id.postId = :postId and pt.id.tagId in :tagIds")
+    int deleteByPostIdAndTagIdIn(@Param("postId") Long postId, @Param("tagIds") Collection<Long> tagIds);
+
+    @Query("select pt.id from PostTag pt where pt.id.postId in :postIds")
+    List<PostTagKey> findKeysByPostIdIn(@Param("postIds") Collection<Long> postIds);
+
+    @Query("select pt.id.postId as postId, t.name as tagName from PostTag pt join pt.tag t " +
+            "where pt.id.postId in :postIds order by t.name")
+    List<PostTagName> findTagNamesByPostIdIn(@Param("postIds") Collection<Long> postIds);
+
+    /**
+     * Scrolls over every post-tag link. Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "" + PostRepository.EXPORT_FETCH_SIZE))
+    @Query("select pt.id from PostTag pt")
+    Stream<PostTagKey> streamAllKeys();
+
+    /**
+     * Ids of the posts below {@code beforePostId} carrying at least {@code minTags} of
+     * {@code tagIds}, highest id first. Answers tag queries until the tag index is loaded.
+     */
+    @Query("select pt.id.postId from PostTag pt " +
+            "where pt.id.tagId in :tagIds and pt.id.postId < :beforePostId " +
+            "group by pt.id.postId having count(pt) >= :minTags " +
+            "order by pt.id.postId desc")
+    List<Long> findPostIdsByTagIds(@Param("tagIds") Collection<Long> tagIds, @Param("minTags") long minTags,
+                                   @Param("beforePostId") Long beforePostId, Pageable pageable);
+
+    @Query("select pt.id.tagId as id, count(pt) as count from PostTag pt group by pt.id.tagId")
+    List<IdCount> countPostsByTag();
 }
@@ -0,0 +1,15 @@
+package com.ronald.blogapptdd.repository;
+
+import com.ronald.blogapptdd.entity.TagPostCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TagPostCountRepository extends JpaRepository<TagPostCount, Long> {
+    @Modifying
+    @Query("delete from TagPostCount c where c.tagId = :tagId")
+    int deleteByTagId(@Param("tagId") Long tagId);
+}
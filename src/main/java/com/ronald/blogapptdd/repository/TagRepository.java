@@ -2,11 +2,28 @@ package com.ronald.blogapptdd.repository;
 
 import com.ronald.blogapptdd.entity.Tag;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TagRepository extends JpaRepository<Tag, Long> {
     List<Tag> findByIdIn(List<Long> tagIds);
+
+    @Query("select t.version from Tag t where t.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Removes the tag in a single statement, without loading it first; its {@code post_tag} rows
+     * go with it through the cascading foreign key. Returns the number of rows removed.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Tag t where t.id = :id")
+    int deleteDirectlyById(@Param("id") Long id);
 }
@@ -0,0 +1,10 @@
+package com.ronald.blogapptdd.repository.projection;
+
+/**
+ * One row of a {@code group by} count query.
+ */
+public interface IdCount {
+    Long getId();
+
+    long getCount();
+}
@@ -0,0 +1,10 @@
+package com.ronald.blogapptdd.repository.projection;
+
+/**
+ * The category a post belongs to, for callers that do not need either entity.
+ */
+public interface PostCategoryId {
+    Long getPostId();
+
+    Long getCategoryId();
+}
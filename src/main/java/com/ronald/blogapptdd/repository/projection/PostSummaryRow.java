@@ -0,0 +1,30 @@
+package com.ronald.blogapptdd.repository.projection;
+
+import lombok.Getter;
+
+import java.sql.Timestamp;
+
+/**
+ * The columns a post listing needs, selected with a constructor expression so the
+ * {@code content} column is never read in full.
+ */
+@Getter
+public class PostSummaryRow {
+    private final Long id;
+    private final String title;
+    private final String categoryName;
+    private final Timestamp createdAt;
+    private final String excerpt;
+
+    public PostSummaryRow(Long id, String title, String categoryName, Timestamp createdAt) {
+        this(id, title, categoryName, createdAt, null);
+    }
+
+    public PostSummaryRow(Long id, String title, String categoryName, Timestamp createdAt, String excerpt) {
+        this.id = id;
+        this.title = title;
+        this.categoryName = categoryName;
+        this.createdAt = createdAt;
+        this.excerpt = excerpt;
+    }
+}
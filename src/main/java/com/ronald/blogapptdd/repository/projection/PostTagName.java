@@ -0,0 +1,10 @@
+package com.ronald.blogapptdd.repository.projection;
+
+/**
+ * A tag name attached to a post, for listings that do not need the tag entity.
+ */
+public interface PostTagName {
+    Long getPostId();
+
+    String getTagName();
+}
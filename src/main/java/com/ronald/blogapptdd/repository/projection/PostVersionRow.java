@@ -0,0 +1,17 @@
+package com.ronald.blogapptdd.repository.projection;
+
+/**
+ * Versions of a post and of the category and one tag it is shown with; a post without tags
+ * has a single row with a {@code null} tag.
+ */
+public interface PostVersionRow {
+    Long getPostVersion();
+
+    Long getCategoryId();
+
+    Long getCategoryVersion();
+
+    Long getTagId();
+
+    Long getTagVersion();
+}
@@ -0,0 +1,15 @@
+package com.ronald.blogapptdd.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The searchable fields of a post, read without its category and tags when the index is rebuilt.
+ */
+@Getter
+@AllArgsConstructor
+public class PostSearchDocument {
+    private final Long id;
+    private final String title;
+    private final String content;
+}
@@ -0,0 +1,354 @@
+package com.ronald.blogapptdd.search;
+
+import com.ronald.blogapptdd.event.ChangeType;
+import com.ronald.blogapptdd.event.PostChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over post titles and contents, ranked with BM25.
+ * <p>
+ * Every indexed post gets a dense ordinal, and every term maps to the ordinals of the posts
+ * containing it together with the term's frequency there. Title terms are counted
+ * {@value #TITLE_WEIGHT} times, so a title match outranks the same match in the content.
+ * Updating or removing a post only marks its old ordinal dead; dead ordinals are dropped from
+ * the postings once they make up a quarter of the index.
+ * <p>
+ * Post changes are applied after the writing transaction commits. {@link #rebuild(Stream)}
+ * builds a fresh index off to the side and swaps it in, replaying the changes that arrived
+ * while it was running.
+ */
+@Component
+public class PostSearchIndex {
+
+    static final int TITLE_WEIGHT = 2;
+
+    private static final double K1 = 1.2;
+
+    private static final double B = 0.75;
+
+    private static final int REBUILD_BATCH_SIZE = 1_000;
+
+    private static final int MIN_DEAD_BEFORE_COMPACTION = 1_024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Segment segment = new Segment();
+
+    /**
+     * Changes seen while a rebuild is running, {@code null} otherwise.
+     */
+    private List<AnalyzedPost> pendingChanges;
+
+    public void index(Long postId, String title, String content) {
+        apply(AnalyzedPost.of(postId, title, content));
+    }
+
+    public void remove(Long postId) {
+        apply(AnalyzedPost.removal(postId));
+    }
+
+    /**
+     * Returns at most {@code limit} posts matching any term of {@code query}, best match first.
+     */
+    public List<SearchHit> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(Tokenizer.tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            return segment.search(terms, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of posts currently searchable.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment.liveCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the whole index with {@code documents}. Searches keep using the old index until
+     * the new one is complete.
+     */
+    public void rebuild(Stream<PostSearchDocument> documents) {
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                throw new IllegalStateException("Search index rebuild already running");
+            }
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            Segment fresh = new Segment();
+            List<PostSearchDocument> batch = new ArrayList<>(REBUILD_BATCH_SIZE);
+            Iterator<PostSearchDocument> iterator = documents.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == REBUILD_BATCH_SIZE) {
+                    addBatch(fresh, batch);
+                    batch.clear();
+                }
+            }
+            addBatch(fresh, batch);
+
+            lock.writeLock().lock();
+            try {
+                // changes are idempotent upserts and removals, so replaying one the rebuild
+                // already read is harmless
+                pendingChanges.forEach(fresh::apply);
+                segment = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        if (event.getType() == ChangeType.DELETED) {
+            remove(event.getPostId());
+        } else {
+            index(event.getPostId(), event.getTitle(), event.getContent());
+        }
+    }
+
+    private void apply(AnalyzedPost change) {
+        lock.writeLock().lock();
+        try {
+            segment.apply(change);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void addBatch(Segment segment, List<PostSearchDocument> batch) {
+        // tokenizing is where a rebuild spends its time and it touches no shared state
+        List<AnalyzedPost> analyzed = batch.parallelStream()
+                .map(document -> AnalyzedPost.of(document.getId(), document.getTitle(), document.getContent()))
+                .collect(Collectors.toList());
+        analyzed.forEach(segment::apply);
+    }
+
+    private static final class AnalyzedPost {
+        private final long postId;
+        private final Map<String, Integer> termFrequencies;
+        private final int length;
+
+        private AnalyzedPost(long postId, Map<String, Integer> termFrequencies, int length) {
+            this.postId = postId;
+            this.termFrequencies = termFrequencies;
+            this.length = length;
+        }
+
+        static AnalyzedPost of(long postId, String title, String content) {
+            Map<String, Integer> termFrequencies = new HashMap<>();
+            int length = Tokenizer.countTerms(title, TITLE_WEIGHT, termFrequencies)
+                    + Tokenizer.countTerms(content, 1, termFrequencies);
+            return new AnalyzedPost(postId, termFrequencies, length);
+        }
+
+        static AnalyzedPost removal(long postId) {
+            return new AnalyzedPost(postId, null, 0);
+        }
+    }
+
+    /**
+     * The index data; not thread-safe on its own.
+     */
+    private static final class Segment {
+        private final Map<String, Postings> postings = new HashMap<>();
+        private final Map<Long, Integer> ordinalsByPostId = new HashMap<>();
+        private final BitSet dead = new BitSet();
+        private long[] postIds = new long[16];
+        private int[] lengths = new int[16];
+        private int size;
+        private int deadCount;
+        private long totalLength;
+
+        void apply(AnalyzedPost change) {
+            remove(change.postId);
+            if (change.termFrequencies != null) {
+                add(change);
+            }
+        }
+
+        int liveCount() {
+            return size - deadCount;
+        }
+
+        List<SearchHit> search(Collection<String> terms, int limit) {
+            int live = liveCount();
+            if (live == 0) {
+                return new ArrayList<>();
+            }
+            double averageLength = Math.max(1d, (double) totalLength / live);
+
+            // term-at-a-time scoring into a dense accumulator; only matched ordinals are ranked
+            float[] scores = new float[size];
+            int[] matched = new int[16];
+            int matchedCount = 0;
+            for (String term : terms) {
+                Postings termPostings = postings.get(term);
+                if (termPostings == null) {
+                    continue;
+                }
+                // dead entries inflate the document frequency until the next compaction
+                int documentFrequency = Math.min(termPostings.size, live);
+                double idf = Math.log(1 + (live - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                for (int i = 0; i < termPostings.size; i++) {
+                    int ordinal = termPostings.ordinals[i];
+                    if (dead.get(ordinal)) {
+                        continue;
+                    }
+                    int frequency = termPostings.frequencies[i];
+                    double norm = K1 * (1 - B + B * lengths[ordinal] / averageLength);
+                    if (scores[ordinal] == 0) {
+                        if (matchedCount == matched.length) {
+                            matched = Arrays.copyOf(matched, matchedCount * 2);
+                        }
+                        matched[matchedCount++] = ordinal;
+                    }
+                    scores[ordinal] += (float) (idf * frequency * (K1 + 1) / (frequency + norm));
+                }
+            }
+
+            // min-heap of the best `limit` ordinals, worst on top; ties go to the older post
+            Comparator<Integer> worstFirst = Comparator.<Integer>comparingDouble(ordinal -> scores[ordinal])
+                    .thenComparing(ordinal -> postIds[ordinal], Comparator.reverseOrder());
+            PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, worstFirst);
+            for (int i = 0; i < matchedCount; i++) {
+                top.offer(matched[i]);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<SearchHit> hits = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                int ordinal = top.poll();
+                hits.add(new SearchHit(postIds[ordinal], scores[ordinal]));
+            }
+            Collections.reverse(hits);
+            return hits;
+        }
+
+        private void add(AnalyzedPost post) {
+            if (size == postIds.length) {
+                postIds = Arrays.copyOf(postIds, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            int ordinal = size++;
+            postIds[ordinal] = post.postId;
+            lengths[ordinal] = post.length;
+            totalLength += post.length;
+            ordinalsByPostId.put(post.postId, ordinal);
+            post.termFrequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, t -> new Postings()).add(ordinal, frequency));
+        }
+
+        private void remove(long postId) {
+            Integer ordinal = ordinalsByPostId.remove(postId);
+            if (ordinal == null) {
+                return;
+            }
+            dead.set(ordinal);
+            deadCount++;
+            totalLength -= lengths[ordinal];
+            if (deadCount >= MIN_DEAD_BEFORE_COMPACTION && deadCount * 4 >= size) {
+                compact();
+            }
+        }
+
+        private void compact() {
+            int[] remap = new int[size];
+            int next = 0;
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                if (dead.get(ordinal)) {
+                    remap[ordinal] = -1;
+                } else {
+                    remap[ordinal] = next;
+                    postIds[next] = postIds[ordinal];
+                    lengths[next] = lengths[ordinal];
+                    next++;
+                }
+            }
+            postings.values().removeIf(termPostings -> termPostings.retain(remap) == 0);
+            ordinalsByPostId.replaceAll((postId, ordinal) -> remap[ordinal]);
+            dead.clear();
+            deadCount = 0;
+            size = next;
+        }
+    }
+
+    private static final class Postings {
+        private int[] ordinals = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        void add(int ordinal, int frequency) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ordinals[size] = ordinal;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        /**
+         * Drops dead ordinals, renumbers the rest with {@code remap} and returns the new size.
+         */
+        int retain(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int ordinal = remap[ordinals[i]];
+                if (ordinal >= 0) {
+                    ordinals[kept] = ordinal;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+}
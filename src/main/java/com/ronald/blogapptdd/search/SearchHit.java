@@ -0,0 +1,14 @@
+package com.ronald.blogapptdd.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A post matching a search query with its BM25 score; higher is more relevant.
+ */
+@Getter
+@AllArgsConstructor
+public class SearchHit {
+    private final long postId;
+    private final double score;
+}
@@ -0,0 +1,63 @@
+package com.ronald.blogapptdd.search;
+
+import com.ronald.blogapptdd.config.BlogProperties;
+import com.ronald.blogapptdd.entity.composite.PostTagKey;
+import com.ronald.blogapptdd.repository.PostRepository;
+import com.ronald.blogapptdd.repository.PostTagRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+/**
+ * Fills the in-memory {@link PostSearchIndex} and {@link TagPostIndex} from the database once
+ * the application has started.
+ */
+@Component
+public class SearchIndexLoader {
+
+    private final PostSearchIndex postSearchIndex;
+
+    private final TagPostIndex tagPostIndex;
+
+    private final PostRepository postRepository;
+
+    private final PostTagRepository postTagRepository;
+
+    private final BlogProperties blogProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public SearchIndexLoader(PostSearchIndex postSearchIndex, TagPostIndex tagPostIndex, PostRepository postRepository, PostTagRepository postTagRepository, BlogProperties blogProperties, PlatformTransactionManager transactionManager) {
+        this.postSearchIndex = postSearchIndex;
+        this.tagPostIndex = tagPostIndex;
+        this.postRepository = postRepository;
+        this.postTagRepository = postTagRepository;
+        this.blogProperties = blogProperties;
+        // not read-only: with a read replica the index must not miss posts the replica has yet to receive
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (blogProperties.getSearch().isRebuildOnStartup()) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<PostSearchDocument> documents = postRepository.streamSearchDocuments()) {
+                postSearchIndex.rebuild(documents);
+            }
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<PostTagKey> postTags = postTagRepository.streamAllKeys()) {
+                tagPostIndex.rebuild(postTags);
+            }
+        });
+    }
+}
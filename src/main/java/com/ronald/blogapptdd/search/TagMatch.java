@@ -0,0 +1,25 @@
+package com.ronald.blogapptdd.search;
+
+import java.util.Locale;
+
+/**
+ * How a multi-tag query combines its tags.
+ */
+public enum TagMatch {
+    /**
+     * Posts carrying every one of the tags.
+     */
+    ALL,
+    /**
+     * Posts carrying at least one of the tags.
+     */
+    ANY;
+
+    public static TagMatch parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported tag match: " + value + ", expected all or any");
+        }
+    }
+}
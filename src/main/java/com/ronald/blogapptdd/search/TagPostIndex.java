@@ -0,0 +1,205 @@
+package com.ronald.blogapptdd.search;
+
+import com.ronald.blogapptdd.entity.composite.PostTagKey;
+import com.ronald.blogapptdd.event.ChangeType;
+import com.ronald.blogapptdd.event.PostChangedEvent;
+import com.ronald.blogapptdd.event.TagChangedEvent;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index from tag id to the ids of the posts carrying the tag, one compressed
+ * bitmap per tag. Multi-tag queries intersect or union the bitmaps instead of joining
+ * {@code post_tag}.
+ * <p>
+ * Post ids are handed out in insert order, so walking a bitmap from its highest id down
+ * lists the posts newest first, and the last id of a page is all a cursor needs. Id order
+ * is the recency order for tag pages: posts saved concurrently may carry creation times a
+ * few milliseconds out of step with their ids, and pages keep to the ids regardless so that
+ * every page is cut and ordered by the same key.
+ * <p>
+ * Changes are applied after the writing transaction commits. {@link #rebuild(Stream)}
+ * builds a fresh index off to the side and swaps it in, replaying the changes that arrived
+ * while it was running. Until the first rebuild completes the index only holds the changes
+ * seen since startup, see {@link #isLoaded()}.
+ */
+@Component
+public class TagPostIndex {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<Long, RoaringBitmap> postsByTag = new HashMap<>();
+
+    /**
+     * Changes seen while a rebuild is running, {@code null} otherwise.
+     */
+    private List<Consumer<Map<Long, RoaringBitmap>>> pendingChanges;
+
+    private volatile boolean loaded;
+
+    /**
+     * Whether a rebuild has completed, so the index holds every post-tag link.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void add(Long tagId, Long postId) {
+        int post = toBitmapValue(postId);
+        apply(index -> index.computeIfAbsent(tagId, id -> new RoaringBitmap()).add(post));
+    }
+
+    public void remove(Long tagId, Long postId) {
+        int post = toBitmapValue(postId);
+        apply(index -> {
+            RoaringBitmap posts = index.get(tagId);
+            if (posts != null) {
+                posts.remove(post);
+                if (posts.isEmpty()) {
+                    index.remove(tagId);
+                }
+            }
+        });
+    }
+
+    public void removeTag(Long tagId) {
+        apply(index -> index.remove(tagId));
+    }
+
+    /**
+     * Returns up to {@code limit} ids of posts carrying all or any of {@code tagIds}, newest first.
+     *
+     * @param beforePostId only ids below this one are returned; {@code null} starts at the newest post
+     */
+    public List<Long> findPostIds(Collection<Long> tagIds, TagMatch match, Long beforePostId, int limit) {
+        List<Long> postIds = new ArrayList<>();
+        Set<Long> distinctTagIds = new LinkedHashSet<>(tagIds);
+        if (distinctTagIds.isEmpty() || limit <= 0) {
+            return postIds;
+        }
+        lock.readLock().lock();
+        try {
+            RoaringBitmap posts = combine(distinctTagIds, match);
+            long next = beforePostId == null ? Integer.MAX_VALUE : beforePostId - 1;
+            // post ids start at 1, so 0 marks the end as well
+            while (postIds.size() < limit && next > 0) {
+                long postId = posts.previousValue((int) next);
+                if (postId < 0) {
+                    break;
+                }
+                postIds.add(postId);
+                next = postId - 1;
+            }
+            return postIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the whole index with the given post-tag links. Queries keep using the old
+     * index until the new one is complete.
+     */
+    public void rebuild(Stream<PostTagKey> postTags) {
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                throw new IllegalStateException("Tag index rebuild already running");
+            }
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            Map<Long, RoaringBitmap> fresh = new HashMap<>();
+            postTags.forEach(key -> fresh.computeIfAbsent(key.getTagId(), id -> new RoaringBitmap())
+                    .add(toBitmapValue(key.getPostId())));
+            fresh.values().forEach(RoaringBitmap::runOptimize);
+
+            lock.writeLock().lock();
+            try {
+                // changes are idempotent adds and removals, so replaying one the rebuild
+                // already read is harmless
+                pendingChanges.forEach(change -> change.accept(fresh));
+                postsByTag = fresh;
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        Long postId = event.getPostId();
+        event.getPreviousTagIds().stream()
+                .filter(tagId -> !event.getTagIds().contains(tagId))
+                .forEach(tagId -> remove(tagId, postId));
+        event.getTagIds().stream()
+                .filter(tagId -> !event.getPreviousTagIds().contains(tagId))
+                .forEach(tagId -> add(tagId, postId));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagChanged(TagChangedEvent event) {
+        if (event.getType() == ChangeType.DELETED) {
+            removeTag(event.getTagId());
+        }
+    }
+
+    private RoaringBitmap combine(Set<Long> tagIds, TagMatch match) {
+        List<RoaringBitmap> bitmaps = new ArrayList<>(tagIds.size());
+        for (Long tagId : tagIds) {
+            RoaringBitmap posts = postsByTag.get(tagId);
+            if (posts != null) {
+                bitmaps.add(posts);
+            } else if (match == TagMatch.ALL) {
+                return new RoaringBitmap();
+            }
+        }
+        if (bitmaps.size() == 1) {
+            return bitmaps.get(0);
+        }
+        return match == TagMatch.ALL
+                ? FastAggregation.and(bitmaps.iterator())
+                : FastAggregation.or(bitmaps.iterator());
+    }
+
+    private void apply(Consumer<Map<Long, RoaringBitmap>> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(postsByTag);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static int toBitmapValue(Long postId) {
+        // bitmaps hold 32-bit values; fail loudly rather than wrap once ids outgrow them
+        return Math.toIntExact(postId);
+    }
+}
@@ -0,0 +1,47 @@
+package com.ronald.blogapptdd.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Splits text into lower-cased runs of letters and digits; everything else separates tokens.
+ */
+final class Tokenizer {
+
+    static final int MAX_TOKEN_LENGTH = 64;
+
+    private Tokenizer() {
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean inToken = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (inToken && start < 0) {
+                start = i;
+            } else if (!inToken && start >= 0) {
+                if (i - start <= MAX_TOKEN_LENGTH) {
+                    tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Adds {@code weight} to the frequency of every token of {@code text} and returns the number of tokens counted.
+     */
+    static int countTerms(String text, int weight, Map<String, Integer> termFrequencies) {
+        List<String> tokens = tokenize(text);
+        tokens.forEach(token -> termFrequencies.merge(token, weight, Integer::sum));
+        return tokens.size() * weight;
+    }
+}
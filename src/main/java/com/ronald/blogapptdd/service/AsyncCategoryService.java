@@ -0,0 +1,25 @@
+package com.ronald.blogapptdd.service;
+
+import com.ronald.blogapptdd.dto.request.CreateCategoryRequest;
+import com.ronald.blogapptdd.dto.request.UpdateCategoryRequest;
+import com.ronald.blogapptdd.dto.response.CategoryResponseDTO;
+import com.ronald.blogapptdd.entity.Category;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link CategoryService} operations run on the read or write executor; see {@link AsyncPostService}.
+ * Listings and details come with their post counts.
+ */
+public interface AsyncCategoryService {
+    CompletableFuture<Category> createCategory(CreateCategoryRequest request);
+
+    CompletableFuture<List<CategoryResponseDTO>> findAllCategory();
+
+    CompletableFuture<CategoryResponseDTO> findCategoryById(Long id);
+
+    CompletableFuture<Category> updateCategory(Long categoryId, UpdateCategoryRequest request);
+
+    CompletableFuture<Void> deleteCategory(Long id);
+}
@@ -0,0 +1,47 @@
+package com.ronald.blogapptdd.service;
+
+import com.ronald.blogapptdd.dto.request.CreatePostRequest;
+import com.ronald.blogapptdd.dto.request.DeletePostsRequest;
+import com.ronald.blogapptdd.dto.request.UpdatePostRequest;
+import com.ronald.blogapptdd.dto.response.CursorPageResponseDTO;
+import com.ronald.blogapptdd.dto.response.PostDeleteResponseDTO;
+import com.ronald.blogapptdd.dto.response.PostImportResponseDTO;
+import com.ronald.blogapptdd.dto.response.PostResponseDTO;
+import com.ronald.blogapptdd.dto.response.PostSearchResultDTO;
+import com.ronald.blogapptdd.dto.response.PostSummaryDTO;
+import com.ronald.blogapptdd.search.TagMatch;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link PostService}, {@link PostImportService} and {@link PostBulkDeleteService} operations run on the executor of their
+ * workload class: reads, writes or bulk. The futures complete with the response DTOs, mapped
+ * on the executor thread, or fail with the exception of the underlying call. A saturated
+ * executor rejects the call with a {@link java.util.concurrent.RejectedExecutionException}
+ * before any work is done.
+ */
+public interface AsyncPostService {
+    CompletableFuture<PostResponseDTO> createPost(CreatePostRequest request);
+
+    CompletableFuture<List<PostResponseDTO>> getAllPosts();
+
+    CompletableFuture<CursorPageResponseDTO<PostResponseDTO>> getPostPage(String cursor, Integer size);
+
+    CompletableFuture<CursorPageResponseDTO<PostSummaryDTO>> getPostSummaryPage(String cursor, Integer size, boolean withExcerpt);
+
+    CompletableFuture<PostResponseDTO> getPostDetail(Long postId);
+
+    CompletableFuture<PostResponseDTO> updatePost(Long postId, UpdatePostRequest request);
+
+    CompletableFuture<Void> deletePost(Long postId);
+
+    CompletableFuture<List<PostSearchResultDTO>> searchPosts(String query, Integer limit);
+
+    CompletableFuture<CursorPageResponseDTO<PostResponseDTO>> getPostPageByTags(List<Long> tagIds, TagMatch match, String cursor, Integer size);
+
+    CompletableFuture<PostImportResponseDTO> importPosts(InputStream ndjson);
+
+    CompletableFuture<PostDeleteResponseDTO> deletePosts(DeletePostsRequest request);
+}
@@ -0,0 +1,25 @@
+package com.ronald.blogapptdd.service;
+
+import com.ronald.blogapptdd.dto.request.CreateTagRequest;
+import com.ronald.blogapptdd.dto.request.UpdateTagRequest;
+import com.ronald.blogapptdd.dto.response.TagResponseDTO;
+import com.ronald.blogapptdd.entity.Tag;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link TagService} operations run on the read or write executor; see {@link AsyncPostService}.
+ * Listings and details come with their post counts.
+ */
+public interface AsyncTagService {
+    CompletableFuture<Tag> createTag(CreateTagRequest request);
+
+    CompletableFuture<List<TagResponseDTO>> getAllTags();
+
+    CompletableFuture<TagResponseDTO> getTagDetail(Long tagId);
+
+    CompletableFuture<Tag> updateTag(Long tagId, UpdateTagRequest request);
+
+    CompletableFuture<Void> deleteTag(Long tagId);
+}
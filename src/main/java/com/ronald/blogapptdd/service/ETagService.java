@@ -0,0 +1,41 @@
+package com.ronald.blogapptdd.service;
+
+/**
+ * Strong entity tags for the GET endpoints, computed from the {@code @Version} columns and the
+ * in-memory change generations without loading or serializing the entities, so conditional
+ * requests can be answered with a 304 cheaply.
+ */
+public interface ETagService {
+    /**
+     * Tag of every post listing: changes with any post, category or tag.
+     */
+    String getPostListETag();
+
+    /**
+     * Tag of one post with its category and tags. A post that does not exist gets a tag as well;
+     * its body is what reports it missing.
+     */
+    String getPostETag(Long postId);
+
+    /**
+     * Tag of the category listing, including post counts. It moves with the counter flush rather than
+     * with every post write.
+     */
+    String getCategoryListETag();
+
+    /**
+     * Tag of one category with its post count. Throws if the category does not exist.
+     */
+    String getCategoryETag(Long categoryId);
+
+    /**
+     * Tag of the tag listing, including post counts. It moves with the counter flush rather than
+     * with every post write.
+     */
+    String getTagListETag();
+
+    /**
+     * Tag of one tag with its post count. Throws if the tag does not exist.
+     */
+    String getTagETag(Long tagId);
+}
@@ -0,0 +1,8 @@
+package com.ronald.blogapptdd.service;
+
+import com.ronald.blogapptdd.dto.request.DeletePostsRequest;
+import com.ronald.blogapptdd.dto.response.PostDeleteResponseDTO;
+
+public interface PostBulkDeleteService {
+    PostDeleteResponseDTO deletePosts(DeletePostsRequest request);
+}
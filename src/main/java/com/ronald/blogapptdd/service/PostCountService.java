@@ -0,0 +1,30 @@
+package com.ronald.blogapptdd.service;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Post counts per category and per tag, maintained as posts are written rather than counted on read.
+ */
+public interface PostCountService {
+    /**
+     * Post counts of the given categories; categories without posts map to 0.
+     */
+    Map<Long, Long> getCategoryPostCounts(Collection<Long> categoryIds);
+
+    /**
+     * Post counts of the given tags; tags without posts map to 0.
+     */
+    Map<Long, Long> getTagPostCounts(Collection<Long> tagIds);
+
+    /**
+     * Writes the counter changes accumulated since the last flush to the count tables.
+     */
+    void flush();
+
+    /**
+     * Recounts posts per category and tag from the posts themselves and repairs stored counts
+     * that drifted. Returns the number of repaired counts.
+     */
+    int reconcile();
+}
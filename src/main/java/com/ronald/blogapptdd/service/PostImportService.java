@@ -0,0 +1,10 @@
+package com.ronald.blogapptdd.service;
+
+import com.ronald.blogapptdd.dto.response.PostImportResponseDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface PostImportService {
+    PostImportResponseDTO importPosts(InputStream ndjson) throws IOException;
+}
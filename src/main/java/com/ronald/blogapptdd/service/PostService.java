@@ -2,20 +2,50 @@ package com.ronald.blogapptdd.service;
 
 import com.ronald.blogapptdd.dto.request.CreatePostRequest;
 import com.ronald.blogapptdd.dto.request.UpdatePostRequest;
+import com.ronald.blogapptdd.dto.response.CursorPageResponseDTO;
 import com.ronald.blogapptdd.dto.response.PostResponseDTO;
+import com.ronald.blogapptdd.dto.response.PostSearchResultDTO;
+import com.ronald.blogapptdd.dto.response.PostSummaryDTO;
 import com.ronald.blogapptdd.entity.Post;
+import com.ronald.blogapptdd.search.TagMatch;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface PostService {
     Post createPost(CreatePostRequest request);
 
     List<PostResponseDTO> getAllPosts();
 
+    CursorPageResponseDTO<PostResponseDTO> getPostPage(String cursor, Integer size);
+
+    /**
+     * Same order and cursors as {@link #getPostPage}, without the post content and with
+     * category and tag names instead of the entities.
+     *
+     * @param withExcerpt whether each summary carries the start of the content
+     */
+    CursorPageResponseDTO<PostSummaryDTO> getPostSummaryPage(String cursor, Integer size, boolean withExcerpt);
+
     PostResponseDTO updatePost(Long postId, UpdatePostRequest request);
 
     PostResponseDTO getPostDetail(Long postId);
 
     void deletePost(Long postId);
 
+    /**
+     * Hands every post to {@code consumer} in id order without holding more than one batch in memory.
+     */
+    void exportPosts(Consumer<PostResponseDTO> consumer);
+
+    /**
+     * Full-text search over post titles and contents, best match first.
+     */
+    List<PostSearchResultDTO> searchPosts(String query, Integer limit);
+
+    /**
+     * Posts carrying all or any of the given tags, newest first by id.
+     */
+    CursorPageResponseDTO<PostResponseDTO> getPostPageByTags(List<Long> tagIds, TagMatch match, String cursor, Integer size);
+
 }
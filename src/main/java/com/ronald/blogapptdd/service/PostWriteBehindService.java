@@ -0,0 +1,13 @@
+package com.ronald.blogapptdd.service;
+
+import com.ronald.blogapptdd.dto.request.CreatePostRequest;
+import com.ronald.blogapptdd.entity.Post;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface PostWriteBehindService {
+    /**
+     * Queues the create; the future completes with the saved post once its batch has committed.
+     */
+    CompletableFuture<Post> createPost(CreatePostRequest request);
+}
@@ -0,0 +1,79 @@
+package com.ronald.blogapptdd.service.impl;
+
+import com.ronald.blogapptdd.config.ExecutorConfig;
+import com.ronald.blogapptdd.dto.request.CreateCategoryRequest;
+import com.ronald.blogapptdd.dto.request.UpdateCategoryRequest;
+import com.ronald.blogapptdd.dto.response.CategoryResponseDTO;
+import com.ronald.blogapptdd.entity.Category;
+import com.ronald.blogapptdd.service.AsyncCategoryService;
+import com.ronald.blogapptdd.service.CategoryService;
+import com.ronald.blogapptdd.service.PostCountService;
+import com.ronald.blogapptdd.utils.CategoryMapperUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+@Service
+public class AsyncCategoryServiceImpl implements AsyncCategoryService {
+
+    private final CategoryService categoryService;
+
+    private final PostCountService postCountService;
+
+    private final Executor readExecutor;
+
+    private final Executor writeExecutor;
+
+    private final OptimisticUpdateRetrier updateRetrier;
+
+    public AsyncCategoryServiceImpl(CategoryService categoryService, PostCountService postCountService,
+                                    @Qualifier(ExecutorConfig.READ_EXECUTOR) Executor readExecutor,
+                                    @Qualifier(ExecutorConfig.WRITE_EXECUTOR) Executor writeExecutor,
+                                    OptimisticUpdateRetrier updateRetrier) {
+        this.categoryService = categoryService;
+        this.postCountService = postCountService;
+        this.readExecutor = readExecutor;
+        this.writeExecutor = writeExecutor;
+        this.updateRetrier = updateRetrier;
+    }
+
+    @Override
+    public CompletableFuture<Category> createCategory(CreateCategoryRequest request) {
+        return CompletableFuture.supplyAsync(() -> categoryService.createCategory(request), writeExecutor);
+    }
+
+    @Override
+    public CompletableFuture<List<CategoryResponseDTO>> findAllCategory() {
+        return CompletableFuture.supplyAsync(() -> {
+            List<Category> categories = categoryService.findAllCategory();
+            Map<Long, Long> postCounts = postCountService.getCategoryPostCounts(categories.stream()
+                    .map(Category::getId)
+                    .collect(Collectors.toList()));
+            return CategoryMapperUtils.mapCategoriesToCategoryResponseDTOs(categories, postCounts);
+        }, readExecutor);
+    }
+
+    @Override
+    public CompletableFuture<CategoryResponseDTO> findCategoryById(Long id) {
+        return CompletableFuture.supplyAsync(() -> {
+            Category category = categoryService.findCategoryById(id);
+            long postCount = postCountService.getCategoryPostCounts(List.of(id)).getOrDefault(id, 0L);
+            return CategoryMapperUtils.mapCategoryToCategoryResponseDTO(category, postCount);
+        }, readExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Category> updateCategory(Long categoryId, UpdateCategoryRequest request) {
+        return updateRetrier.execute("category", () -> categoryService.updateCategory(categoryId, request), writeExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteCategory(Long id) {
+        return CompletableFuture.runAsync(() -> categoryService.deleteCategory(id), writeExecutor);
+    }
+}
@@ -0,0 +1,134 @@
+package com.ronald.blogapptdd.service.impl;
+
+import com.ronald.blogapptdd.config.ExecutorConfig;
+import com.ronald.blogapptdd.dto.request.CreatePostRequest;
+import com.ronald.blogapptdd.dto.request.DeletePostsRequest;
+import com.ronald.blogapptdd.dto.request.UpdatePostRequest;
+import com.ronald.blogapptdd.dto.response.CursorPageResponseDTO;
+import com.ronald.blogapptdd.dto.response.PostDeleteResponseDTO;
+import com.ronald.blogapptdd.dto.response.PostImportResponseDTO;
+import com.ronald.blogapptdd.dto.response.PostResponseDTO;
+import com.ronald.blogapptdd.dto.response.PostSearchResultDTO;
+import com.ronald.blogapptdd.dto.response.PostSummaryDTO;
+import com.ronald.blogapptdd.search.TagMatch;
+import com.ronald.blogapptdd.service.AsyncPostService;
+import com.ronald.blogapptdd.service.PostBulkDeleteService;
+import com.ronald.blogapptdd.service.PostImportService;
+import com.ronald.blogapptdd.service.PostService;
+import com.ronald.blogapptdd.service.PostWriteBehindService;
+import com.ronald.blogapptdd.utils.PostMapperUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+@Service
+public class AsyncPostServiceImpl implements AsyncPostService {
+
+    private final PostService postService;
+
+    private final PostImportService postImportService;
+
+    private final PostBulkDeleteService postBulkDeleteService;
+
+    /**
+     * {@code null} unless write-behind mode is enabled.
+     */
+    private final PostWriteBehindService postWriteBehindService;
+
+    private final Executor readExecutor;
+
+    private final Executor writeExecutor;
+
+    private final Executor bulkExecutor;
+
+    private final OptimisticUpdateRetrier updateRetrier;
+
+    public AsyncPostServiceImpl(PostService postService, PostImportService postImportService,
+                                PostBulkDeleteService postBulkDeleteService,
+                                ObjectProvider<PostWriteBehindService> postWriteBehindService,
+                                @Qualifier(ExecutorConfig.READ_EXECUTOR) Executor readExecutor,
+                                @Qualifier(ExecutorConfig.WRITE_EXECUTOR) Executor writeExecutor,
+                                @Qualifier(ExecutorConfig.BULK_EXECUTOR) Executor bulkExecutor,
+                                OptimisticUpdateRetrier updateRetrier) {
+        this.postService = postService;
+        this.postImportService = postImportService;
+        this.postBulkDeleteService = postBulkDeleteService;
+        this.postWriteBehindService = postWriteBehindService.getIfAvailable();
+        this.readExecutor = readExecutor;
+        this.writeExecutor = writeExecutor;
+        this.bulkExecutor = bulkExecutor;
+        this.updateRetrier = updateRetrier;
+    }
+
+    @Override
+    public CompletableFuture<PostResponseDTO> createPost(CreatePostRequest request) {
+        if (postWriteBehindService != null) {
+            return postWriteBehindService.createPost(request).thenApply(PostMapperUtils::mapPostToPostResponseDTO);
+        }
+        return CompletableFuture.supplyAsync(() ->
+                PostMapperUtils.mapPostToPostResponseDTO(postService.createPost(request)), writeExecutor);
+    }
+
+    @Override
+    public CompletableFuture<List<PostResponseDTO>> getAllPosts() {
+        return CompletableFuture.supplyAsync(postService::getAllPosts, bulkExecutor);
+    }
+
+    @Override
+    public CompletableFuture<CursorPageResponseDTO<PostResponseDTO>> getPostPage(String cursor, Integer size) {
+        return CompletableFuture.supplyAsync(() -> postService.getPostPage(cursor, size), readExecutor);
+    }
+
+    @Override
+    public CompletableFuture<CursorPageResponseDTO<PostSummaryDTO>> getPostSummaryPage(String cursor, Integer size, boolean withExcerpt) {
+        return CompletableFuture.supplyAsync(() -> postService.getPostSummaryPage(cursor, size, withExcerpt), readExecutor);
+    }
+
+    @Override
+    public CompletableFuture<PostResponseDTO> getPostDetail(Long postId) {
+        return CompletableFuture.supplyAsync(() -> postService.getPostDetail(postId), readExecutor);
+    }
+
+    @Override
+    public CompletableFuture<PostResponseDTO> updatePost(Long postId, UpdatePostRequest request) {
+        return updateRetrier.execute("post", () -> postService.updatePost(postId, request), writeExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Void> deletePost(Long postId) {
+        return CompletableFuture.runAsync(() -> postService.deletePost(postId), writeExecutor);
+    }
+
+    @Override
+    public CompletableFuture<List<PostSearchResultDTO>> searchPosts(String query, Integer limit) {
+        return CompletableFuture.supplyAsync(() -> postService.searchPosts(query, limit), readExecutor);
+    }
+
+    @Override
+    public CompletableFuture<CursorPageResponseDTO<PostResponseDTO>> getPostPageByTags(List<Long> tagIds, TagMatch match, String cursor, Integer size) {
+        return CompletableFuture.supplyAsync(() -> postService.getPostPageByTags(tagIds, match, cursor, size), readExecutor);
+    }
+
+    @Override
+    public CompletableFuture<PostImportResponseDTO> importPosts(InputStream ndjson) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return postImportService.importPosts(ndjson);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, bulkExecutor);
+    }
+
+    @Override
+    public CompletableFuture<PostDeleteResponseDTO> deletePosts(DeletePostsRequest request) {
+        return CompletableFuture.supplyAsync(() -> postBulkDeleteService.deletePosts(request), bulkExecutor);
+    }
+}
@@ -0,0 +1,79 @@
+package com.ronald.blogapptdd.service.impl;
+
+import com.ronald.blogapptdd.config.ExecutorConfig;
+import com.ronald.blogapptdd.dto.request.CreateTagRequest;
+import com.ronald.blogapptdd.dto.request.UpdateTagRequest;
+import com.ronald.blogapptdd.dto.response.TagResponseDTO;
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.service.AsyncTagService;
+import com.ronald.blogapptdd.service.PostCountService;
+import com.ronald.blogapptdd.service.TagService;
+import com.ronald.blogapptdd.utils.TagMapperUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+@Service
+public class AsyncTagServiceImpl implements AsyncTagService {
+
+    private final TagService tagService;
+
+    private final PostCountService postCountService;
+
+    private final Executor readExecutor;
+
+    private final Executor writeExecutor;
+
+    private final OptimisticUpdateRetrier updateRetrier;
+
+    public AsyncTagServiceImpl(TagService tagService, PostCountService postCountService,
+                               @Qualifier(ExecutorConfig.READ_EXECUTOR) Executor readExecutor,
+                               @Qualifier(ExecutorConfig.WRITE_EXECUTOR) Executor writeExecutor,
+                               OptimisticUpdateRetrier updateRetrier) {
+        this.tagService = tagService;
+        this.postCountService = postCountService;
+        this.readExecutor = readExecutor;
+        this.writeExecutor = writeExecutor;
+        this.updateRetrier = updateRetrier;
+    }
+
+    @Override
+    public CompletableFuture<Tag> createTag(CreateTagRequest request) {
+        return CompletableFuture.supplyAsync(() -> tagService.createTag(request), writeExecutor);
+    }
+
+    @Override
+    public CompletableFuture<List<TagResponseDTO>> getAllTags() {
+        return CompletableFuture.supplyAsync(() -> {
+            List<Tag> tags = tagService.getAllTags();
+            Map<Long, Long> postCounts = postCountService.getTagPostCounts(tags.stream()
+                    .map(Tag::getId)
+                    .collect(Collectors.toList()));
+            return TagMapperUtils.mapTagsToTagResponseDTOs(tags, postCounts);
+        }, readExecutor);
+    }
+
+    @Override
+    public CompletableFuture<TagResponseDTO> getTagDetail(Long tagId) {
+        return CompletableFuture.supplyAsync(() -> {
+            Tag tag = tagService.getTagDetail(tagId);
+            long postCount = postCountService.getTagPostCounts(List.of(tagId)).getOrDefault(tagId, 0L);
+            return TagMapperUtils.mapTagToTagResponseDTO(tag, postCount);
+        }, readExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Tag> updateTag(Long tagId, UpdateTagRequest request) {
+        return updateRetrier.execute("tag", () -> tagService.updateTag(tagId, request), writeExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteTag(Long tagId) {
+        return CompletableFuture.runAsync(() -> tagService.deleteTag(tagId), writeExecutor);
+    }
+}
@@ -1,12 +1,16 @@
 package com.ronald.blogapptdd.service.impl;
 
+import com.ronald.blogapptdd.cache.ReferenceDataSnapshot;
 import com.ronald.blogapptdd.dto.request.CreateCategoryRequest;
 import com.ronald.blogapptdd.dto.request.UpdateCategoryRequest;
 import com.ronald.blogapptdd.entity.Category;
+import com.ronald.blogapptdd.event.CategoryChangedEvent;
+import com.ronald.blogapptdd.event.ChangeType;
 import com.ronald.blogapptdd.exception.CategoryNotFoundException;
 import com.ronald.blogapptdd.repository.CategoryRepository;
 import com.ronald.blogapptdd.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -16,8 +20,14 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
 
-    public CategoryServiceImpl(CategoryRepository categoryRepository) {
+    private final ReferenceDataSnapshot referenceDataSnapshot;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CategoryServiceImpl(CategoryRepository categoryRepository, ReferenceDataSnapshot referenceDataSnapshot, ApplicationEventPublisher eventPublisher) {
         this.categoryRepository = categoryRepository;
+        this.referenceDataSnapshot = referenceDataSnapshot;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -26,18 +36,20 @@ public class CategoryServiceImpl implements CategoryService {
                 .description(request.getDescription())
                 .name(request.getName())
                 .build();
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(ChangeType.CREATED, category.getId()));
+        return savedCategory;
     }
 
     @Override
     public Category findCategoryById(Long id) {
-        return categoryRepository.findById(id)
+        return referenceDataSnapshot.findCategory(id)
                 .orElseThrow(() -> new RuntimeException("Category Not Found"));
     }
 
     @Override
     public List<Category> findAllCategory() {
-        return categoryRepository.findAll();
+        return referenceDataSnapshot.getCategories();
     }
 
     @Override
@@ -47,14 +59,17 @@ public class CategoryServiceImpl implements CategoryService {
 
         Category updatedCategory = compareAndUpdate(category, request);
 
-        return categoryRepository.save(updatedCategory);
+        Category savedCategory = categoryRepository.save(updatedCategory);
+        eventPublisher.publishEvent(new CategoryChangedEvent(ChangeType.UPDATED, categoryId));
+        return savedCategory;
     }
 
     @Override
     public void deleteCategory(Long id) {
-        Category category = categoryRepository.findById(id)
-                .orElseThrow(() -> new CategoryNotFoundException("Category not found"));
-        categoryRepository.deleteById(category.getId());
+        if (categoryRepository.deleteDirectlyById(id) == 0) {
+            throw new CategoryNotFoundException("Category not found");
+        }
+        eventPublisher.publishEvent(new CategoryChangedEvent(ChangeType.DELETED, id));
     }
 
     private Category compareAndUpdate(Category category, UpdateCategoryRequest request) {
@@ -0,0 +1,94 @@
+package com.ronald.blogapptdd.service.impl;
+
+import com.ronald.blogapptdd.cache.ChangeGenerations;
+import com.ronald.blogapptdd.exception.CategoryNotFoundException;
+import com.ronald.blogapptdd.exception.TagNotFoundException;
+import com.ronald.blogapptdd.repository.CategoryRepository;
+import com.ronald.blogapptdd.repository.TagRepository;
+import com.ronald.blogapptdd.service.ETagService;
+import com.ronald.blogapptdd.service.PostCountService;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Builds entity tags from change generations and entity versions.
+ * <p>
+ * Posts and listings are tagged with the {@link ChangeGenerations} of everything they show, so
+ * revalidating them runs no query: a single post with its own stamp and the tag and category
+ * generations, since it embeds both. Category and tag listings carry post counts; they follow the
+ * post counts generation, which the counter flush moves, rather than every post write, so a
+ * revalidated listing can lag post writes by up to one flush interval. Single categories and tags are tagged with their version and their current count.
+ */
+@Service
+public class ETagServiceImpl implements ETagService {
+
+    private final CategoryRepository categoryRepository;
+
+    private final TagRepository tagRepository;
+
+    private final PostCountService postCountService;
+
+    private final ChangeGenerations generations;
+
+    public ETagServiceImpl(CategoryRepository categoryRepository, TagRepository tagRepository, PostCountService postCountService, ChangeGenerations generations) {
+        this.categoryRepository = categoryRepository;
+        this.tagRepository = tagRepository;
+        this.postCountService = postCountService;
+        this.generations = generations;
+    }
+
+    @Override
+    public String getPostListETag() {
+        return strongETag("posts",
+                String.valueOf(generations.getEpoch()),
+                String.valueOf(generations.getPosts()),
+                String.valueOf(generations.getCategories()),
+                String.valueOf(generations.getTags()));
+    }
+
+    @Override
+    public String getPostETag(Long postId) {
+        return strongETag("post-" + postId,
+                String.valueOf(generations.getEpoch()),
+                String.valueOf(generations.getPost(postId)),
+                String.valueOf(generations.getCategories()),
+                String.valueOf(generations.getTags()));
+    }
+
+    @Override
+    public String getCategoryListETag() {
+        return strongETag("categories",
+                String.valueOf(generations.getEpoch()),
+                String.valueOf(generations.getCategories()),
+                String.valueOf(generations.getPostCounts()));
+    }
+
+    @Override
+    public String getCategoryETag(Long categoryId) {
+        Long version = categoryRepository.findVersionById(categoryId)
+                .orElseThrow(() -> new CategoryNotFoundException("Category not found"));
+        long postCount = postCountService.getCategoryPostCounts(List.of(categoryId)).getOrDefault(categoryId, 0L);
+        return strongETag("category-" + categoryId, String.valueOf(version), String.valueOf(postCount));
+    }
+
+    @Override
+    public String getTagListETag() {
+        return strongETag("tags",
+                String.valueOf(generations.getEpoch()),
+                String.valueOf(generations.getTags()),
+                String.valueOf(generations.getPostCounts()));
+    }
+
+    @Override
+    public String getTagETag(Long tagId) {
+        Long version = tagRepository.findVersionById(tagId)
+                .orElseThrow(() -> new TagNotFoundException("Tag not found with id: " + tagId));
+        long postCount = postCountService.getTagPostCounts(List.of(tagId)).getOrDefault(tagId, 0L);
+        return strongETag("tag-" + tagId, String.valueOf(version), String.valueOf(postCount));
+    }
+
+    private static String strongETag(String resource, String... parts) {
+        return "\"" + resource + "." + String.join(".", parts) + "\"";
+    }
+}
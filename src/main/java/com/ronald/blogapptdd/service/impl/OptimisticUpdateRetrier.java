@@ -0,0 +1,102 @@
+package com.ronald.blogapptdd.service.impl;
+
+import com.ronald.blogapptdd.config.BlogProperties;
+import com.ronald.blogapptdd.exception.UpdateConflictException;
+import com.ronald.blogapptdd.metrics.QueryStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs an update again when it lost an optimistic locking race on an entity's {@code @Version}.
+ * <p>
+ * Every attempt reads the entity again and applies the request on top of the change it collided
+ * with, so the update has to open its own transaction. A retry waits for a random time below an
+ * exponentially growing ceiling, which spreads out writers that collided together. The wait is
+ * scheduled with {@link CompletableFuture#delayedExecutor}, not slept through, so a backing-off
+ * update holds none of the executor's threads; the retry is submitted to the executor again
+ * when it is due, and fails the update if the executor rejects it. Once
+ * {@code blog.update-retry.max-attempts} attempts have failed, the update fails with an
+ * {@link UpdateConflictException}. Conflicts are counted in {@value #CONFLICTS_METRIC} by entity
+ * and by whether the update was retried or given up.
+ */
+@Component
+public class OptimisticUpdateRetrier {
+
+    static final String CONFLICTS_METRIC = "blog.update.conflicts";
+
+    private final MeterRegistry meterRegistry;
+
+    private final int maxAttempts;
+
+    private final long initialBackoffNanos;
+
+    private final long maxBackoffNanos;
+
+    public OptimisticUpdateRetrier(BlogProperties blogProperties, MeterRegistry meterRegistry) {
+        BlogProperties.UpdateRetry settings = blogProperties.getUpdateRetry();
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, settings.getMaxAttempts());
+        this.initialBackoffNanos = settings.getInitialBackoff().toNanos();
+        this.maxBackoffNanos = settings.getMaxBackoff().toNanos();
+    }
+
+    /**
+     * Runs {@code update} on {@code executor}, retrying it there after a conflict. A rejection of
+     * the first attempt is thrown right away, as {@link CompletableFuture#supplyAsync} would.
+     */
+    public <T> CompletableFuture<T> execute(String entity, Supplier<T> update, Executor executor) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        executor.execute(() -> attempt(entity, update, executor, 1, result));
+        return result;
+    }
+
+    private <T> void attempt(String entity, Supplier<T> update, Executor executor, int attempt, CompletableFuture<T> result) {
+        try {
+            result.complete(update.get());
+        } catch (OptimisticLockingFailureException e) {
+            if (attempt == maxAttempts) {
+                conflicts(entity, "exhausted").increment();
+                result.completeExceptionally(conflict(entity, e));
+                return;
+            }
+            conflicts(entity, "retried").increment();
+            // bound here, where the request's query stats are, rather than on the delaying thread
+            Runnable retry = QueryStats.propagate(() -> attempt(entity, update, executor, attempt + 1, result));
+            CompletableFuture.delayedExecutor(backOffNanos(attempt), TimeUnit.NANOSECONDS).execute(() -> {
+                try {
+                    executor.execute(retry);
+                } catch (RejectedExecutionException rejected) {
+                    result.completeExceptionally(rejected);
+                }
+            });
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private long backOffNanos(int attempt) {
+        long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private Counter conflicts(String entity, String outcome) {
+        return Counter.builder(CONFLICTS_METRIC)
+                .description("Updates that lost an optimistic locking race")
+                .tag("entity", entity)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static UpdateConflictException conflict(String entity, OptimisticLockingFailureException cause) {
+        return new UpdateConflictException("The " + entity + " was changed concurrently, retry the update", cause);
+    }
+}
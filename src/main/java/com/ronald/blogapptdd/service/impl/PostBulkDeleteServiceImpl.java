@@ -0,0 +1,183 @@
+package com.ronald.blogapptdd.service.impl;
+
+import com.ronald.blogapptdd.config.BlogProperties;
+import com.ronald.blogapptdd.dto.request.DeletePostsRequest;
+import com.ronald.blogapptdd.dto.response.DeleteChunkResultDTO;
+import com.ronald.blogapptdd.dto.response.PostDeleteResponseDTO;
+import com.ronald.blogapptdd.entity.composite.PostTagKey;
+import com.ronald.blogapptdd.event.ChangeType;
+import com.ronald.blogapptdd.event.PostChangedEvent;
+import com.ronald.blogapptdd.repository.PostRepository;
+import com.ronald.blogapptdd.repository.PostTagRepository;
+import com.ronald.blogapptdd.repository.projection.PostCategoryId;
+import com.ronald.blogapptdd.service.PostBulkDeleteService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Deletes posts picked by id or by category and creation time, in chunks of
+ * {@code blog.bulk-delete.chunk-size} posts with one transaction each.
+ * <p>
+ * A chunk selects its post ids, reads the category and tag ids the change events need, and
+ * then removes the posts with one statement; their {@code post_tag} rows go with them through
+ * the cascading foreign key. No entity is loaded into the persistence context. Filtered deletes
+ * page through the matching posts by id, so every chunk costs the same however many posts have
+ * been deleted before it.
+ */
+@Service
+public class PostBulkDeleteServiceImpl implements PostBulkDeleteService {
+
+    private final PostRepository postRepository;
+
+    private final PostTagRepository postTagRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final BlogProperties blogProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public PostBulkDeleteServiceImpl(PostRepository postRepository, PostTagRepository postTagRepository, ApplicationEventPublisher eventPublisher, BlogProperties blogProperties, PlatformTransactionManager transactionManager) {
+        this.postRepository = postRepository;
+        this.postTagRepository = postTagRepository;
+        this.eventPublisher = eventPublisher;
+        this.blogProperties = blogProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public PostDeleteResponseDTO deletePosts(DeletePostsRequest request) {
+        boolean byIds = request.getIds() != null && !request.getIds().isEmpty();
+        if (!byIds && request.getCategoryId() == null
+                && request.getCreatedFrom() == null && request.getCreatedTo() == null) {
+            throw new IllegalArgumentException("Give the post ids, a category or a creation time range to delete");
+        }
+        int chunkSize = Math.max(1, blogProperties.getBulkDelete().getChunkSize());
+        Long categoryId = request.getCategoryId();
+        Timestamp createdFrom = toTimestamp(request.getCreatedFrom());
+        Timestamp createdTo = toTimestamp(request.getCreatedTo());
+        DeleteReport report = new DeleteReport();
+
+        if (byIds) {
+            List<Long> ids = request.getIds().stream()
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .sorted()
+                    .collect(Collectors.toList());
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> candidates = ids.subList(from, Math.min(ids.size(), from + chunkSize));
+                deleteChunk(() -> postRepository.findIdsMatchingIn(candidates, categoryId, createdFrom, createdTo), report);
+            }
+        } else {
+            long afterId = Long.MIN_VALUE;
+            List<Long> chunk;
+            do {
+                long after = afterId;
+                chunk = deleteChunk(() -> postRepository.findIdsMatching(after, categoryId, createdFrom, createdTo,
+                        PageRequest.of(0, chunkSize)), report);
+                if (!chunk.isEmpty()) {
+                    afterId = chunk.get(chunk.size() - 1);
+                }
+            } while (chunk.size() == chunkSize);
+        }
+        return report.toResponse();
+    }
+
+    /**
+     * Deletes the posts {@code selection} returns, in one transaction, and returns their ids.
+     */
+    private List<Long> deleteChunk(Supplier<List<Long>> selection, DeleteReport report) {
+        long started = System.nanoTime();
+        ChunkResult result = transactionTemplate.execute(status -> {
+            List<Long> postIds = selection.get();
+            if (postIds.isEmpty()) {
+                return new ChunkResult(postIds, 0, 0);
+            }
+            List<PostCategoryId> posts = postRepository.findCategoryIdsByIdIn(postIds);
+            List<PostTagKey> postTags = postTagRepository.findKeysByPostIdIn(postIds);
+            Map<Long, Set<Long>> tagIdsByPostId = postTags.stream()
+                    .collect(Collectors.groupingBy(PostTagKey::getPostId,
+                            Collectors.mapping(PostTagKey::getTagId, Collectors.toSet())));
+
+            int postsDeleted = postRepository.deleteByIdIn(postIds);
+            int postTagsDeleted = postTags.size();
+            for (PostCategoryId post : posts) {
+                eventPublisher.publishEvent(PostChangedEvent.builder()
+                        .type(ChangeType.DELETED)
+                        .postId(post.getPostId())
+                        .previousCategoryId(post.getCategoryId())
+                        .previousTagIds(tagIdsByPostId.getOrDefault(post.getPostId(), Collections.emptySet()))
+                        .build());
+            }
+            return new ChunkResult(postIds, postsDeleted, postTagsDeleted);
+        });
+        long elapsedNanos = System.nanoTime() - started;
+
+        if (!result.postIds.isEmpty()) {
+            report.postsDeleted += result.postsDeleted;
+            report.postTagsDeleted += result.postTagsDeleted;
+            report.chunks.add(DeleteChunkResultDTO.builder()
+                    .chunk(report.chunks.size() + 1)
+                    .firstPostId(result.postIds.get(0))
+                    .lastPostId(result.postIds.get(result.postIds.size() - 1))
+                    .postsDeleted(result.postsDeleted)
+                    .postTagsDeleted(result.postTagsDeleted)
+                    .elapsedMillis(elapsedNanos / 1_000_000)
+                    .postsPerSecond(perSecond(result.postsDeleted, elapsedNanos))
+                    .build());
+        }
+        return result.postIds;
+    }
+
+    private static Timestamp toTimestamp(Instant instant) {
+        return instant == null ? null : Timestamp.from(instant);
+    }
+
+    private static double perSecond(long posts, long elapsedNanos) {
+        return elapsedNanos == 0 ? 0 : posts * 1_000_000_000d / elapsedNanos;
+    }
+
+    private static class ChunkResult {
+        private final List<Long> postIds;
+        private final int postsDeleted;
+        private final int postTagsDeleted;
+
+        ChunkResult(List<Long> postIds, int postsDeleted, int postTagsDeleted) {
+            this.postIds = postIds;
+            this.postsDeleted = postsDeleted;
+            this.postTagsDeleted = postTagsDeleted;
+        }
+    }
+
+    private static class DeleteReport {
+        private final long started = System.nanoTime();
+        private final List<DeleteChunkResultDTO> chunks = new ArrayList<>();
+        private long postsDeleted;
+        private long postTagsDeleted;
+
+        PostDeleteResponseDTO toResponse() {
+            long elapsedNanos = System.nanoTime() - started;
+            return PostDeleteResponseDTO.builder()
+                    .postsDeleted(postsDeleted)
+                    .postTagsDeleted(postTagsDeleted)
+                    .elapsedMillis(elapsedNanos / 1_000_000)
+                    .postsPerSecond(perSecond(postsDeleted, elapsedNanos))
+                    .chunks(chunks)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.ronald.blogapptdd.service.impl;
+
+import com.ronald.blogapptdd.cache.ChangeGenerations;
+import com.ronald.blogapptdd.entity.CategoryPostCount;
+import com.ronald.blogapptdd.entity.TagPostCount;
+import com.ronald.blogapptdd.event.CategoryChangedEvent;
+import com.ronald.blogapptdd.event.ChangeType;
+import com.ronald.blogapptdd.event.PostChangedEvent;
+import com.ronald.blogapptdd.event.TagChangedEvent;
+import com.ronald.blogapptdd.repository.CategoryPostCountRepository;
+import com.ronald.blogapptdd.repository.PostRepository;
+import com.ronald.blogapptdd.repository.PostTagRepository;
+import com.ronald.blogapptdd.repository.TagPostCountRepository;
+import com.ronald.blogapptdd.repository.projection.IdCount;
+import com.ronald.blogapptdd.service.PostCountService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Post counters per category and per tag.
+ * <p>
+ * Committed post writes add their deltas to a {@link LongAdder} per category and tag, which
+ * spreads concurrent increments of the same counter over striped cells instead of contending
+ * on one row. A scheduled flush drains the adders into the count tables in one transaction,
+ * and reads add whatever is still pending to the stored value. A scheduled reconciliation
+ * recounts from the posts and repairs any drift, e.g. from a crash between commit and flush.
+ * <p>
+ * Deleting a tag removes its {@code post_tag} rows in the database without post events, so the
+ * counter of a deleted tag or category is dropped together with anything still pending for it.
+ * <p>
+ * Listings that show the counts are cached until the counts generation in {@link ChangeGenerations}
+ * moves, which the flush and the reconciliation do whenever they change a stored count.
+ */
+@Service
+public class PostCountServiceImpl implements PostCountService {
+
+    private final CategoryPostCountRepository categoryPostCountRepository;
+
+    private final TagPostCountRepository tagPostCountRepository;
+
+    private final PostRepository postRepository;
+
+    private final PostTagRepository postTagRepository;
+
+    private final ChangeGenerations generations;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentMap<Long, LongAdder> pendingCategoryCounts = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Long, LongAdder> pendingTagCounts = new ConcurrentHashMap<>();
+
+    public PostCountServiceImpl(CategoryPostCountRepository categoryPostCountRepository, TagPostCountRepository tagPostCountRepository, PostRepository postRepository, PostTagRepository postTagRepository, ChangeGenerations generations, PlatformTransactionManager transactionManager) {
+        this.categoryPostCountRepository = categoryPostCountRepository;
+        this.tagPostCountRepository = tagPostCountRepository;
+        this.postRepository = postRepository;
+        this.postTagRepository = postTagRepository;
+        this.generations = generations;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // listeners run after the writing transaction committed and must not join it
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public Map<Long, Long> getCategoryPostCounts(Collection<Long> categoryIds) {
+        Map<Long, Long> stored = categoryPostCountRepository.findAllById(categoryIds).stream()
+                .collect(Collectors.toMap(CategoryPostCount::getCategoryId, CategoryPostCount::getPostCount));
+        return withPending(categoryIds, stored, pendingCategoryCounts);
+    }
+
+    @Override
+    public Map<Long, Long> getTagPostCounts(Collection<Long> tagIds) {
+        Map<Long, Long> stored = tagPostCountRepository.findAllById(tagIds).stream()
+                .collect(Collectors.toMap(TagPostCount::getTagId, TagPostCount::getPostCount));
+        return withPending(tagIds, stored, pendingTagCounts);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostChanged(PostChangedEvent event) {
+        if (!Objects.equals(event.getPreviousCategoryId(), event.getCategoryId())) {
+            increment(pendingCategoryCounts, event.getPreviousCategoryId(), -1);
+            increment(pendingCategoryCounts, event.getCategoryId(), 1);
+        }
+        event.getPreviousTagIds().stream()
+                .filter(tagId -> !event.getTagIds().contains(tagId))
+                .forEach(tagId -> increment(pendingTagCounts, tagId, -1));
+        event.getTagIds().stream()
+                .filter(tagId -> !event.getPreviousTagIds().contains(tagId))
+                .forEach(tagId -> increment(pendingTagCounts, tagId, 1));
+    }
+
+    /**
+     * Synchronized with {@link #flush()}, so a flush cannot write the counter back after it is gone.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onTagChanged(TagChangedEvent event) {
+        if (event.getType() == ChangeType.DELETED) {
+            // no post can carry the tag any more, so its adder is never written again
+            pendingTagCounts.remove(event.getTagId());
+            transactionTemplate.executeWithoutResult(status -> tagPostCountRepository.deleteByTagId(event.getTagId()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCategoryChanged(CategoryChangedEvent event) {
+        if (event.getType() == ChangeType.DELETED) {
+            pendingCategoryCounts.remove(event.getCategoryId());
+            transactionTemplate.executeWithoutResult(status -> categoryPostCountRepository.deleteByCategoryId(event.getCategoryId()));
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${blog.counters.flush-interval}", initialDelayString = "${blog.counters.flush-interval}")
+    public synchronized void flush() {
+        Map<Long, Long> categoryDeltas = drain(pendingCategoryCounts);
+        Map<Long, Long> tagDeltas = drain(pendingTagCounts);
+        if (categoryDeltas.isEmpty() && tagDeltas.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                flushCategoryCounts(categoryDeltas);
+                flushTagCounts(tagDeltas);
+            });
+        } catch (RuntimeException e) {
+            // put the deltas back so the next flush retries them
+            categoryDeltas.forEach((categoryId, delta) -> increment(pendingCategoryCounts, categoryId, delta));
+            tagDeltas.forEach((tagId, delta) -> increment(pendingTagCounts, tagId, delta));
+            throw e;
+        }
+        generations.postCountsChanged();
+    }
+
+    @Override
+    @Scheduled(cron = "${blog.counters.reconcile-cron}")
+    public synchronized int reconcile() {
+        flush();
+        // a write committing while the recount runs can be counted by both the recount and
+        // the next flush; the following reconciliation repairs that
+        Integer repaired = transactionTemplate.execute(status ->
+                repairCategoryCounts(toMap(postRepository.countPostsByCategory()))
+                        + repairTagCounts(toMap(postTagRepository.countPostsByTag())));
+        if (repaired == null || repaired == 0) {
+            return 0;
+        }
+        generations.postCountsChanged();
+        return repaired;
+    }
+
+    private void flushCategoryCounts(Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Map<Long, CategoryPostCount> rows = categoryPostCountRepository.findAllById(deltas.keySet()).stream()
+                .collect(Collectors.toMap(CategoryPostCount::getCategoryId, Function.identity()));
+        deltas.forEach((categoryId, delta) -> {
+            CategoryPostCount row = rows.computeIfAbsent(categoryId, id -> new CategoryPostCount(id, 0));
+            row.setPostCount(row.getPostCount() + delta);
+        });
+        categoryPostCountRepository.saveAll(rows.values());
+    }
+
+    private void flushTagCounts(Map<Long, Long> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Map<Long, TagPostCount> rows = tagPostCountRepository.findAllById(deltas.keySet()).stream()
+                .collect(Collectors.toMap(TagPostCount::getTagId, Function.identity()));
+        deltas.forEach((tagId, delta) -> {
+            TagPostCount row = rows.computeIfAbsent(tagId, id -> new TagPostCount(id, 0));
+            row.setPostCount(row.getPostCount() + delta);
+        });
+        tagPostCountRepository.saveAll(rows.values());
+    }
+
+    private int repairCategoryCounts(Map<Long, Long> actualCounts) {
+        int repaired = 0;
+        for (CategoryPostCount row : categoryPostCountRepository.findAll()) {
+            long actual = actualCounts.getOrDefault(row.getCategoryId(), 0L);
+            if (row.getPostCount() != actual) {
+                row.setPostCount(actual);
+                repaired++;
+            }
+            actualCounts.remove(row.getCategoryId());
+        }
+        for (Map.Entry<Long, Long> missing : actualCounts.entrySet()) {
+            categoryPostCountRepository.save(new CategoryPostCount(missing.getKey(), missing.getValue()));
+            repaired++;
+        }
+        return repaired;
+    }
+
+    private int repairTagCounts(Map<Long, Long> actualCounts) {
+        int repaired = 0;
+        for (TagPostCount row : tagPostCountRepository.findAll()) {
+            long actual = actualCounts.getOrDefault(row.getTagId(), 0L);
+            if (row.getPostCount() != actual) {
+                row.setPostCount(actual);
+                repaired++;
+            }
+            actualCounts.remove(row.getTagId());
+        }
+        for (Map.Entry<Long, Long> missing : actualCounts.entrySet()) {
+            tagPostCountRepository.save(new TagPostCount(missing.getKey(), missing.getValue()));
+            repaired++;
+        }
+        return repaired;
+    }
+
+    private static Map<Long, Long> withPending(Collection<Long> ids, Map<Long, Long> stored,
+                                               ConcurrentMap<Long, LongAdder> pending) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (Long id : ids) {
+            LongAdder delta = pending.get(id);
+            counts.put(id, stored.getOrDefault(id, 0L) + (delta == null ? 0 : delta.sum()));
+        }
+        return counts;
+    }
+
+    private static void increment(ConcurrentMap<Long, LongAdder> counters, Long id, long delta) {
+        if (id != null) {
+            counters.computeIfAbsent(id, key -> new LongAdder()).add(delta);
+        }
+    }
+
+    private static Map<Long, Long> drain(ConcurrentMap<Long, LongAdder> counters) {
+        Map<Long, Long> deltas = new HashMap<>();
+        // adders stay in the map so concurrent writers never race with a removal;
+        // there is one per category or tag, so the map stays small
+        counters.forEach((id, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta != 0) {
+                deltas.put(id, delta);
+            }
+        });
+        return deltas;
+    }
+
+    private static Map<Long, Long> toMap(List<IdCount> counts) {
+        return counts.stream().collect(Collectors.toMap(IdCount::getId, IdCount::getCount));
+    }
+}
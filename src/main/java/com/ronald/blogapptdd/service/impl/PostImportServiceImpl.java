@@ -0,0 +1,331 @@
+package com.ronald.blogapptdd.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.ronald.blogapptdd.config.BlogProperties;
+import com.ronald.blogapptdd.dto.request.CreatePostRequest;
+import com.ronald.blogapptdd.dto.response.ImportChunkResultDTO;
+import com.ronald.blogapptdd.dto.response.ImportRecordErrorDTO;
+import com.ronald.blogapptdd.dto.response.PostImportResponseDTO;
+import com.ronald.blogapptdd.entity.Category;
+import com.ronald.blogapptdd.entity.Post;
+import com.ronald.blogapptdd.entity.PostTag;
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.entity.composite.PostTagKey;
+import com.ronald.blogapptdd.event.ChangeType;
+import com.ronald.blogapptdd.event.PostChangedEvent;
+import com.ronald.blogapptdd.repository.CategoryRepository;
+import com.ronald.blogapptdd.repository.PostRepository;
+import com.ronald.blogapptdd.repository.PostTagRepository;
+import com.ronald.blogapptdd.repository.TagRepository;
+import com.ronald.blogapptdd.service.PostImportService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports posts from a newline-delimited JSON stream of {@link CreatePostRequest} records.
+ * <p>
+ * Records are read one line at a time and written in chunks, one transaction per chunk.
+ * Categories and tags of a chunk are resolved with one query each, and the persistence
+ * context is cleared after every chunk, so memory use does not depend on the upload size.
+ * A line is buffered up to {@code blog.bulk-import.max-record-size} characters; the rest of a
+ * longer one is skipped as it is read, so a stream without line breaks cannot fill the heap.
+ * The report lists per-record errors and per-chunk results up to their own limits and only
+ * counts the rest. A malformed, oversized or invalid record is reported with its line number
+ * and does not stop the import.
+ */
+@Service
+public class PostImportServiceImpl implements PostImportService {
+
+    private final PostRepository postRepository;
+
+    private final CategoryRepository categoryRepository;
+
+    private final TagRepository tagRepository;
+
+    private final PostTagRepository postTagRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final BlogProperties blogProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectReader recordReader;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public PostImportServiceImpl(PostRepository postRepository, CategoryRepository categoryRepository, TagRepository tagRepository, PostTagRepository postTagRepository, ApplicationEventPublisher eventPublisher, BlogProperties blogProperties, PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+        this.postRepository = postRepository;
+        this.categoryRepository = categoryRepository;
+        this.tagRepository = tagRepository;
+        this.postTagRepository = postTagRepository;
+        this.eventPublisher = eventPublisher;
+        this.blogProperties = blogProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.recordReader = objectMapper.readerFor(CreatePostRequest.class);
+    }
+
+    @Override
+    public PostImportResponseDTO importPosts(InputStream ndjson) throws IOException {
+        BlogProperties.BulkImport settings = blogProperties.getBulkImport();
+        ImportReport report = new ImportReport(settings.getMaxReportedErrors(), settings.getMaxReportedChunks());
+        List<ImportRecord> chunk = new ArrayList<>(settings.getChunkSize());
+
+        // NDJSON frames one record per line; parsing line by line keeps a malformed record
+        // from corrupting the parser state for the rest of the stream
+        BoundedLineReader lines = new BoundedLineReader(
+                new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8)),
+                (int) Math.min(Integer.MAX_VALUE, settings.getMaxRecordSize().toBytes()));
+        long lineNumber = 0;
+        String line;
+        while ((line = lines.next()) != null) {
+            lineNumber++;
+            if (lines.isTruncated()) {
+                report.records++;
+                report.addError(lineNumber, "Record longer than " + settings.getMaxRecordSize());
+                continue;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            report.records++;
+            try {
+                CreatePostRequest request = recordReader.readValue(line);
+                if (request == null) {
+                    report.addError(lineNumber, "Empty record");
+                } else {
+                    chunk.add(new ImportRecord(lineNumber, request));
+                }
+            } catch (JsonProcessingException e) {
+                report.addError(lineNumber, "Malformed record: " + e.getOriginalMessage());
+            }
+            if (chunk.size() == settings.getChunkSize()) {
+                writeChunk(chunk, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, report);
+        }
+        return report.toResponse();
+    }
+
+    private void writeChunk(List<ImportRecord> chunk, ImportReport report) {
+        long started = System.nanoTime();
+        List<ImportRecordErrorDTO> errors = new ArrayList<>();
+        int imported;
+        try {
+            imported = transactionTemplate.execute(status -> persistChunk(chunk, errors));
+        } catch (RuntimeException e) {
+            errors.clear();
+            chunk.forEach(record -> errors.add(new ImportRecordErrorDTO(record.line,
+                    "Chunk rolled back: " + e.getMessage())));
+            imported = 0;
+        }
+        long elapsedNanos = System.nanoTime() - started;
+
+        report.imported += imported;
+        errors.forEach(error -> report.addError(error.getLine(), error.getMessage()));
+        report.addChunk(ImportChunkResultDTO.builder()
+                .chunk(report.chunkCount + 1)
+                .firstLine(chunk.get(0).line)
+                .lastLine(chunk.get(chunk.size() - 1).line)
+                .imported(imported)
+                .failed(errors.size())
+                .elapsedMillis(elapsedNanos / 1_000_000)
+                .recordsPerSecond(perSecond(chunk.size(), elapsedNanos))
+                .build());
+    }
+
+    private int persistChunk(List<ImportRecord> chunk, List<ImportRecordErrorDTO> errors) {
+        Map<Long, Category> categories = categoryRepository.findAllById(chunk.stream()
+                        .map(record -> record.request.getCategoryId())
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+
+        List<Long> tagIds = chunk.stream()
+                .filter(record -> record.request.getTagIds() != null)
+                .flatMap(record -> record.request.getTagIds().stream())
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, Tag> tags = tagIds.isEmpty()
+                ? Collections.emptyMap()
+                : tagRepository.findByIdIn(tagIds).stream()
+                .collect(Collectors.toMap(Tag::getId, Function.identity()));
+
+        List<PostTag> postTags = new ArrayList<>();
+        int imported = 0;
+        for (ImportRecord record : chunk) {
+            CreatePostRequest request = record.request;
+            Category category = request.getCategoryId() == null ? null : categories.get(request.getCategoryId());
+            if (category == null) {
+                errors.add(new ImportRecordErrorDTO(record.line, "Category not found: " + request.getCategoryId()));
+                continue;
+            }
+
+            Post post = postRepository.save(Post.builder()
+                    .title(request.getTitle())
+                    .content(request.getContent())
+                    .category(category)
+                    .build());
+            Set<Long> postTagIds = new LinkedHashSet<>();
+            if (request.getTagIds() != null) {
+                for (Long tagId : new LinkedHashSet<>(request.getTagIds())) {
+                    Tag tag = tags.get(tagId);
+                    if (tag != null) {
+                        postTags.add(PostTag.builder()
+                                .id(new PostTagKey(post.getId(), tag.getId()))
+                                .post(post)
+                                .tag(tag)
+                                .build());
+                        postTagIds.add(tag.getId());
+                    }
+                }
+            }
+            eventPublisher.publishEvent(PostChangedEvent.builder()
+                    .type(ChangeType.CREATED)
+                    .postId(post.getId())
+                    .title(post.getTitle())
+                    .content(post.getContent())
+                    .categoryId(category.getId())
+                    .tagIds(postTagIds)
+                    .build());
+            imported++;
+        }
+        postTagRepository.saveAll(postTags);
+
+        entityManager.flush();
+        entityManager.clear();
+        return imported;
+    }
+
+    private static double perSecond(long records, long elapsedNanos) {
+        return elapsedNanos == 0 ? 0 : records * 1_000_000_000d / elapsedNanos;
+    }
+
+    private static class ImportRecord {
+        private final long line;
+        private final CreatePostRequest request;
+
+        ImportRecord(long line, CreatePostRequest request) {
+            this.line = line;
+            this.request = request;
+        }
+    }
+
+    /**
+     * Reads lines of at most {@code maxLength} characters without {@link BufferedReader#readLine()}
+     * buffering a whole line first; the rest of a longer line is read and dropped.
+     */
+    private static class BoundedLineReader {
+        private final Reader reader;
+        private final int maxLength;
+        private final StringBuilder line = new StringBuilder();
+        private boolean truncated;
+
+        BoundedLineReader(Reader reader, int maxLength) {
+            this.reader = reader;
+            this.maxLength = maxLength;
+        }
+
+        /**
+         * The next line without its terminator, or {@code null} at the end of the stream. A
+         * line over the limit comes back cut short, with {@link #isTruncated()} set.
+         */
+        String next() throws IOException {
+            line.setLength(0);
+            truncated = false;
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            for (; c != -1 && c != '\n'; c = reader.read()) {
+                if (line.length() < maxLength) {
+                    line.append((char) c);
+                } else {
+                    truncated = true;
+                }
+            }
+            if (!truncated && line.length() > 0 && line.charAt(line.length() - 1) == '\r') {
+                line.setLength(line.length() - 1);
+            }
+            return line.toString();
+        }
+
+        boolean isTruncated() {
+            return truncated;
+        }
+    }
+
+    private static class ImportReport {
+        private final long started = System.nanoTime();
+        private final int maxReportedErrors;
+        private final int maxReportedChunks;
+        private final List<ImportChunkResultDTO> chunks = new ArrayList<>();
+        private final List<ImportRecordErrorDTO> errors = new ArrayList<>();
+        private long records;
+        private long imported;
+        private long failed;
+        private int chunkCount;
+
+        ImportReport(int maxReportedErrors, int maxReportedChunks) {
+            this.maxReportedErrors = maxReportedErrors;
+            this.maxReportedChunks = maxReportedChunks;
+        }
+
+        void addChunk(ImportChunkResultDTO chunk) {
+            chunkCount++;
+            if (chunks.size() < maxReportedChunks) {
+                chunks.add(chunk);
+            }
+        }
+
+        void addError(long line, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportRecordErrorDTO(line, message));
+            }
+        }
+
+        PostImportResponseDTO toResponse() {
+            long elapsedNanos = System.nanoTime() - started;
+            return PostImportResponseDTO.builder()
+                    .records(records)
+                    .imported(imported)
+                    .failed(failed)
+                    .elapsedMillis(elapsedNanos / 1_000_000)
+                    .recordsPerSecond(perSecond(imported, elapsedNanos))
+                    .chunks(chunks)
+                    .chunksTruncated(chunkCount > chunks.size())
+                    .errors(errors)
+                    .errorsTruncated(failed > errors.size())
+                    .build();
+        }
+    }
+}
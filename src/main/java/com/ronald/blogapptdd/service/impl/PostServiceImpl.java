@@ -1,46 +1,88 @@
 package com.ronald.blogapptdd.service.impl;
 
+import com.ronald.blogapptdd.cache.PostDetailCache;
+import com.ronald.blogapptdd.cache.ReferenceDataSnapshot;
+import com.ronald.blogapptdd.config.BlogProperties;
 import com.ronald.blogapptdd.dto.request.CreatePostRequest;
 import com.ronald.blogapptdd.dto.request.UpdatePostRequest;
+import com.ronald.blogapptdd.dto.response.CursorPageResponseDTO;
 import com.ronald.blogapptdd.dto.response.PostResponseDTO;
+import com.ronald.blogapptdd.dto.response.PostSearchResultDTO;
+import com.ronald.blogapptdd.dto.response.PostSummaryDTO;
 import com.ronald.blogapptdd.entity.Category;
 import com.ronald.blogapptdd.entity.Post;
 import com.ronald.blogapptdd.entity.PostTag;
 import com.ronald.blogapptdd.entity.Tag;
 import com.ronald.blogapptdd.entity.composite.PostTagKey;
+import com.ronald.blogapptdd.event.ChangeType;
+import com.ronald.blogapptdd.event.PostChangedEvent;
 import com.ronald.blogapptdd.exception.CategoryNotFoundException;
+import com.ronald.blogapptdd.exception.InvalidCursorException;
 import com.ronald.blogapptdd.exception.PostNotFoundException;
-import com.ronald.blogapptdd.repository.CategoryRepository;
 import com.ronald.blogapptdd.repository.PostRepository;
 import com.ronald.blogapptdd.repository.PostTagRepository;
-import com.ronald.blogapptdd.repository.TagRepository;
+import com.ronald.blogapptdd.repository.projection.PostSummaryRow;
+import com.ronald.blogapptdd.repository.projection.PostTagName;
+import com.ronald.blogapptdd.repository.projection.PostVersionRow;
+import com.ronald.blogapptdd.search.PostSearchIndex;
+import com.ronald.blogapptdd.search.SearchHit;
+import com.ronald.blogapptdd.search.TagMatch;
+import com.ronald.blogapptdd.search.TagPostIndex;
 import com.ronald.blogapptdd.service.PostService;
+import com.ronald.blogapptdd.utils.PostCursor;
 import com.ronald.blogapptdd.utils.PostMapperUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.transaction.Transactional;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class PostServiceImpl implements PostService {
 
     private final PostRepository postRepository;
 
-    private final CategoryRepository categoryRepository;
+    private final PostTagRepository postTagRepository;
 
-    private final TagRepository tagRepository;
+    private final ReferenceDataSnapshot referenceDataSnapshot;
 
-    private final PostTagRepository postTagRepository;
+    private final BlogProperties blogProperties;
+
+    private final PostDetailCache postDetailCache;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final PostSearchIndex postSearchIndex;
+
+    private final TagPostIndex tagPostIndex;
 
-    public PostServiceImpl(PostRepository postRepository, CategoryRepository categoryRepository, TagRepository tagRepository, PostTagRepository postTagRepository) {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public PostServiceImpl(PostRepository postRepository, PostTagRepository postTagRepository, ReferenceDataSnapshot referenceDataSnapshot, BlogProperties blogProperties, PostDetailCache postDetailCache, ApplicationEventPublisher eventPublisher, PostSearchIndex postSearchIndex, TagPostIndex tagPostIndex) {
         this.postRepository = postRepository;
-        this.categoryRepository = categoryRepository;
-        this.tagRepository = tagRepository;
         this.postTagRepository = postTagRepository;
+        this.referenceDataSnapshot = referenceDataSnapshot;
+        this.blogProperties = blogProperties;
+        this.postDetailCache = postDetailCache;
+        this.eventPublisher = eventPublisher;
+        this.postSearchIndex = postSearchIndex;
+        this.tagPostIndex = tagPostIndex;
     }
 
 
@@ -48,38 +90,132 @@ public class PostServiceImpl implements PostService {
     @Transactional
     public Post createPost(CreatePostRequest request) {
 
-        Category category = categoryRepository.findById(request.getCategoryId()).orElseThrow(() -> new CategoryNotFoundException("Category not found"));
+        Category category = referenceDataSnapshot.findCategory(request.getCategoryId()).orElseThrow(() -> new CategoryNotFoundException("Category not found"));
 
         Post post = Post.builder()
                 .title(request.getTitle())
                 .content(request.getContent())
                 .category(category)
                 .build();
+        Post savedPost = postRepository.save(post);
 
         List<PostTag> postTags = new ArrayList<>();
-        if (request.getTagIds() != null) {
-            request.getTagIds()
-                    .forEach(tagId -> tagRepository.findById(tagId)
-                            .ifPresent(tag -> postTags.add(PostTag.builder()
-                                    .id(new PostTagKey(post.getId(), tagId)).build())));
+        if (request.getTagIds() != null && !request.getTagIds().isEmpty()) {
+            referenceDataSnapshot.findTags(request.getTagIds())
+                    .forEach(tag -> postTags.add(PostTag.builder()
+                            .id(new PostTagKey(savedPost.getId(), tag.getId()))
+                            .post(savedPost)
+                            .tag(tag)
+                            .build()));
         }
         if (!postTags.isEmpty()) {
+            // inserted as one JDBC batch, see hibernate.jdbc.batch_size
             postTagRepository.saveAll(postTags);
         }
-        return postRepository.save(post);
+        savedPost.setPostTags(postTags);
+
+        eventPublisher.publishEvent(PostChangedEvent.builder()
+                .type(ChangeType.CREATED)
+                .postId(savedPost.getId())
+                .title(savedPost.getTitle())
+                .content(savedPost.getContent())
+                .categoryId(category.getId())
+                .tagIds(tagIdsOf(postTags))
+                .build());
+        return savedPost;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<PostResponseDTO> getAllPosts() {
-        List<Post> allPosts = postRepository.findAll();
+        List<Post> allPosts = postRepository.findAllWithCategoryAndTags();
         return PostMapperUtils.mapPostsToPostResponseDTOs(allPosts);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponseDTO<PostResponseDTO> getPostPage(String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        List<Long> ids = findPageIds(cursor, pageSize);
+
+        boolean hasNext = ids.size() > pageSize;
+        if (hasNext) {
+            ids = ids.subList(0, pageSize);
+        }
+        List<Post> posts = findPostsInOrder(ids);
+
+        String nextCursor = null;
+        if (hasNext && !posts.isEmpty()) {
+            Post last = posts.get(posts.size() - 1);
+            nextCursor = PostCursor.encode(last.getCreatedAt(), last.getId());
+        }
+
+        return CursorPageResponseDTO.<PostResponseDTO>builder()
+                .items(PostMapperUtils.mapPostsToPostResponseDTOs(posts))
+                .size(posts.size())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponseDTO<PostSummaryDTO> getPostSummaryPage(String cursor, Integer size, boolean withExcerpt) {
+        int pageSize = resolvePageSize(size);
+        List<Long> ids = findPageIds(cursor, pageSize);
+
+        boolean hasNext = ids.size() > pageSize;
+        if (hasNext) {
+            ids = ids.subList(0, pageSize);
+        }
+        if (ids.isEmpty()) {
+            return CursorPageResponseDTO.<PostSummaryDTO>builder()
+                    .items(new ArrayList<>())
+                    .size(0)
+                    .build();
+        }
+
+        List<PostSummaryRow> rows = withExcerpt
+                ? postRepository.findSummariesWithExcerptByIdIn(ids)
+                : postRepository.findSummariesByIdIn(ids);
+        Map<Long, PostSummaryRow> rowsById = rows.stream()
+                .collect(Collectors.toMap(PostSummaryRow::getId, Function.identity()));
+        Map<Long, List<String>> tagNamesByPostId = postTagRepository.findTagNamesByPostIdIn(ids).stream()
+                .collect(Collectors.groupingBy(PostTagName::getPostId,
+                        Collectors.mapping(PostTagName::getTagName, Collectors.toList())));
+
+        List<PostSummaryDTO> items = ids.stream()
+                .map(rowsById::get)
+                .filter(Objects::nonNull)
+                .map(row -> PostSummaryDTO.builder()
+                        .id(row.getId())
+                        .title(row.getTitle())
+                        .categoryName(row.getCategoryName())
+                        .createdAt(row.getCreatedAt())
+                        .tagNames(tagNamesByPostId.getOrDefault(row.getId(), new ArrayList<>()))
+                        .excerpt(row.getExcerpt())
+                        .build())
+                .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (hasNext && !items.isEmpty()) {
+            PostSummaryDTO last = items.get(items.size() - 1);
+            nextCursor = PostCursor.encode(last.getCreatedAt(), last.getId());
+        }
+
+        return CursorPageResponseDTO.<PostSummaryDTO>builder()
+                .items(items)
+                .size(items.size())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    @Transactional
     public PostResponseDTO updatePost(Long postId, UpdatePostRequest request) {
-        Post post = postRepository.findById(postId)
+        Post post = postRepository.findWithCategoryAndTagsById(postId)
                 .orElseThrow(() -> new PostNotFoundException("Post not found"));
 
+        Long previousCategoryId = post.getCategory().getId();
         if (!request.getTitle().equals(post.getTitle())) {
             post.setTitle(request.getTitle());
         }
@@ -87,43 +223,258 @@ public class PostServiceImpl implements PostService {
             post.setContent(request.getContent());
         }
         if (!request.getCategoryId().equals(post.getCategory().getId())) {
-            Category category = categoryRepository.findById(request.getCategoryId())
+            Category category = referenceDataSnapshot.findCategory(request.getCategoryId())
                     .orElseThrow(() -> new CategoryNotFoundException("Category not found"));
             post.setCategory(category);
         }
 
-        List<PostTag> postTags = post.getPostTags();
-        List<Tag> tags = tagRepository.findByIdIn(request.getTagIds());
-        List<PostTag> newPostTags = tags.stream()
-                .map(tag -> PostTag.builder()
-                        .id(new PostTagKey(postId, tag.getId()))
-                        .build())
-                .collect(Collectors.toList());
-        postTagRepository.deleteAll(postTags);
-        if (!newPostTags.isEmpty()) {
-            postTagRepository.saveAll(newPostTags);
+        Set<Long> previousTagIds = tagIdsOf(post.getPostTags());
+        Set<Long> tagIds = previousTagIds;
+        // a request without tag ids leaves the tags as they are
+        if (request.getTagIds() != null) {
+            List<PostTag> newPostTags = reconcileTags(post, new LinkedHashSet<>(request.getTagIds()));
+            post.setPostTags(newPostTags);
+            tagIds = tagIdsOf(newPostTags);
+        }
+        if (!tagIds.equals(previousTagIds)) {
+            // the links live in post_tag; touching the post moves its version along with them
+            post.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
         }
 
         Post savedPost = postRepository.save(post);
+        eventPublisher.publishEvent(PostChangedEvent.builder()
+                .type(ChangeType.UPDATED)
+                .postId(postId)
+                .title(savedPost.getTitle())
+                .content(savedPost.getContent())
+                .categoryId(post.getCategory().getId())
+                .previousCategoryId(previousCategoryId)
+                .tagIds(tagIds)
+                .previousTagIds(previousTagIds)
+                .build());
         return PostMapperUtils.mapPostToPostResponseDTO(savedPost);
     }
 
     @Override
     public PostResponseDTO getPostDetail(Long postId) {
-        Post post = postRepository.findById(postId)
-                .orElseThrow(() -> new PostNotFoundException("Post not found"));
-
-        return PostMapperUtils.mapPostToPostResponseDTO(post);
+        return postDetailCache.get(postId, this::loadPostDetail);
     }
 
     @Override
+    @Transactional
     public void deletePost(Long postId) {
-        Post post = postRepository.findById(postId)
+        // one row per tag, read for the change event; the post itself is never loaded
+        List<PostVersionRow> rows = postRepository.findVersionRowsById(postId);
+        if (rows.isEmpty()) {
+            throw new PostNotFoundException("Post not found");
+        }
+
+        // the post_tag rows go with the post through the cascading foreign key
+        postRepository.deleteByIdIn(List.of(postId));
+        eventPublisher.publishEvent(PostChangedEvent.builder()
+                .type(ChangeType.DELETED)
+                .postId(postId)
+                .previousCategoryId(rows.get(0).getCategoryId())
+                .previousTagIds(rows.stream()
+                        .map(PostVersionRow::getTagId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .build());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportPosts(Consumer<PostResponseDTO> consumer) {
+        List<Post> batch = new ArrayList<>(PostRepository.EXPORT_FETCH_SIZE);
+        try (Stream<Post> posts = postRepository.streamAllWithCategory()) {
+            Iterator<Post> iterator = posts.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == PostRepository.EXPORT_FETCH_SIZE) {
+                    exportBatch(batch, consumer);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            exportBatch(batch, consumer);
+        }
+    }
+
+    private void exportBatch(List<Post> batch, Consumer<PostResponseDTO> consumer) {
+        List<Long> postIds = batch.stream().map(Post::getId).collect(Collectors.toList());
+        Map<Long, List<Tag>> tagsByPostId = postTagRepository.findAllWithTagByPostIdIn(postIds).stream()
+                .collect(Collectors.groupingBy(postTag -> postTag.getId().getPostId(),
+                        Collectors.mapping(PostTag::getTag, Collectors.toList())));
+
+        batch.forEach(post -> consumer.accept(PostMapperUtils.mapPostToPostResponseDTO(
+                post, tagsByPostId.getOrDefault(post.getId(), new ArrayList<>()))));
+
+        // the exported posts are not needed anymore; keep the persistence context from growing
+        entityManager.clear();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PostSearchResultDTO> searchPosts(String query, Integer limit) {
+        List<SearchHit> hits = postSearchIndex.search(query, resolveSearchLimit(limit));
+        if (hits.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Double> scores = hits.stream()
+                .collect(Collectors.toMap(SearchHit::getPostId, SearchHit::getScore));
+        List<Post> posts = findPostsInOrder(hits.stream().map(SearchHit::getPostId).collect(Collectors.toList()));
+        return posts.stream()
+                .map(post -> PostSearchResultDTO.builder()
+                        .post(PostMapperUtils.mapPostToPostResponseDTO(post))
+                        .score(scores.get(post.getId()))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponseDTO<PostResponseDTO> getPostPageByTags(List<Long> tagIds, TagMatch match, String cursor, Integer size) {
+        int pageSize = resolvePageSize(size);
+        Long beforePostId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                beforePostId = Long.parseLong(cursor);
+            } catch (NumberFormatException e) {
+                throw new InvalidCursorException("Invalid cursor: " + cursor, e);
+            }
+        }
+
+        // one extra id tells us whether there is a next page
+        List<Long> ids = tagPostIndex.isLoaded()
+                ? tagPostIndex.findPostIds(tagIds, match, beforePostId, pageSize + 1)
+                : findPostIdsByTags(tagIds, match, beforePostId, pageSize + 1);
+        boolean hasNext = ids.size() > pageSize;
+        if (hasNext) {
+            ids = ids.subList(0, pageSize);
+        }
+        // id order is the recency order here, see TagPostIndex
+        List<Post> posts = findPostsInOrder(ids);
+
+        return CursorPageResponseDTO.<PostResponseDTO>builder()
+                .items(PostMapperUtils.mapPostsToPostResponseDTOs(posts))
+                .size(posts.size())
+                .nextCursor(hasNext ? String.valueOf(ids.get(ids.size() - 1)) : null)
+                .build();
+    }
+
+    /**
+     * The tag query answered from {@code post_tag}, while the tag index is still loading.
+     */
+    private List<Long> findPostIdsByTags(List<Long> tagIds, TagMatch match, Long beforePostId, int limit) {
+        Set<Long> distinctTagIds = new LinkedHashSet<>(tagIds);
+        if (distinctTagIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return postTagRepository.findPostIdsByTagIds(distinctTagIds,
+                match == TagMatch.ALL ? distinctTagIds.size() : 1,
+                beforePostId == null ? Long.MAX_VALUE : beforePostId,
+                PageRequest.of(0, limit));
+    }
+
+    private PostResponseDTO loadPostDetail(Long postId) {
+        Post post = postRepository.findWithCategoryAndTagsById(postId)
                 .orElseThrow(() -> new PostNotFoundException("Post not found"));
 
-        postRepository.deleteById(postId);
+        return PostMapperUtils.mapPostToPostResponseDTO(post);
+    }
+
+    /**
+     * Brings the tag links of {@code post} in line with {@code requestedTagIds}, writing only the
+     * difference: one delete statement for the removed links and one insert batch for the added
+     * ones. An unchanged tag list costs no statement at all. Unknown tag ids are ignored.
+     * Returns the post's links after the change.
+     */
+    private List<PostTag> reconcileTags(Post post, Set<Long> requestedTagIds) {
+        List<PostTag> keptPostTags = new ArrayList<>();
+        Set<Long> removedTagIds = new LinkedHashSet<>();
+        for (PostTag postTag : post.getPostTags()) {
+            Long tagId = postTag.getId().getTagId();
+            if (requestedTagIds.contains(tagId)) {
+                keptPostTags.add(postTag);
+            } else {
+                removedTagIds.add(tagId);
+            }
+        }
+        Set<Long> keptTagIds = tagIdsOf(keptPostTags);
+        List<Long> addedTagIds = requestedTagIds.stream()
+                .filter(tagId -> !keptTagIds.contains(tagId))
+                .collect(Collectors.toList());
+
+        if (!removedTagIds.isEmpty()) {
+            postTagRepository.deleteByPostIdAndTagIdIn(post.getId(), removedTagIds);
+        }
+        List<PostTag> addedPostTags = new ArrayList<>();
+        if (!addedTagIds.isEmpty()) {
+            for (Tag tag : referenceDataSnapshot.findTags(addedTagIds)) {
+                addedPostTags.add(PostTag.builder()
+                        .id(new PostTagKey(post.getId(), tag.getId()))
+                        .post(post)
+                        .tag(tag)
+                        .build());
+            }
+            if (!addedPostTags.isEmpty()) {
+                postTagRepository.saveAll(addedPostTags);
+            }
+        }
+
+        List<PostTag> postTags = new ArrayList<>(keptPostTags);
+        postTags.addAll(addedPostTags);
+        return postTags;
+    }
 
-        List<PostTag> postTags = post.getPostTags();
-        postTagRepository.deleteAll(postTags);
+    /**
+     * Ids of the page after {@code cursor} in {@code (created_at, id)} order, newest first. Returns one id
+     * more than {@code pageSize} when there is a next page, so no count query is needed.
+     */
+    private List<Long> findPageIds(String cursor, int pageSize) {
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        if (cursor == null || cursor.isBlank()) {
+            return postRepository.findFirstPageIds(limit);
+        }
+        PostCursor after = PostCursor.decode(cursor);
+        return postRepository.findPageIdsAfter(after.getCreatedAt(), after.getId(), limit);
+    }
+
+    /**
+     * Loads the posts with their category and tags in a single query and restores the order of {@code ids}.
+     */
+    private List<Post> findPostsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Post> postsById = postRepository.findAllWithCategoryAndTagsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        return ids.stream()
+                .map(postsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private static Set<Long> tagIdsOf(List<PostTag> postTags) {
+        return postTags.stream()
+                .map(postTag -> postTag.getId().getTagId())
+                .collect(Collectors.toSet());
+    }
+
+    private int resolveSearchLimit(Integer limit) {
+        BlogProperties.Search search = blogProperties.getSearch();
+        if (limit == null || limit <= 0) {
+            return search.getDefaultLimit();
+        }
+        return Math.min(limit, search.getMaxLimit());
+    }
+
+    private int resolvePageSize(Integer size) {
+        BlogProperties.Pagination pagination = blogProperties.getPagination();
+        if (size == null || size <= 0) {
+            return pagination.getDefaultSize();
+        }
+        return Math.min(size, pagination.getMaxSize());
     }
 }
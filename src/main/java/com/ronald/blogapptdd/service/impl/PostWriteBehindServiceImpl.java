@@ -0,0 +1,271 @@
+package com.ronald.blogapptdd.service.impl;
+
+import com.ronald.blogapptdd.cache.ReferenceDataSnapshot;
+import com.ronald.blogapptdd.config.BlogProperties;
+import com.ronald.blogapptdd.dto.request.CreatePostRequest;
+import com.ronald.blogapptdd.entity.Category;
+import com.ronald.blogapptdd.entity.Post;
+import com.ronald.blogapptdd.entity.PostTag;
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.entity.composite.PostTagKey;
+import com.ronald.blogapptdd.event.ChangeType;
+import com.ronald.blogapptdd.event.PostChangedEvent;
+import com.ronald.blogapptdd.exception.CategoryNotFoundException;
+import com.ronald.blogapptdd.repository.PostRepository;
+import com.ronald.blogapptdd.repository.PostTagRepository;
+import com.ronald.blogapptdd.service.PostWriteBehindService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind mode for post creates, enabled with {@code blog.write-behind.enabled}.
+ * <p>
+ * Creates go onto a bounded queue and a single writer thread persists them in batches, one
+ * transaction per batch, so concurrent creates share the transaction and commit cost. The
+ * writer takes whatever is queued, up to the batch size, and waits at most the linger time
+ * for a batch to fill. A create with an unknown category fails on its own; any other error
+ * rolls back and fails the whole batch.
+ * <p>
+ * Durability: a future completes normally only after its batch has committed, so an
+ * acknowledged create is never lost. A create arriving at a full queue is rejected right
+ * away. On shutdown the queue stops taking creates, the writer keeps writing until the queue
+ * is empty or the shutdown timeout has passed, and every create still queued then fails.
+ * Creates that were queued when the process died were never acknowledged.
+ */
+@Service
+@ConditionalOnProperty(prefix = "blog.write-behind", name = "enabled", havingValue = "true")
+public class PostWriteBehindServiceImpl implements PostWriteBehindService, SmartLifecycle {
+
+    static final String QUEUED_METRIC = "blog.write-behind.queued";
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final PostRepository postRepository;
+
+    private final PostTagRepository postTagRepository;
+
+    private final ReferenceDataSnapshot referenceDataSnapshot;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final BlogProperties.WriteBehind settings;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<PendingCreate> queue;
+
+    private volatile boolean accepting;
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    public PostWriteBehindServiceImpl(PostRepository postRepository, PostTagRepository postTagRepository, ReferenceDataSnapshot referenceDataSnapshot, ApplicationEventPublisher eventPublisher, BlogProperties blogProperties, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.postRepository = postRepository;
+        this.postTagRepository = postTagRepository;
+        this.referenceDataSnapshot = referenceDataSnapshot;
+        this.eventPublisher = eventPublisher;
+        this.settings = blogProperties.getWriteBehind();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(settings.getQueueCapacity());
+        Gauge.builder(QUEUED_METRIC, queue, BlockingQueue::size)
+                .description("Post creates waiting for the writer")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CompletableFuture<Post> createPost(CreatePostRequest request) {
+        PendingCreate pending = new PendingCreate(request);
+        if (!accepting) {
+            pending.future.completeExceptionally(new RejectedExecutionException("The post writer is not running"));
+            return pending.future;
+        }
+        if (!queue.offer(pending)) {
+            pending.future.completeExceptionally(new RejectedExecutionException("The post write-behind queue is full"));
+            return pending.future;
+        }
+        // a create queued while shutdown drained the queue would otherwise never complete
+        if (!accepting && queue.remove(pending)) {
+            pending.future.completeExceptionally(new RejectedExecutionException("The post writer is not running"));
+        }
+        return pending.future;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        accepting = true;
+        writer = new Thread(this::drain, "post-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        accepting = false;
+        running = false;
+        try {
+            writer.join(settings.getShutdownTimeout().toMillis());
+            if (writer.isAlive()) {
+                writer.interrupt();
+                writer.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<PendingCreate> unwritten = new ArrayList<>();
+        queue.drainTo(unwritten);
+        fail(unwritten, new RejectedExecutionException("Shut down before the post was written"));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops after the web server, which has stopped taking requests by then.
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private void drain() {
+        List<PendingCreate> batch = new ArrayList<>(settings.getBatchSize());
+        try {
+            while (running || !queue.isEmpty()) {
+                PendingCreate first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch);
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            fail(batch, new RejectedExecutionException("Shut down before the post was written"));
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void fillBatch(List<PendingCreate> batch) throws InterruptedException {
+        int batchSize = settings.getBatchSize();
+        long deadline = System.nanoTime() + settings.getLinger().toNanos();
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            // no lingering while shutting down, there is nothing left to wait for
+            if (batch.size() == batchSize || remaining <= 0 || !running) {
+                return;
+            }
+            PendingCreate next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void write(List<PendingCreate> batch) {
+        List<PendingCreate> written;
+        try {
+            written = transactionTemplate.execute(status -> persist(batch));
+        } catch (RuntimeException e) {
+            fail(batch, e);
+            return;
+        }
+        written.forEach(pending -> pending.future.complete(pending.post));
+    }
+
+    private List<PendingCreate> persist(List<PendingCreate> batch) {
+        List<PendingCreate> accepted = new ArrayList<>(batch.size());
+        List<Post> posts = new ArrayList<>(batch.size());
+        for (PendingCreate pending : batch) {
+            Long categoryId = pending.request.getCategoryId();
+            Optional<Category> category = categoryId == null ? Optional.empty() : referenceDataSnapshot.findCategory(categoryId);
+            if (category.isEmpty()) {
+                pending.future.completeExceptionally(new CategoryNotFoundException("Category not found"));
+                continue;
+            }
+            pending.post = Post.builder()
+                    .title(pending.request.getTitle())
+                    .content(pending.request.getContent())
+                    .category(category.get())
+                    .build();
+            accepted.add(pending);
+            posts.add(pending.post);
+        }
+        postRepository.saveAll(posts);
+
+        List<PostTag> postTags = new ArrayList<>();
+        for (PendingCreate pending : accepted) {
+            Post post = pending.post;
+            List<PostTag> tagsOfPost = new ArrayList<>();
+            if (pending.request.getTagIds() != null && !pending.request.getTagIds().isEmpty()) {
+                for (Tag tag : referenceDataSnapshot.findTags(pending.request.getTagIds())) {
+                    tagsOfPost.add(PostTag.builder()
+                            .id(new PostTagKey(post.getId(), tag.getId()))
+                            .post(post)
+                            .tag(tag)
+                            .build());
+                }
+            }
+            post.setPostTags(tagsOfPost);
+            postTags.addAll(tagsOfPost);
+
+            Set<Long> tagIds = new LinkedHashSet<>();
+            tagsOfPost.forEach(postTag -> tagIds.add(postTag.getId().getTagId()));
+            eventPublisher.publishEvent(PostChangedEvent.builder()
+                    .type(ChangeType.CREATED)
+                    .postId(post.getId())
+                    .title(post.getTitle())
+                    .content(post.getContent())
+                    .categoryId(post.getCategory().getId())
+                    .tagIds(tagIds)
+                    .build());
+        }
+        // inserted as JDBC batches, see hibernate.jdbc.batch_size
+        postTagRepository.saveAll(postTags);
+        return accepted;
+    }
+
+    private static void fail(List<PendingCreate> pendingCreates, Throwable cause) {
+        // creates already rejected on their own keep their own error
+        pendingCreates.forEach(pending -> pending.future.completeExceptionally(cause));
+    }
+
+    private static final class PendingCreate {
+        private final CreatePostRequest request;
+        private final CompletableFuture<Post> future = new CompletableFuture<>();
+        private Post post;
+
+        PendingCreate(CreatePostRequest request) {
+            this.request = request;
+        }
+    }
+}
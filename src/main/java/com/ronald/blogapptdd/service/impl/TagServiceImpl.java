@@ -1,12 +1,16 @@
 package com.ronald.blogapptdd.service.impl;
 
+import com.ronald.blogapptdd.cache.ReferenceDataSnapshot;
 import com.ronald.blogapptdd.dto.request.CreateTagRequest;
 import com.ronald.blogapptdd.dto.request.UpdateTagRequest;
 import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.event.ChangeType;
+import com.ronald.blogapptdd.event.TagChangedEvent;
 import com.ronald.blogapptdd.exception.TagNotFoundException;
 import com.ronald.blogapptdd.repository.TagRepository;
 import com.ronald.blogapptdd.service.TagService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -16,9 +20,15 @@ public class TagServiceImpl implements TagService {
 
     private final TagRepository tagRepository;
 
+    private final ReferenceDataSnapshot referenceDataSnapshot;
+
+    private final ApplicationEventPublisher eventPublisher;
+
     @Autowired
-    public TagServiceImpl(TagRepository tagRepository) {
+    public TagServiceImpl(TagRepository tagRepository, ReferenceDataSnapshot referenceDataSnapshot, ApplicationEventPublisher eventPublisher) {
         this.tagRepository = tagRepository;
+        this.referenceDataSnapshot = referenceDataSnapshot;
+        this.eventPublisher = eventPublisher;
     }
 
 
@@ -28,17 +38,19 @@ public class TagServiceImpl implements TagService {
                 .name(request.getName())
                 .description(request.getDescription())
                 .build();
-        return tagRepository.save(tag);
+        Tag savedTag = tagRepository.save(tag);
+        eventPublisher.publishEvent(new TagChangedEvent(ChangeType.CREATED, tag.getId()));
+        return savedTag;
     }
 
     @Override
     public List<Tag> getAllTags() {
-        return tagRepository.findAll();
+        return referenceDataSnapshot.getTags();
     }
 
     @Override
     public Tag getTagDetail(Long tagId) {
-        Tag tag = tagRepository.findById(tagId)
+        Tag tag = referenceDataSnapshot.findTag(tagId)
                 .orElseThrow(() -> new TagNotFoundException("Tag not found with id: " + tagId));
         return tag;
     }
@@ -50,15 +62,18 @@ public class TagServiceImpl implements TagService {
 
         Tag updatedTag = compareAndUpdate(tag, updateTagRequest);
 
-        return tagRepository.save(updatedTag);
+        Tag savedTag = tagRepository.save(updatedTag);
+        eventPublisher.publishEvent(new TagChangedEvent(ChangeType.UPDATED, tagId));
+        return savedTag;
     }
 
     @Override
     public void deleteTag(Long tagId) {
-        tagRepository.findById(tagId)
-                .orElseThrow(() -> new TagNotFoundException("Tag not found with id: " + tagId));
-
-        tagRepository.deleteById(tagId);
+        // the tag's post_tag rows go with it through the cascading foreign key
+        if (tagRepository.deleteDirectlyById(tagId) == 0) {
+            throw new TagNotFoundException("Tag not found with id: " + tagId);
+        }
+        eventPublisher.publishEvent(new TagChangedEvent(ChangeType.DELETED, tagId));
     }
 
     private Tag compareAndUpdate(Tag tag, UpdateTagRequest updateTagRequest) {
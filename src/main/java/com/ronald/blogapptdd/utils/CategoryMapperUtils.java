@@ -0,0 +1,28 @@
+package com.ronald.blogapptdd.utils;
+
+import com.ronald.blogapptdd.dto.response.CategoryResponseDTO;
+import com.ronald.blogapptdd.entity.Category;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class CategoryMapperUtils {
+
+    public static CategoryResponseDTO mapCategoryToCategoryResponseDTO(Category category, long postCount) {
+        return CategoryResponseDTO.builder()
+                .id(category.getId())
+                .name(category.getName())
+                .description(category.getDescription())
+                .createdAt(category.getCreatedAt())
+                .postCount(postCount)
+                .build();
+    }
+
+    public static List<CategoryResponseDTO> mapCategoriesToCategoryResponseDTOs(List<Category> categories, Map<Long, Long> postCounts) {
+        List<CategoryResponseDTO> categoryResponseDTOS = new ArrayList<>();
+        categories.forEach(category -> categoryResponseDTOS.add(
+                mapCategoryToCategoryResponseDTO(category, postCounts.getOrDefault(category.getId(), 0L))));
+        return categoryResponseDTOS;
+    }
+}
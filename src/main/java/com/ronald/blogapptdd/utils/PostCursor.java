@@ -0,0 +1,47 @@
+package com.ronald.blogapptdd.utils;
+
+import com.ronald.blogapptdd.exception.InvalidCursorException;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+
+/**
+ * Position of the last post of a page in the {@code (created_at, id)} ordering,
+ * serialized as an opaque URL-safe token.
+ */
+@Getter
+@EqualsAndHashCode
+public class PostCursor {
+
+    private final Timestamp createdAt;
+    private final Long id;
+
+    public PostCursor(Timestamp createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static String encode(Timestamp createdAt, Long id) {
+        String raw = createdAt.getTime() + ":" + createdAt.getNanos() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PostCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 3) {
+                throw new InvalidCursorException("Invalid cursor: " + cursor);
+            }
+            Timestamp createdAt = new Timestamp(Long.parseLong(parts[0]));
+            createdAt.setNanos(Integer.parseInt(parts[1]));
+            return new PostCursor(createdAt, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
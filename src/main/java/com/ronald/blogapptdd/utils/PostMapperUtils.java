@@ -22,6 +22,20 @@ public class PostMapperUtils {
                 .build();
     }
 
+    /**
+     * Maps a post whose tags were loaded separately, without touching {@code post.getPostTags()}.
+     */
+    public static PostResponseDTO mapPostToPostResponseDTO(Post post, List<Tag> tags) {
+        return PostResponseDTO.builder()
+                .id(post.getId())
+                .title(post.getTitle())
+                .content(post.getContent())
+                .category(post.getCategory())
+                .createdAt(post.getCreatedAt())
+                .tags(tags)
+                .build();
+    }
+
     public static List<PostResponseDTO> mapPostsToPostResponseDTOs(List<Post> posts) {
         List<PostResponseDTO> postResponseDTOS = new ArrayList<>();
         posts.forEach(post -> postResponseDTOS.add(mapPostToPostResponseDTO(post)));
@@ -0,0 +1,28 @@
+package com.ronald.blogapptdd.utils;
+
+import com.ronald.blogapptdd.dto.response.TagResponseDTO;
+import com.ronald.blogapptdd.entity.Tag;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class TagMapperUtils {
+
+    public static TagResponseDTO mapTagToTagResponseDTO(Tag tag, long postCount) {
+        return TagResponseDTO.builder()
+                .id(tag.getId())
+                .name(tag.getName())
+                .description(tag.getDescription())
+                .createdAt(tag.getCreatedAt())
+                .postCount(postCount)
+                .build();
+    }
+
+    public static List<TagResponseDTO> mapTagsToTagResponseDTOs(List<Tag> tags, Map<Long, Long> postCounts) {
+        List<TagResponseDTO> tagResponseDTOS = new ArrayList<>();
+        tags.forEach(tag -> tagResponseDTOS.add(
+                mapTagToTagResponseDTO(tag, postCounts.getOrDefault(tag.getId(), 0L))));
+        return tagResponseDTOS;
+    }
+}
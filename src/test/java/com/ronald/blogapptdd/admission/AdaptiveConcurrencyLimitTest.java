@@ -0,0 +1,107 @@
+package com.ronald.blogapptdd.admission;
+
+import com.ronald.blogapptdd.config.BlogProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+
+    private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+    private final AdaptiveConcurrencyLimit underTest =
+            new AdaptiveConcurrencyLimit(new BlogProperties.LimitSpec(10, 2, 12, Duration.ofMillis(100)));
+
+    @Test
+    void rejectsOnceTheLimitIsInFlight() {
+        // given
+        acquire(10);
+
+        // when
+        // then
+        assertThat(underTest.tryAcquire()).isFalse();
+        assertThat(underTest.getInFlight()).isEqualTo(10);
+    }
+
+    @Test
+    void growsSlowlyOnFastRequestsWhileBusy() {
+        // when
+        for (int round = 0; round < 3; round++) {
+            acquire(10);
+            releaseAll(10, FAST, false);
+        }
+
+        // then
+        assertThat(underTest.getLimit()).isEqualTo(11);
+    }
+
+    @Test
+    void doesNotGrowWhileMostlyIdle() {
+        // when
+        for (int i = 0; i < 100; i++) {
+            acquire(1);
+            underTest.release(FAST, false);
+        }
+
+        // then
+        assertThat(underTest.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void shrinksOnSlowRequestsDownToTheMinimum() {
+        // given
+        acquire(1);
+
+        // when
+        underTest.release(SLOW, false);
+
+        // then
+        assertThat(underTest.getLimit()).isEqualTo(9);
+        for (int i = 0; i < 50; i++) {
+            acquire(1);
+            underTest.release(SLOW, false);
+        }
+        assertThat(underTest.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void shrinksOnFastRequestsWhileReadsAreSlow() {
+        // given
+        acquire(1);
+
+        // when
+        underTest.release(FAST, true);
+
+        // then
+        assertThat(underTest.getLimit()).isEqualTo(9);
+    }
+
+    @Test
+    void neverGrowsPastTheMaximum() {
+        // when
+        for (int round = 0; round < 100; round++) {
+            int limit = underTest.getLimit();
+            acquire(limit);
+            releaseAll(limit, FAST, false);
+        }
+
+        // then
+        assertThat(underTest.getLimit()).isEqualTo(12);
+    }
+
+    private void acquire(int requests) {
+        for (int i = 0; i < requests; i++) {
+            assertThat(underTest.tryAcquire()).isTrue();
+        }
+    }
+
+    private void releaseAll(int requests, long latencyNanos, boolean readsSlow) {
+        for (int i = 0; i < requests; i++) {
+            underTest.release(latencyNanos, readsSlow);
+        }
+    }
+}
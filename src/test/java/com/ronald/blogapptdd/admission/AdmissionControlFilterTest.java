@@ -0,0 +1,89 @@
+package com.ronald.blogapptdd.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ronald.blogapptdd.dto.request.CreateTagRequest;
+import com.ronald.blogapptdd.repository.TagRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "blog.admission.write.initial-limit=1",
+        "blog.admission.write.min-limit=1",
+        "blog.admission.write.max-limit=1"
+})
+@AutoConfigureMockMvc
+class AdmissionControlFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @AfterEach
+    void tearDown() {
+        tagRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void shedsWritesOverTheLimitButStillServesReads() throws Exception {
+        // given
+        // the first create holds the only write place until it is dispatched
+        MvcResult holding = start(createTag("admission-1"));
+
+        // when
+        // then
+        mockMvc.perform(createTag("admission-2"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        mockMvc.perform(asyncDispatch(start(get("/api/v1/tag/"))))
+                .andExpect(status().isOk());
+        assertThat(meterRegistry.get(AdmissionControlFilter.REJECTED_METRIC).tag("group", "write").counter().count())
+                .isEqualTo(1);
+
+        mockMvc.perform(asyncDispatch(holding))
+                .andExpect(status().isOk());
+        mockMvc.perform(asyncDispatch(start(createTag("admission-3"))))
+                .andExpect(status().isOk());
+        assertThat(meterRegistry.get(AdmissionControlFilter.IN_FLIGHT_METRIC).tag("group", "write").gauge().value())
+                .isZero();
+    }
+
+    private RequestBuilder createTag(String name) throws Exception {
+        return post("/api/v1/tag/")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(CreateTagRequest.builder()
+                        .name(name)
+                        .description("Admitted tag")
+                        .build()));
+    }
+
+    private MvcResult start(RequestBuilder requestBuilder) throws Exception {
+        return mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+}
@@ -0,0 +1,51 @@
+package com.ronald.blogapptdd.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadLatencyAverageTest {
+
+    private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+    private static final long WINDOW = Duration.ofSeconds(5).toNanos();
+
+    private final ReadLatencyAverage underTest = new ReadLatencyAverage(Duration.ofNanos(WINDOW));
+
+    @Test
+    void movesAnEighthOfTheWayToEachRead() {
+        // when
+        underTest.record(SLOW, 100);
+
+        // then
+        assertThat(underTest.get(100)).isEqualTo(SLOW / 8);
+    }
+
+    @Test
+    void holdsWhileReadsKeepFinishing() {
+        // given
+        underTest.record(SLOW, 100);
+
+        // when
+        underTest.record(SLOW, 100 + WINDOW);
+
+        // then
+        assertThat(underTest.get(100 + 2 * WINDOW)).isEqualTo(SLOW / 8 + (SLOW - SLOW / 8) / 8);
+    }
+
+    @Test
+    void countsAsZeroOnceNoReadFinishedWithinTheWindow() {
+        // given
+        underTest.record(SLOW, 100);
+
+        // when
+        long stale = underTest.get(100 + WINDOW + 1);
+
+        // then
+        assertThat(stale).isZero();
+        underTest.record(SLOW, 200 + WINDOW);
+        assertThat(underTest.get(200 + WINDOW)).isPositive();
+    }
+}
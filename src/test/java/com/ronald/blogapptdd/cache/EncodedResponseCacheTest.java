@@ -0,0 +1,152 @@
+package com.ronald.blogapptdd.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ronald.blogapptdd.config.BlogProperties;
+import com.ronald.blogapptdd.event.ChangeType;
+import com.ronald.blogapptdd.event.PostChangedEvent;
+import com.ronald.blogapptdd.event.TagChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EncodedResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final ChangeGenerations generations = new ChangeGenerations();
+
+    private EncodedResponseCache underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new EncodedResponseCache(new BlogProperties(), objectMapper, generations);
+    }
+
+    @Test
+    void encodesOnceWhileTheETagMatches() throws IOException {
+        // when
+        EncodedResponse first = underTest.get(EncodedResponseCache.TAG_LIST, "\"tags.1\"", loader(List.of("Java"))).join();
+        EncodedResponse second = underTest.get(EncodedResponseCache.TAG_LIST, "\"tags.1\"", loader(List.of("Java"))).join();
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(second.toResponseEntity(null).getBody()).isEqualTo(objectMapper.writeValueAsBytes(List.of("Java")));
+    }
+
+    @Test
+    void reencodesWhenTheETagChanges() {
+        // given
+        underTest.get(EncodedResponseCache.TAG_LIST, "\"tags.1\"", loader(List.of("Java"))).join();
+
+        // when
+        EncodedResponse changed = underTest.get(EncodedResponseCache.TAG_LIST, "\"tags.2\"", loader(List.of("Java", "Spring"))).join();
+
+        // then
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(new String(changed.toResponseEntity(null).getBody())).isEqualTo("[\"Java\",\"Spring\"]");
+    }
+
+    @Test
+    void requestsWithoutETagAreNotCached() {
+        // when
+        underTest.get(EncodedResponseCache.CATEGORY_LIST, null, loader(List.of())).join();
+        underTest.get(EncodedResponseCache.CATEGORY_LIST, null, loader(List.of())).join();
+
+        // then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void postChangeDropsOnlyThatPost() {
+        // given
+        underTest.get(EncodedResponseCache.postKey(1L), "\"post-1.0\"", loader(Map.of("id", 1))).join();
+        underTest.get(EncodedResponseCache.postKey(2L), "\"post-2.0\"", loader(Map.of("id", 2))).join();
+        underTest.get(EncodedResponseCache.TAG_LIST, "\"tags.1\"", loader(List.of())).join();
+
+        // when
+        underTest.onPostChanged(PostChangedEvent.builder().type(ChangeType.UPDATED).postId(1L).build());
+        underTest.get(EncodedResponseCache.postKey(1L), "\"post-1.0\"", loader(Map.of("id", 1))).join();
+        underTest.get(EncodedResponseCache.postKey(2L), "\"post-2.0\"", loader(Map.of("id", 2))).join();
+        underTest.get(EncodedResponseCache.TAG_LIST, "\"tags.1\"", loader(List.of())).join();
+
+        // then
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    void tagChangeDropsEveryPost() {
+        // given
+        underTest.get(EncodedResponseCache.postKey(1L), "\"post-1.0\"", loader(Map.of("id", 1))).join();
+
+        // when
+        underTest.onTagChanged(new TagChangedEvent(ChangeType.UPDATED, 3L));
+        underTest.get(EncodedResponseCache.postKey(1L), "\"post-1.0\"", loader(Map.of("id", 1))).join();
+
+        // then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void nothingIsStoredWithinTheReplicationLagOfAChange() {
+        // given
+        BlogProperties blogProperties = new BlogProperties();
+        blogProperties.getReadReplica().setEnabled(true);
+        blogProperties.getReadReplica().setReplicationLag(Duration.ofHours(1));
+        underTest = new EncodedResponseCache(blogProperties, objectMapper, generations);
+        generations.onPostChanged(PostChangedEvent.builder().type(ChangeType.UPDATED).postId(1L).build());
+
+        // when
+        underTest.get(EncodedResponseCache.postKey(1L), "\"post-1.1\"", loader(Map.of("id", 1))).join();
+        underTest.get(EncodedResponseCache.postKey(1L), "\"post-1.1\"", loader(Map.of("id", 1))).join();
+
+        // then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void largeBodiesAreServedCompressedToClientsTakingGzip() throws IOException {
+        // given
+        String content = "Spring Boot ne ".repeat(200);
+        EncodedResponse encoded = underTest.get(EncodedResponseCache.postKey(1L), "\"post-1.0\"",
+                loader(Map.of("content", content))).join();
+
+        // when
+        ResponseEntity<byte[]> compressed = encoded.toResponseEntity("deflate, gzip;q=0.8");
+        ResponseEntity<byte[]> plain = encoded.toResponseEntity("gzip;q=0");
+
+        // then
+        assertThat(compressed.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(compressed.getBody().length).isLessThan(plain.getBody().length);
+        assertThat(gunzip(compressed.getBody())).isEqualTo(plain.getBody());
+        assertThat(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+    }
+
+    private Supplier<CompletableFuture<Object>> loader(Object body) {
+        return () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(body);
+        };
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return gzip.readAllBytes();
+        }
+    }
+}
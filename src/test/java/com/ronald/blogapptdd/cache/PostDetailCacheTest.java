@@ -0,0 +1,114 @@
+package com.ronald.blogapptdd.cache;
+
+import com.ronald.blogapptdd.config.BlogProperties;
+import com.ronald.blogapptdd.dto.response.CacheStatsResponseDTO;
+import com.ronald.blogapptdd.dto.response.PostResponseDTO;
+import com.ronald.blogapptdd.entity.Category;
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.event.ChangeType;
+import com.ronald.blogapptdd.event.PostChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostDetailCacheTest {
+
+    private PostDetailCache underTest;
+
+    private Map<Long, PostResponseDTO> database;
+
+    private int loads;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new PostDetailCache(new BlogProperties());
+        database = new HashMap<>();
+        loads = 0;
+
+        Category java = Category.builder().id(1L).name("Java").build();
+        Category python = Category.builder().id(2L).name("Python").build();
+        Tag spring = Tag.builder().id(10L).name("Spring").build();
+        Tag django = Tag.builder().id(20L).name("Django").build();
+
+        database.put(1L, PostResponseDTO.builder().id(1L).category(java).tags(List.of(spring)).build());
+        database.put(2L, PostResponseDTO.builder().id(2L).category(java).tags(List.of()).build());
+        database.put(3L, PostResponseDTO.builder().id(3L).category(python).tags(List.of(django)).build());
+    }
+
+    @Test
+    void secondReadIsAHit() {
+        // when
+        load(1L);
+        load(1L);
+
+        // then
+        CacheStatsResponseDTO stats = underTest.stats();
+        assertThat(loads).isEqualTo(1);
+        assertThat(stats.getHitCount()).isEqualTo(1);
+        assertThat(stats.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void postChangeEvictsOnlyThatPost() {
+        // given
+        load(1L);
+        load(2L);
+
+        // when
+        underTest.onPostChanged(PostChangedEvent.builder()
+                .type(ChangeType.UPDATED)
+                .postId(1L)
+                .build());
+        load(1L);
+        load(2L);
+
+        // then
+        assertThat(loads).isEqualTo(3);
+    }
+
+    @Test
+    void tagChangeEvictsPostsEmbeddingTheTag() {
+        // given
+        load(1L);
+        load(2L);
+        load(3L);
+
+        // when
+        underTest.evictByTag(10L);
+        load(1L);
+        load(2L);
+        load(3L);
+
+        // then
+        assertThat(loads).isEqualTo(4);
+    }
+
+    @Test
+    void categoryChangeEvictsPostsInTheCategory() {
+        // given
+        load(1L);
+        load(2L);
+        load(3L);
+
+        // when
+        underTest.evictByCategory(1L);
+        load(1L);
+        load(2L);
+        load(3L);
+
+        // then
+        assertThat(loads).isEqualTo(5);
+    }
+
+    private PostResponseDTO load(Long postId) {
+        return underTest.get(postId, id -> {
+            loads++;
+            return database.get(id);
+        });
+    }
+}
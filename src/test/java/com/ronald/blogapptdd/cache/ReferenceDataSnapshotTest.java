@@ -0,0 +1,163 @@
+package com.ronald.blogapptdd.cache;
+
+import com.ronald.blogapptdd.entity.Category;
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.event.CategoryChangedEvent;
+import com.ronald.blogapptdd.event.ChangeType;
+import com.ronald.blogapptdd.event.TagChangedEvent;
+import com.ronald.blogapptdd.repository.CategoryRepository;
+import com.ronald.blogapptdd.repository.TagRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.persistence.Column;
+import java.lang.reflect.Field;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ReferenceDataSnapshotTest {
+
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+
+    private final TagRepository tagRepository = mock(TagRepository.class);
+
+    private ReferenceDataSnapshot underTest;
+
+    private Tag spring;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new ReferenceDataSnapshot(categoryRepository, tagRepository);
+
+        spring = Tag.builder().id(1L).name("Spring").version(0L).build();
+        given(tagRepository.findAll()).willReturn(List.of(
+                Tag.builder().id(2L).name("JPA").version(0L).build(),
+                spring));
+        given(categoryRepository.findAll()).willReturn(List.of(
+                Category.builder().id(1L).name("Java").version(0L).build(),
+                Category.builder().id(2L).name("Python").version(0L).build()));
+    }
+
+    @Test
+    void readsAreServedFromOneLoad() {
+        // when
+        List<Tag> tags = underTest.getTags();
+        Optional<Tag> byId = underTest.findTag(1L);
+        Optional<Tag> byName = underTest.findTagByName("JPA");
+
+        // then
+        assertThat(tags).extracting(Tag::getId).containsExactly(1L, 2L);
+        assertThat(byId.get().getName()).isEqualTo("Spring");
+        assertThat(byName.get().getId()).isEqualTo(2L);
+        verify(tagRepository, times(1)).findAll();
+        verify(tagRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void handsOutCopiesOfTheLoadedEntities() {
+        // when
+        Tag tag = underTest.findTag(1L).get();
+
+        // then
+        assertThat(tag).isNotSameAs(spring);
+        assertThat(tag.getVersion()).isEqualTo(0L);
+    }
+
+    @Test
+    void copiesEveryColumn() {
+        // given
+        Timestamp createdAt = Timestamp.valueOf("2024-01-01 10:00:00");
+        Timestamp updatedAt = Timestamp.valueOf("2024-02-01 10:00:00");
+        Category kotlin = Category.builder().id(3L).name("Kotlin").description("Kotlin ne")
+                .createdAt(createdAt).updatedAt(updatedAt).version(4L).build();
+        Tag ktor = Tag.builder().id(3L).name("Ktor").description("Ktor ne")
+                .createdAt(createdAt).updatedAt(updatedAt).version(2L).build();
+        given(categoryRepository.findAll()).willReturn(List.of(kotlin));
+        given(tagRepository.findAll()).willReturn(List.of(ktor));
+
+        // when
+        Category category = underTest.findCategory(3L).get();
+        Tag tag = underTest.findTag(3L).get();
+
+        // then
+        assertColumnsCopied(kotlin, category);
+        assertColumnsCopied(ktor, tag);
+    }
+
+    @Test
+    void unknownIdsAreLookedUpInTheDatabase() {
+        // given
+        Tag external = Tag.builder().id(99L).name("Written elsewhere").build();
+        given(tagRepository.findByIdIn(List.of(99L))).willReturn(List.of(external));
+
+        // when
+        List<Tag> tags = underTest.findTags(List.of(2L, 99L, 2L));
+
+        // then
+        assertThat(tags).extracting(Tag::getId).containsExactly(2L, 99L);
+        verify(tagRepository).findByIdIn(List.of(99L));
+    }
+
+    @Test
+    void updateSwapsInTheReloadedRow() {
+        // given
+        List<Tag> before = underTest.getTags();
+        given(tagRepository.findById(1L)).willReturn(Optional.of(
+                Tag.builder().id(1L).name("Spring Boot").version(1L).build()));
+
+        // when
+        underTest.onTagChanged(new TagChangedEvent(ChangeType.UPDATED, 1L));
+
+        // then
+        assertThat(underTest.findTagByName("Spring")).isEmpty();
+        assertThat(underTest.findTagByName("Spring Boot").get().getVersion()).isEqualTo(1L);
+        assertThat(underTest.getTags()).extracting(Tag::getName).containsExactly("Spring Boot", "JPA");
+        // readers holding the old snapshot keep a consistent view
+        assertThat(before).extracting(Tag::getName).containsExactly("Spring", "JPA");
+    }
+
+    @Test
+    void deleteDropsTheRowWithoutQuerying() {
+        // given
+        underTest.getCategories();
+
+        // when
+        underTest.onCategoryChanged(new CategoryChangedEvent(ChangeType.DELETED, 2L));
+
+        // then
+        assertThat(underTest.getCategories()).extracting(Category::getId).containsExactly(1L);
+        assertThat(underTest.findCategoryByName("Python")).isEmpty();
+        verify(categoryRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void changesBeforeTheFirstLoadAreLeftToIt() {
+        // when
+        underTest.onTagChanged(new TagChangedEvent(ChangeType.CREATED, 3L));
+
+        // then
+        verify(tagRepository, never()).findById(anyLong());
+        verify(tagRepository, never()).findAll();
+    }
+
+    private static void assertColumnsCopied(Object loaded, Object copy) {
+        for (Field field : loaded.getClass().getDeclaredFields()) {
+            if (field.isAnnotationPresent(Column.class)) {
+                Object value = ReflectionTestUtils.getField(loaded, field.getName());
+                // a column the test leaves empty would pass whether it is copied or not
+                assertThat(value).as(field.getName()).isNotNull();
+                assertThat(ReflectionTestUtils.getField(copy, field.getName())).as(field.getName()).isEqualTo(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.ronald.blogapptdd.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExecutorConfigTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private ThreadPoolTaskExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = ExecutorConfig.boundedExecutor("test", new BlogProperties.ExecutorSpec(1, 1), meterRegistry);
+        executor.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void rejectsAndCountsTasksOnceThreadAndQueueAreFull() throws InterruptedException {
+        // given
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitRelease();
+        });
+        started.await();
+        executor.execute(this::awaitRelease);
+
+        // when
+        // then
+        assertThatThrownBy(() -> executor.execute(this::awaitRelease))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(meterRegistry.counter(ExecutorConfig.REJECTED_METRIC, "name", "test").count()).isEqualTo(1.0);
+        assertThat(executor.getThreadPoolExecutor().getQueue()).hasSize(1);
+    }
+
+    @Test
+    void namesThreadsAfterTheWorkload() throws InterruptedException {
+        // given
+        String[] threadName = new String[1];
+        CountDownLatch done = new CountDownLatch(1);
+
+        // when
+        executor.execute(() -> {
+            threadName[0] = Thread.currentThread().getName();
+            done.countDown();
+        });
+        done.await();
+
+        // then
+        assertThat(threadName[0]).startsWith("test-");
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
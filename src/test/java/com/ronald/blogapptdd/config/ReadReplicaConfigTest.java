@@ -0,0 +1,166 @@
+package com.ronald.blogapptdd.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ronald.blogapptdd.dto.request.CreatePostRequest;
+import com.ronald.blogapptdd.dto.request.CreateTagRequest;
+import com.ronald.blogapptdd.dto.response.PostResponseDTO;
+import com.ronald.blogapptdd.entity.Category;
+import com.ronald.blogapptdd.repository.CategoryRepository;
+import com.ronald.blogapptdd.repository.PostRepository;
+import com.ronald.blogapptdd.repository.PostTagRepository;
+import com.ronald.blogapptdd.repository.TagRepository;
+import com.ronald.blogapptdd.service.PostService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "blog.read-replica.enabled=true",
+        "blog.read-replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+        "blog.read-replica.username=sa",
+        "blog.read-replica.password=password",
+        "blog.read-replica.replication-lag=" + ReadReplicaConfigTest.REPLICATION_LAG_MILLIS + "ms"})
+@AutoConfigureMockMvc
+class ReadReplicaConfigTest {
+
+    static final long REPLICATION_LAG_MILLIS = 1_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostTagRepository postTagRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    @Qualifier(ReadReplicaConfig.PRIMARY_DATA_SOURCE)
+    private DataSource primary;
+
+    @Autowired
+    @Qualifier(ReadReplicaConfig.REPLICA_DATA_SOURCE)
+    private DataSource replica;
+
+    @BeforeEach
+    void setUp() {
+        replicate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        postTagRepository.deleteAllInBatch();
+        postRepository.deleteAllInBatch();
+        tagRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void readsOfTheWriterFollowTheWriteUntilTheReplicationLagHasPassed() throws InterruptedException {
+        // given
+        Category category = categoryRepository.save(Category.builder()
+                .name("Java")
+                .description("Java ne")
+                .build());
+        postService.createPost(CreatePostRequest.builder()
+                .title("Spring Boot")
+                .content("Spring Boot ne")
+                .categoryId(category.getId())
+                .tagIds(List.of())
+                .build());
+
+        LastWrite writer = new LastWrite(System.currentTimeMillis());
+
+        // when
+        List<PostResponseDTO> writerJustAfterTheWrite = readAs(writer);
+        List<PostResponseDTO> othersJustAfterTheWrite = readAs(null);
+        Thread.sleep(REPLICATION_LAG_MILLIS + 200);
+        List<PostResponseDTO> beforeReplication = readAs(writer);
+        replicate();
+        List<PostResponseDTO> afterReplication = readAs(writer);
+
+        // then
+        assertThat(writerJustAfterTheWrite).extracting(PostResponseDTO::getTitle).contains("Spring Boot");
+        assertThat(othersJustAfterTheWrite).extracting(PostResponseDTO::getTitle).doesNotContain("Spring Boot");
+        assertThat(beforeReplication).extracting(PostResponseDTO::getTitle).doesNotContain("Spring Boot");
+        assertThat(afterReplication).extracting(PostResponseDTO::getTitle).contains("Spring Boot");
+    }
+
+    @Test
+    void writesAreAnsweredWithTheLastWriteCookie() throws Exception {
+        // given
+        MvcResult created = mockMvc.perform(post("/api/v1/tag/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(CreateTagRequest.builder()
+                                .name("Replicated")
+                                .description("Replicated tag")
+                                .build())))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // when
+        // then
+        mockMvc.perform(asyncDispatch(created))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists(ReadYourWritesFilter.COOKIE))
+                .andExpect(cookie().maxAge(ReadYourWritesFilter.COOKIE, 1));
+        MvcResult listed = mockMvc.perform(get("/api/v1/tag/"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(listed))
+                .andExpect(status().isOk())
+                .andExpect(cookie().doesNotExist(ReadYourWritesFilter.COOKIE));
+    }
+
+    private List<PostResponseDTO> readAs(LastWrite lastWrite) {
+        LastWrite previous = LastWrite.bind(lastWrite);
+        try {
+            return postService.getAllPosts();
+        } finally {
+            LastWrite.bind(previous);
+        }
+    }
+
+    /**
+     * Stands in for replication: replaces the replica database with a copy of the primary.
+     */
+    private void replicate() {
+        List<String> script = new JdbcTemplate(primary).queryForList("SCRIPT", String.class);
+        JdbcTemplate replicaTemplate = new JdbcTemplate(replica);
+        replicaTemplate.execute("DROP ALL OBJECTS");
+        script.stream()
+                .filter(statement -> !statement.startsWith("--"))
+                .forEach(replicaTemplate::execute);
+    }
+}
@@ -6,6 +6,8 @@ import com.ronald.blogapptdd.dto.request.UpdateCategoryRequest;
 import com.ronald.blogapptdd.entity.Category;
 import com.ronald.blogapptdd.exception.CategoryNotFoundException;
 import com.ronald.blogapptdd.service.CategoryService;
+import com.ronald.blogapptdd.service.ETagService;
+import com.ronald.blogapptdd.service.PostCountService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,14 +16,20 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -37,6 +45,12 @@ class CategoryControllerTest {
     @MockBean
     private CategoryService categoryService;
 
+    @MockBean
+    private PostCountService postCountService;
+
+    @MockBean
+    private ETagService eTagService;
+
     @AfterEach
     void tearDown() {
     }
@@ -56,7 +70,7 @@ class CategoryControllerTest {
 
         // when
         // then
-        mockMvc.perform(post("/api/v1/category/")
+        performAsync(post("/api/v1/category/")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
@@ -73,13 +87,47 @@ class CategoryControllerTest {
                 .id(1L)
                 .build();
         given(categoryService.findCategoryById(1L)).willReturn(category);
+        given(postCountService.getCategoryPostCounts(List.of(1L))).willReturn(Map.of(1L, 12L));
 
         //when
         //then
-        mockMvc.perform(get("/api/v1/category/1"))
+        performAsync(get("/api/v1/category/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name").value("Java"))
-                .andExpect(jsonPath("$.description").value("Java ne"));
+                .andExpect(jsonPath("$.description").value("Java ne"))
+                .andExpect(jsonPath("$.postCount").value(12));
+    }
+
+    @Test
+    void getCategoryDetailWithMatchingETagReturnsNotModified() throws Exception {
+        //given
+        given(eTagService.getCategoryETag(1L)).willReturn("\"category-1.3.12\"");
+
+        //when
+        //then
+        performAsync(get("/api/v1/category/1")
+                        .header("If-None-Match", "\"category-1.3.12\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"category-1.3.12\""));
+
+        verify(categoryService, never()).findCategoryById(1L);
+        verifyNoInteractions(postCountService);
+    }
+
+    @Test
+    void getAllCategoryWithStaleETagReturnsCategoriesAndNewETag() throws Exception {
+        //given
+        given(eTagService.getCategoryListETag()).willReturn("\"categories.1-1-1.0-0-0\"");
+        given(categoryService.findAllCategory()).willReturn(List.of());
+        given(postCountService.getCategoryPostCounts(List.of())).willReturn(Map.of());
+
+        //when
+        //then
+        performAsync(get("/api/v1/category/")
+                        .header("If-None-Match", "\"categories.1-1-0.0-0-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"categories.1-1-1.0-0-0\""))
+                .andExpect(jsonPath("$", hasSize(0)));
     }
 
     @Test
@@ -89,7 +137,7 @@ class CategoryControllerTest {
 
         //when
         //then
-        mockMvc.perform(get("/api/v1/category/{id}", 1L))
+        performAsync(get("/api/v1/category/{id}", 1L))
                 .andExpect(status().is4xxClientError())
                 .andExpect(jsonPath("$").value("Category not found"));
     }
@@ -108,12 +156,15 @@ class CategoryControllerTest {
                 .id(2L)
                 .build();
         given(categoryService.findAllCategory()).willReturn(List.of(cate1, cate2));
+        given(postCountService.getCategoryPostCounts(List.of(1L, 2L))).willReturn(Map.of(1L, 3L, 2L, 0L));
 
         //when
         //then
-        mockMvc.perform(get("/api/v1/category/"))
+        performAsync(get("/api/v1/category/"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)));
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].postCount").value(3))
+                .andExpect(jsonPath("$[1].postCount").value(0));
     }
 
     @Test
@@ -131,7 +182,7 @@ class CategoryControllerTest {
 
         //when
         //then
-        mockMvc.perform(put("/api/v1/category/{id}", 1L)
+        performAsync(put("/api/v1/category/{id}", 1L)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
@@ -150,7 +201,7 @@ class CategoryControllerTest {
 
         //when
         //then
-        mockMvc.perform(put("/api/v1/category/{id}", 1L)
+        performAsync(put("/api/v1/category/{id}", 1L)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().is4xxClientError())
@@ -162,7 +213,7 @@ class CategoryControllerTest {
         //given
         //when
         //then
-        mockMvc.perform(delete("/api/v1/category/{id}", 1L))
+        performAsync(delete("/api/v1/category/{id}", 1L))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").value("Category deleted"));
     }
@@ -174,8 +225,18 @@ class CategoryControllerTest {
 
         //when
         //then
-        mockMvc.perform(delete("/api/v1/category/{id}", 1L))
+        performAsync(delete("/api/v1/category/{id}", 1L))
                 .andExpect(status().is4xxClientError())
                 .andExpect(jsonPath("$").value("Category not found"));
     }
-}
\ No newline at end of file
+
+    /**
+     * Performs a request against an asynchronous endpoint and dispatches its result.
+     */
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
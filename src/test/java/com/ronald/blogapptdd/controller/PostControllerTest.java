@@ -3,13 +3,22 @@ package com.ronald.blogapptdd.controller;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ronald.blogapptdd.dto.request.CreatePostRequest;
+import com.ronald.blogapptdd.dto.request.DeletePostsRequest;
 import com.ronald.blogapptdd.dto.request.UpdatePostRequest;
+import com.ronald.blogapptdd.dto.response.CursorPageResponseDTO;
+import com.ronald.blogapptdd.dto.response.PostDeleteResponseDTO;
+import com.ronald.blogapptdd.dto.response.PostImportResponseDTO;
 import com.ronald.blogapptdd.dto.response.PostResponseDTO;
+import com.ronald.blogapptdd.dto.response.PostSearchResultDTO;
+import com.ronald.blogapptdd.dto.response.PostSummaryDTO;
 import com.ronald.blogapptdd.entity.Category;
 import com.ronald.blogapptdd.entity.Post;
 import com.ronald.blogapptdd.entity.PostTag;
 import com.ronald.blogapptdd.entity.Tag;
 import com.ronald.blogapptdd.entity.composite.PostTagKey;
+import com.ronald.blogapptdd.service.ETagService;
+import com.ronald.blogapptdd.service.PostBulkDeleteService;
+import com.ronald.blogapptdd.service.PostImportService;
 import com.ronald.blogapptdd.service.PostService;
 import com.ronald.blogapptdd.utils.PostMapperUtils;
 import org.junit.jupiter.api.AfterEach;
@@ -19,14 +28,23 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
@@ -43,6 +61,15 @@ class PostControllerTest {
     @MockBean
     private PostService postService;
 
+    @MockBean
+    private PostImportService postImportService;
+
+    @MockBean
+    private PostBulkDeleteService postBulkDeleteService;
+
+    @MockBean
+    private ETagService eTagService;
+
     @Test
     void canCreatePostHttpRequest() throws Exception {
         //given
@@ -81,7 +108,7 @@ class PostControllerTest {
 
         //when
         //then
-        mockMvc.perform(post("/api/v1/post/")
+        performAsync(post("/api/v1/post/")
                         .contentType("application/json")
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
@@ -151,7 +178,7 @@ class PostControllerTest {
 
         //when
         //then
-        mockMvc.perform(get("/api/v1/post/"))
+        performAsync(get("/api/v1/post/"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(1L))
                 .andExpect(jsonPath("$[0].title").value(post1.getTitle()))
@@ -169,6 +196,78 @@ class PostControllerTest {
                 .andExpect(jsonPath("$[1].tags[0].id").value(2L));
     }
 
+    @Test
+    public void getPostPageHttpRequest() throws Exception {
+        //given
+        Category category = Category.builder()
+                .id(1L)
+                .name("Java")
+                .description("Java ne")
+                .build();
+
+        Post post = Post.builder()
+                .id(2L)
+                .title("This title talks about Java")
+                .content("This content talks about Java")
+                .category(category)
+                .postTags(List.of())
+                .build();
+
+        CursorPageResponseDTO<PostResponseDTO> page = CursorPageResponseDTO.<PostResponseDTO>builder()
+                .items(PostMapperUtils.mapPostsToPostResponseDTOs(List.of(post)))
+                .size(1)
+                .nextCursor("next-page-token")
+                .build();
+
+        given(postService.getPostPage("page-token", 1))
+                .willReturn(page);
+
+        //when
+        //then
+        performAsync(get("/api/v1/post/")
+                        .param("cursor", "page-token")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(2L))
+                .andExpect(jsonPath("$.items[0].title").value(post.getTitle()))
+                .andExpect(jsonPath("$.size").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("next-page-token"));
+    }
+
+    @Test
+    public void getPostSummaryPageHttpRequest() throws Exception {
+        //given
+        PostSummaryDTO summary = PostSummaryDTO.builder()
+                .id(2L)
+                .title("This title talks about Java")
+                .categoryName("Java")
+                .tagNames(List.of("Spring"))
+                .excerpt("This content")
+                .build();
+        CursorPageResponseDTO<PostSummaryDTO> page = CursorPageResponseDTO.<PostSummaryDTO>builder()
+                .items(List.of(summary))
+                .size(1)
+                .nextCursor("next-page-token")
+                .build();
+
+        given(postService.getPostSummaryPage(null, 1, true))
+                .willReturn(page);
+
+        //when
+        //then
+        performAsync(get("/api/v1/post/")
+                        .param("view", "summary")
+                        .param("excerpt", "true")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(2L))
+                .andExpect(jsonPath("$.items[0].categoryName").value("Java"))
+                .andExpect(jsonPath("$.items[0].tagNames[0]").value("Spring"))
+                .andExpect(jsonPath("$.items[0].excerpt").value("This content"))
+                .andExpect(jsonPath("$.items[0].content").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("next-page-token"));
+    }
+
     @Test
     public void canGetPostDetailHttpRequest() throws Exception {
         //given
@@ -207,7 +306,7 @@ class PostControllerTest {
 
         //when
         //then
-        mockMvc.perform(get("/api/v1/post/1"))
+        performAsync(get("/api/v1/post/1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1L))
                 .andExpect(jsonPath("$.title").value(post.getTitle()))
@@ -218,6 +317,36 @@ class PostControllerTest {
                 .andExpect(jsonPath("$.tags[0].id").value(1L));
     }
 
+    @Test
+    public void getPostDetailWithMatchingETagReturnsNotModified() throws Exception {
+        //given
+        given(eTagService.getPostETag(1L)).willReturn("\"post-1.2.1:0.\"");
+
+        //when
+        //then
+        performAsync(get("/api/v1/post/{id}", 1L)
+                        .header("If-None-Match", "\"post-1.2.1:0.\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"post-1.2.1:0.\""));
+
+        verifyNoInteractions(postService);
+    }
+
+    @Test
+    public void getAllPostWithMatchingETagReturnsNotModified() throws Exception {
+        //given
+        given(eTagService.getPostListETag()).willReturn("\"posts.2-2-0.1-1-0.0-0-0\"");
+
+        //when
+        //then
+        performAsync(get("/api/v1/post/")
+                        .param("view", "summary")
+                        .header("If-None-Match", "\"posts.2-2-0.1-1-0.0-0-0\""))
+                .andExpect(status().isNotModified());
+
+        verifyNoInteractions(postService);
+    }
+
     @Test
     public void canUpdatePostHttpRequest() throws Exception {
         // given
@@ -273,7 +402,7 @@ class PostControllerTest {
 
         // when
         // then
-        mockMvc.perform(put("/api/v1/post/{id}", 1L)
+        performAsync(put("/api/v1/post/{id}", 1L)
                 .contentType("application/json")
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
@@ -287,6 +416,102 @@ class PostControllerTest {
                 .andExpect(jsonPath("$.tags[1].id").value(2L));
     }
 
+    @Test
+    public void canSearchPostsHttpRequest() throws Exception {
+        // given
+        Post post = Post.builder()
+                .id(2L)
+                .title("This title talks about Java")
+                .content("This content talks about Java")
+                .postTags(List.of())
+                .build();
+        PostSearchResultDTO result = PostSearchResultDTO.builder()
+                .post(PostMapperUtils.mapPostToPostResponseDTO(post))
+                .score(1.5)
+                .build();
+        given(postService.searchPosts("java", 5)).willReturn(List.of(result));
+
+        // when
+        // then
+        performAsync(get("/api/v1/post/search")
+                        .param("q", "java")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].post.id").value(2L))
+                .andExpect(jsonPath("$[0].post.title").value(post.getTitle()))
+                .andExpect(jsonPath("$[0].score").value(1.5));
+    }
+
+    @Test
+    public void canImportPostsHttpRequest() throws Exception {
+        // given
+        PostImportResponseDTO report = PostImportResponseDTO.builder()
+                .records(2)
+                .imported(2)
+                .failed(0)
+                .chunks(List.of())
+                .errors(List.of())
+                .build();
+        given(postImportService.importPosts(any())).willReturn(report);
+
+        // when
+        // then
+        performAsync(post("/api/v1/post/import")
+                        .contentType("application/x-ndjson")
+                        .content("{\"title\":\"A\",\"categoryId\":1}\n{\"title\":\"B\",\"categoryId\":1}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.records").value(2))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.failed").value(0));
+    }
+
+    @Test
+    public void canExportPostsAsNdjsonHttpRequest() throws Exception {
+        // given
+        doAnswer(invocation -> {
+            Consumer<PostResponseDTO> consumer = invocation.getArgument(0);
+            consumer.accept(PostResponseDTO.builder().id(1L).title("A").tags(List.of()).build());
+            consumer.accept(PostResponseDTO.builder().id(2L).title("B").tags(List.of()).build());
+            return null;
+        }).when(postService).exportPosts(any());
+
+        // when
+        MvcResult result = mockMvc.perform(get("/api/v1/post/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1, objectMapper.readTree(lines[0]).get("id").asInt());
+        assertEquals("B", objectMapper.readTree(lines[1]).get("title").asText());
+    }
+
+    @Test
+    public void canExportPostsAsJsonArrayHttpRequest() throws Exception {
+        // given
+        doAnswer(invocation -> {
+            Consumer<PostResponseDTO> consumer = invocation.getArgument(0);
+            consumer.accept(PostResponseDTO.builder().id(1L).title("A").tags(List.of()).build());
+            return null;
+        }).when(postService).exportPosts(any());
+
+        // when
+        MvcResult result = mockMvc.perform(get("/api/v1/post/export").param("format", "json"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("A"));
+    }
+
     @Test
     public void canDeletePostHttpRequest() throws Exception {
         // given
@@ -294,12 +519,44 @@ class PostControllerTest {
 
         // when
         // then
-        mockMvc.perform(delete("/api/v1/post/{id}", 1L))
+        performAsync(delete("/api/v1/post/{id}", 1L))
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void canDeletePostsOfACategoryHttpRequest() throws Exception {
+        // given
+        DeletePostsRequest request = DeletePostsRequest.builder()
+                .categoryId(3L)
+                .build();
+        PostDeleteResponseDTO report = PostDeleteResponseDTO.builder()
+                .postsDeleted(1200)
+                .postTagsDeleted(3600)
+                .chunks(List.of())
+                .build();
+        given(postBulkDeleteService.deletePosts(request)).willReturn(report);
+
+        // when
+        // then
+        performAsync(post("/api/v1/post/bulk-delete")
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.postsDeleted").value(1200))
+                .andExpect(jsonPath("$.postTagsDeleted").value(3600));
+    }
+
     @AfterEach
     void tearDown() {
     }
 
-}
\ No newline at end of file
+    /**
+     * Performs a request against an asynchronous endpoint and dispatches its result.
+     */
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
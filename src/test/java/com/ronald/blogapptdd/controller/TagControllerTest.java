@@ -1,9 +1,16 @@
 package com.ronald.blogapptdd.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ronald.blogapptdd.config.BlogProperties;
 import com.ronald.blogapptdd.dto.request.CreateTagRequest;
 import com.ronald.blogapptdd.dto.request.UpdateTagRequest;
+import com.ronald.blogapptdd.dto.response.CursorPageResponseDTO;
+import com.ronald.blogapptdd.dto.response.PostResponseDTO;
 import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.search.TagMatch;
+import com.ronald.blogapptdd.service.ETagService;
+import com.ronald.blogapptdd.service.PostCountService;
+import com.ronald.blogapptdd.service.PostService;
 import com.ronald.blogapptdd.service.TagService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,15 +19,26 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 
 import java.util.List;
+import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -33,9 +51,21 @@ class TagControllerTest {
     @MockBean
     private TagService tagService;
 
+    @MockBean
+    private PostService postService;
+
+    @MockBean
+    private PostCountService postCountService;
+
+    @MockBean
+    private ETagService eTagService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private BlogProperties blogProperties;
+
     @BeforeEach
     void setUp() {
     }
@@ -54,7 +84,7 @@ class TagControllerTest {
 
         // when
         // then
-        mockMvc.perform(post("/api/v1/tag/")
+        performAsync(post("/api/v1/tag/")
                         .contentType("application/json")
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
@@ -73,12 +103,48 @@ class TagControllerTest {
                 .id(2L)
                 .build();
         given(tagService.getAllTags()).willReturn(List.of(tag1, tag2));
+        given(postCountService.getTagPostCounts(List.of(1L, 2L))).willReturn(Map.of(1L, 5L, 2L, 1L));
 
         // when
         // then
-        mockMvc.perform(get("/api/v1/tag/"))
+        performAsync(get("/api/v1/tag/"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].postCount").value(5))
+                .andExpect(jsonPath("$[1].postCount").value(1));
+    }
+
+    @Test
+    public void tagListIsTaggedPerEncodingAndBothRevalidate() throws Exception {
+        // given
+        Tag tag = Tag.builder()
+                .name("Java")
+                .id(1L)
+                .build();
+        given(tagService.getAllTags()).willReturn(List.of(tag));
+        given(eTagService.getTagListETag()).willReturn("\"tags.1\"");
+
+        // when
+        String identityETag = performAsync(get("/api/v1/tag/"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        String gzipETag = performAsync(get("/api/v1/tag/")
+                        .header("Accept-Encoding", "gzip"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)));
+                .andReturn().getResponse().getHeader("ETag");
+
+        // then
+        assertThat(identityETag).isEqualTo("\"tags.1\"");
+        assertThat(gzipETag).isEqualTo("\"tags.1-gzip\"");
+        performAsync(get("/api/v1/tag/")
+                        .header("If-None-Match", identityETag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", identityETag));
+        performAsync(get("/api/v1/tag/")
+                        .header("Accept-Encoding", "gzip")
+                        .header("If-None-Match", gzipETag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", gzipETag));
     }
 
     @Test
@@ -89,12 +155,29 @@ class TagControllerTest {
                 .id(1L)
                 .build();
         given(tagService.getTagDetail(1L)).willReturn(tag);
+        given(postCountService.getTagPostCounts(List.of(1L))).willReturn(Map.of(1L, 4L));
 
         // when
         // then
-        mockMvc.perform(get("/api/v1/tag/{id}", 1L))
+        performAsync(get("/api/v1/tag/{id}", 1L))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.name").value(tag.getName()));
+                .andExpect(jsonPath("$.name").value(tag.getName()))
+                .andExpect(jsonPath("$.postCount").value(4));
+    }
+
+    @Test
+    public void getTagByIdWithMatchingETagReturnsNotModified() throws Exception {
+        // given
+        given(eTagService.getTagETag(1L)).willReturn("\"tag-1.0.4\"");
+
+        // when
+        // then
+        performAsync(get("/api/v1/tag/{id}", 1L)
+                        .header("If-None-Match", "\"tag-1.0.4\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"tag-1.0.4\""));
+
+        verify(tagService, never()).getTagDetail(1L);
     }
 
     @Test
@@ -104,7 +187,7 @@ class TagControllerTest {
 
         // when
         // then
-        mockMvc.perform(get("/api/v1/tag/{id}", 1L))
+        performAsync(get("/api/v1/tag/{id}", 1L))
                 .andExpect(status().is4xxClientError());
     }
 
@@ -122,11 +205,92 @@ class TagControllerTest {
 
         // when
         // then
-        mockMvc.perform(put("/api/v1/tag/{id}", 1L)
+        performAsync(put("/api/v1/tag/{id}", 1L)
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(request.getName()));
+    }
+
+    @Test
+    public void updateTagRetriesAfterAConcurrentChange() throws Exception {
+        // given
+        UpdateTagRequest request = UpdateTagRequest.builder()
+                .name("Java")
+                .build();
+        Tag tag = Tag.builder()
+                .name(request.getName())
+                .id(1L)
+                .build();
+        given(tagService.updateTag(1L, request))
+                .willThrow(new ObjectOptimisticLockingFailureException(Tag.class, 1L))
+                .willReturn(tag);
+
+        // when
+        // then
+        performAsync(put("/api/v1/tag/{id}", 1L)
                         .contentType("application/json")
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name").value(request.getName()));
+        verify(tagService, times(2)).updateTag(1L, request);
+    }
+
+    @Test
+    public void updateTagConflictingOnEveryAttemptReturnsConflict() throws Exception {
+        // given
+        UpdateTagRequest request = UpdateTagRequest.builder()
+                .name("Java")
+                .build();
+        given(tagService.updateTag(1L, request))
+                .willThrow(new ObjectOptimisticLockingFailureException(Tag.class, 1L));
+
+        // when
+        // then
+        performAsync(put("/api/v1/tag/{id}", 1L)
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict());
+        verify(tagService, times(blogProperties.getUpdateRetry().getMaxAttempts())).updateTag(1L, request);
+    }
+
+    @Test
+    public void canGetTagPostsHttpRequest() throws Exception {
+        // given
+        CursorPageResponseDTO<PostResponseDTO> page = CursorPageResponseDTO.<PostResponseDTO>builder()
+                .items(List.of(PostResponseDTO.builder().id(7L).title("Newest").tags(List.of()).build()))
+                .size(1)
+                .nextCursor("7")
+                .build();
+        given(postService.getPostPageByTags(List.of(1L), TagMatch.ALL, null, 1)).willReturn(page);
+
+        // when
+        // then
+        performAsync(get("/api/v1/tag/{id}/posts", 1L)
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(7L))
+                .andExpect(jsonPath("$.nextCursor").value("7"));
+    }
+
+    @Test
+    public void canGetPostsByAnyOfTagsHttpRequest() throws Exception {
+        // given
+        CursorPageResponseDTO<PostResponseDTO> page = CursorPageResponseDTO.<PostResponseDTO>builder()
+                .items(List.of(PostResponseDTO.builder().id(3L).title("Tagged").tags(List.of()).build()))
+                .size(1)
+                .build();
+        given(postService.getPostPageByTags(List.of(1L, 2L), TagMatch.ANY, "9", null)).willReturn(page);
+
+        // when
+        // then
+        performAsync(get("/api/v1/tag/posts")
+                        .param("ids", "1,2")
+                        .param("match", "any")
+                        .param("cursor", "9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(3L))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
     }
 
     @Test
@@ -136,11 +300,21 @@ class TagControllerTest {
 
         // when
         // then
-        mockMvc.perform(delete("/api/v1/tag/{id}", 1L))
+        performAsync(delete("/api/v1/tag/{id}", 1L))
                 .andExpect(status().isOk());
     }
 
     @AfterEach
     void tearDown() {
     }
-}
\ No newline at end of file
+
+    /**
+     * Performs a request against an asynchronous endpoint and dispatches its result.
+     */
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
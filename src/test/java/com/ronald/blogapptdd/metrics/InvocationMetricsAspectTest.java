@@ -0,0 +1,118 @@
+package com.ronald.blogapptdd.metrics;
+
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.exception.TagNotFoundException;
+import com.ronald.blogapptdd.repository.TagRepository;
+import com.ronald.blogapptdd.service.TagService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.repository.Repository;
+
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class InvocationMetricsAspectTest {
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void timesSuccessfulServiceCallsByMethod() {
+        // given
+        long before = count("service", "TagServiceImpl", "getAllTags", "success", "none");
+
+        // when
+        tagService.getAllTags();
+
+        // then
+        assertThat(count("service", "TagServiceImpl", "getAllTags", "success", "none")).isEqualTo(before + 1);
+        assertThat(meterRegistry.get(InvocationMetricsAspect.ACTIVE_METRIC)
+                .tags("layer", "service", "class", "TagServiceImpl", "method", "getAllTags")
+                .gauge()
+                .value()).isEqualTo(0.0);
+    }
+
+    @Test
+    void timesFailedServiceCallsByExceptionType() {
+        // given
+        long before = count("service", "TagServiceImpl", "getTagDetail", "error", "TagNotFoundException");
+
+        // when
+        // then
+        assertThatThrownBy(() -> tagService.getTagDetail(-1L))
+                .isInstanceOf(TagNotFoundException.class);
+        assertThat(count("service", "TagServiceImpl", "getTagDetail", "error", "TagNotFoundException"))
+                .isEqualTo(before + 1);
+    }
+
+    @Test
+    void timesRepositoryCallsUnderTheDeclaredInterface() {
+        // given
+        long before = count("repository", "TagRepository", "count", "success", "none");
+
+        // when
+        tagRepository.count();
+
+        // then
+        assertThat(count("repository", "TagRepository", "count", "success", "none")).isEqualTo(before + 1);
+    }
+
+    @Test
+    void overloadsShareTheActiveGauge() {
+        // given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new OverloadedRepositoryImpl());
+        proxyFactory.addInterface(OverloadedRepository.class);
+        proxyFactory.addAspect(new InvocationMetricsAspect(registry));
+        OverloadedRepository repository = proxyFactory.getProxy();
+        repository.load();
+
+        // when
+        int activeDuringCall = repository.load(() -> (int) registry.get(InvocationMetricsAspect.ACTIVE_METRIC)
+                .tags("layer", "repository", "class", "OverloadedRepository", "method", "load")
+                .gauge()
+                .value());
+
+        // then
+        assertThat(activeDuringCall).isEqualTo(1);
+    }
+
+    private long count(String layer, String className, String method, String outcome, String exception) {
+        Timer timer = meterRegistry.find(InvocationMetricsAspect.INVOCATIONS_METRIC)
+                .tags("layer", layer, "class", className, "method", method, "outcome", outcome, "exception", exception)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    interface OverloadedRepository extends Repository<Tag, Long> {
+        int load();
+
+        int load(IntSupplier during);
+    }
+
+    static class OverloadedRepositoryImpl implements OverloadedRepository {
+        @Override
+        public int load() {
+            return 0;
+        }
+
+        @Override
+        public int load(IntSupplier during) {
+            return during.getAsInt();
+        }
+    }
+}
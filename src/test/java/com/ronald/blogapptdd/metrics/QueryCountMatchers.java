@@ -0,0 +1,19 @@
+package com.ronald.blogapptdd.metrics;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+
+/**
+ * Assertions on the statements a request issued, for MockMvc tests running against the real
+ * services. For an asynchronous request, apply them to the result of the async dispatch.
+ */
+public final class QueryCountMatchers {
+
+    private QueryCountMatchers() {
+    }
+
+    public static ResultMatcher statementCount(int expected) {
+        return header().string(QueryStatsResponseAdvice.STATEMENT_COUNT_HEADER, String.valueOf(expected));
+    }
+}
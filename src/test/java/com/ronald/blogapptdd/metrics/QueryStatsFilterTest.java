@@ -0,0 +1,71 @@
+package com.ronald.blogapptdd.metrics;
+
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.exception.QueryBudgetExceededException;
+import com.ronald.blogapptdd.repository.TagRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static com.ronald.blogapptdd.metrics.QueryCountMatchers.statementCount;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "blog.query-budget.endpoints.[GET\\ /api/v1/tag/]=1")
+@AutoConfigureMockMvc
+class QueryStatsFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Test
+    void countsStatementsOfTheRequestAndItsExecutorWork() throws Exception {
+        // given
+        Tag tag = tagRepository.save(Tag.builder()
+                .name("query-stats")
+                .description("Counted tag")
+                .build());
+
+        // when
+        // then
+        // ETag: tag version and post count; body: tag and post count on the read executor
+        performAsync(get("/api/v1/tag/{id}", tag.getId()))
+                .andExpect(status().isOk())
+                .andExpect(statementCount(4))
+                .andExpect(header().string(QueryStatsResponseAdvice.SERVER_TIMING_HEADER, startsWith("db;dur=")));
+    }
+
+    @Test
+    void failsRequestsOverTheirEndpointBudget() throws Exception {
+        // given
+        MvcResult result = mockMvc.perform(get("/api/v1/tag/"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // when
+        // then
+        assertThatThrownBy(() -> mockMvc.perform(asyncDispatch(result)))
+                .isInstanceOf(QueryBudgetExceededException.class)
+                .hasMessageContaining("GET /api/v1/tag/");
+    }
+
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
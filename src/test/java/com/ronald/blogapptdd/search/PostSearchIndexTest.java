@@ -0,0 +1,151 @@
+package com.ronald.blogapptdd.search;
+
+import com.ronald.blogapptdd.event.ChangeType;
+import com.ronald.blogapptdd.event.PostChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostSearchIndexTest {
+
+    private PostSearchIndex underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new PostSearchIndex();
+        underTest.index(1L, "Spring Boot basics", "Getting started with Spring and Java");
+        underTest.index(2L, "Python tricks", "List comprehensions, generators and a word about Java");
+        underTest.index(3L, "Kubernetes", "Deploying containers");
+    }
+
+    @Test
+    void findsPostsByAnyTermIgnoringCase() {
+        // when
+        List<SearchHit> hits = underTest.search("JAVA", 10);
+
+        // then
+        assertThat(postIds(hits)).containsOnly(1L, 2L);
+    }
+
+    @Test
+    void titleMatchRanksAboveContentMatch() {
+        // given
+        underTest.index(4L, "Generators", "Nothing else here");
+
+        // when
+        List<SearchHit> hits = underTest.search("generators", 10);
+
+        // then
+        assertThat(postIds(hits)).containsExactly(4L, 2L);
+        assertThat(hits.get(0).getScore()).isGreaterThan(hits.get(1).getScore());
+    }
+
+    @Test
+    void postMatchingMoreTermsRanksFirst() {
+        // when
+        List<SearchHit> hits = underTest.search("spring java", 10);
+
+        // then
+        assertThat(postIds(hits)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void returnsAtMostLimitHits() {
+        // when
+        List<SearchHit> hits = underTest.search("java", 1);
+
+        // then
+        assertThat(postIds(hits)).containsExactly(1L);
+    }
+
+    @Test
+    void blankQueryMatchesNothing() {
+        // when
+        List<SearchHit> hits = underTest.search("  ,. ", 10);
+
+        // then
+        assertThat(hits).isEmpty();
+    }
+
+    @Test
+    void updateReplacesTheIndexedText() {
+        // when
+        underTest.onPostChanged(PostChangedEvent.builder()
+                .type(ChangeType.UPDATED)
+                .postId(3L)
+                .title("Helm charts")
+                .content("Packaging Java apps")
+                .build());
+
+        // then
+        assertThat(underTest.search("containers", 10)).isEmpty();
+        assertThat(postIds(underTest.search("java", 10))).containsOnly(1L, 2L, 3L);
+        assertThat(underTest.size()).isEqualTo(3);
+    }
+
+    @Test
+    void deleteRemovesThePost() {
+        // when
+        underTest.onPostChanged(PostChangedEvent.builder()
+                .type(ChangeType.DELETED)
+                .postId(1L)
+                .build());
+
+        // then
+        assertThat(postIds(underTest.search("java spring", 10))).containsExactly(2L);
+        assertThat(underTest.size()).isEqualTo(2);
+    }
+
+    @Test
+    void manyUpdatesKeepResultsCorrectAcrossCompaction() {
+        // when
+        for (int i = 0; i < 5_000; i++) {
+            underTest.index(3L, "Kubernetes " + i, "Deploying containers");
+        }
+
+        // then
+        assertThat(postIds(underTest.search("kubernetes", 10))).containsExactly(3L);
+        assertThat(postIds(underTest.search("4999", 10))).containsExactly(3L);
+        assertThat(underTest.search("4998", 10)).isEmpty();
+        assertThat(postIds(underTest.search("java", 10))).containsOnly(1L, 2L);
+    }
+
+    @Test
+    void rebuildReplacesTheWholeIndex() {
+        // when
+        underTest.rebuild(Stream.of(
+                new PostSearchDocument(7L, "Rust ownership", "Borrowing explained"),
+                new PostSearchDocument(8L, "Go channels", "Concurrency in Go")));
+
+        // then
+        assertThat(underTest.search("java", 10)).isEmpty();
+        assertThat(postIds(underTest.search("go rust", 10))).containsOnly(7L, 8L);
+        assertThat(underTest.size()).isEqualTo(2);
+    }
+
+    @Test
+    void changesDuringRebuildAreKept() {
+        // given
+        Stream<PostSearchDocument> documents = Stream.of(new PostSearchDocument(7L, "Rust ownership", "Borrowing"))
+                .peek(document -> {
+                    underTest.index(9L, "Zig comptime", "Written while the rebuild reads");
+                    underTest.remove(7L);
+                });
+
+        // when
+        underTest.rebuild(documents);
+
+        // then
+        assertThat(postIds(underTest.search("zig", 10))).containsExactly(9L);
+        assertThat(underTest.search("rust", 10)).isEmpty();
+    }
+
+    private List<Long> postIds(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::getPostId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,142 @@
+package com.ronald.blogapptdd.search;
+
+import com.ronald.blogapptdd.entity.composite.PostTagKey;
+import com.ronald.blogapptdd.event.ChangeType;
+import com.ronald.blogapptdd.event.PostChangedEvent;
+import com.ronald.blogapptdd.event.TagChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TagPostIndexTest {
+
+    private TagPostIndex underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new TagPostIndex();
+        // tag 1 on posts 1-5, tag 2 on posts 2 and 4, tag 3 on post 6
+        underTest.rebuild(Stream.of(
+                new PostTagKey(1L, 1L), new PostTagKey(2L, 1L), new PostTagKey(3L, 1L),
+                new PostTagKey(4L, 1L), new PostTagKey(5L, 1L),
+                new PostTagKey(2L, 2L), new PostTagKey(4L, 2L),
+                new PostTagKey(6L, 3L)));
+    }
+
+    @Test
+    void isLoadedOnceARebuildCompletes() {
+        // given
+        TagPostIndex fresh = new TagPostIndex();
+        fresh.add(1L, 1L);
+
+        // when
+        boolean loadedBefore = fresh.isLoaded();
+        fresh.rebuild(Stream.empty());
+
+        // then
+        assertThat(loadedBefore).isFalse();
+        assertThat(fresh.isLoaded()).isTrue();
+    }
+
+    @Test
+    void singleTagListsPostsNewestFirst() {
+        // when
+        List<Long> postIds = underTest.findPostIds(List.of(1L), TagMatch.ALL, null, 10);
+
+        // then
+        assertThat(postIds).containsExactly(5L, 4L, 3L, 2L, 1L);
+    }
+
+    @Test
+    void pagesContinueBelowTheCursor() {
+        // when
+        List<Long> firstPage = underTest.findPostIds(List.of(1L), TagMatch.ALL, null, 2);
+        List<Long> secondPage = underTest.findPostIds(List.of(1L), TagMatch.ALL, firstPage.get(1), 2);
+        List<Long> lastPage = underTest.findPostIds(List.of(1L), TagMatch.ALL, secondPage.get(1), 2);
+
+        // then
+        assertThat(firstPage).containsExactly(5L, 4L);
+        assertThat(secondPage).containsExactly(3L, 2L);
+        assertThat(lastPage).containsExactly(1L);
+    }
+
+    @Test
+    void allIntersectsTheTags() {
+        // when
+        List<Long> postIds = underTest.findPostIds(List.of(1L, 2L), TagMatch.ALL, null, 10);
+
+        // then
+        assertThat(postIds).containsExactly(4L, 2L);
+    }
+
+    @Test
+    void allWithUnknownTagMatchesNothing() {
+        // when
+        List<Long> postIds = underTest.findPostIds(List.of(1L, 99L), TagMatch.ALL, null, 10);
+
+        // then
+        assertThat(postIds).isEmpty();
+    }
+
+    @Test
+    void anyUnitesTheTags() {
+        // when
+        List<Long> postIds = underTest.findPostIds(List.of(2L, 3L, 99L), TagMatch.ANY, null, 10);
+
+        // then
+        assertThat(postIds).containsExactly(6L, 4L, 2L);
+    }
+
+    @Test
+    void postUpdateMovesThePostBetweenTags() {
+        // when
+        underTest.onPostChanged(PostChangedEvent.builder()
+                .type(ChangeType.UPDATED)
+                .postId(4L)
+                .tagIds(Set.of(1L, 3L))
+                .previousTagIds(Set.of(1L, 2L))
+                .build());
+
+        // then
+        assertThat(underTest.findPostIds(List.of(2L), TagMatch.ALL, null, 10)).containsExactly(2L);
+        assertThat(underTest.findPostIds(List.of(3L), TagMatch.ALL, null, 10)).containsExactly(6L, 4L);
+        assertThat(underTest.findPostIds(List.of(1L), TagMatch.ALL, null, 10)).contains(4L);
+    }
+
+    @Test
+    void postDeleteAndTagDeleteRemoveEntries() {
+        // when
+        underTest.onPostChanged(PostChangedEvent.builder()
+                .type(ChangeType.DELETED)
+                .postId(5L)
+                .previousTagIds(Set.of(1L))
+                .build());
+        underTest.onTagChanged(new TagChangedEvent(ChangeType.DELETED, 2L));
+
+        // then
+        assertThat(underTest.findPostIds(List.of(1L), TagMatch.ALL, null, 10)).containsExactly(4L, 3L, 2L, 1L);
+        assertThat(underTest.findPostIds(List.of(2L), TagMatch.ANY, null, 10)).isEmpty();
+    }
+
+    @Test
+    void changesDuringRebuildAreKept() {
+        // given
+        Stream<PostTagKey> postTags = Stream.of(new PostTagKey(1L, 1L))
+                .peek(key -> {
+                    underTest.add(7L, 9L);
+                    underTest.remove(1L, 1L);
+                });
+
+        // when
+        underTest.rebuild(postTags);
+
+        // then
+        assertThat(underTest.findPostIds(List.of(7L), TagMatch.ALL, null, 10)).containsExactly(9L);
+        assertThat(underTest.findPostIds(List.of(1L), TagMatch.ALL, null, 10)).isEmpty();
+    }
+}
@@ -1,10 +1,14 @@
 package com.ronald.blogapptdd.service.impl;
 
+import com.ronald.blogapptdd.cache.ReferenceDataSnapshot;
 import com.ronald.blogapptdd.dto.request.CreateCategoryRequest;
 import com.ronald.blogapptdd.dto.request.UpdateCategoryRequest;
 import com.ronald.blogapptdd.entity.Category;
+import com.ronald.blogapptdd.event.CategoryChangedEvent;
+import com.ronald.blogapptdd.event.ChangeType;
 import com.ronald.blogapptdd.exception.CategoryNotFoundException;
 import com.ronald.blogapptdd.repository.CategoryRepository;
+import com.ronald.blogapptdd.repository.TagRepository;
 import com.ronald.blogapptdd.service.CategoryService;
 import org.assertj.core.api.AssertionsForClassTypes;
 import org.junit.jupiter.api.*;
@@ -14,6 +18,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.context.TestPropertySource;
 
 import java.sql.SQLException;
@@ -32,11 +37,18 @@ class CategoryServiceImplTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private TagRepository tagRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private CategoryService underTest;
 
     @BeforeEach
     void setUp() {
-        underTest = new CategoryServiceImpl(categoryRepository);
+        underTest = new CategoryServiceImpl(categoryRepository,
+                new ReferenceDataSnapshot(categoryRepository, tagRepository), eventPublisher);
     }
 
     @AfterEach
@@ -164,25 +176,26 @@ class CategoryServiceImplTest {
     @DisplayName("Delete category")
     void canDeleteCategory() {
         //given
-        Category category = Category.builder()
-                .id(1L)
-                .name("Java")
-                .description("Java ne")
-                .build();
-        given(categoryRepository.findById(1L)).willReturn(Optional.of(category));
+        given(categoryRepository.deleteDirectlyById(1L)).willReturn(1);
 
         //when
         underTest.deleteCategory(1L);
 
         //then
-        verify(categoryRepository).deleteById(1L);
+        verify(categoryRepository).deleteDirectlyById(1L);
+        verify(categoryRepository, never()).findById(any());
+
+        ArgumentCaptor<CategoryChangedEvent> eventArgumentCaptor = ArgumentCaptor.forClass(CategoryChangedEvent.class);
+        verify(eventPublisher).publishEvent(eventArgumentCaptor.capture());
+        assertThat(eventArgumentCaptor.getValue().getType()).isEqualTo(ChangeType.DELETED);
+        assertThat(eventArgumentCaptor.getValue().getCategoryId()).isEqualTo(1L);
     }
 
     @Test
     @DisplayName("Delete category with invalid Id")
     void canNotDeleteCategory() {
         //given
-        given(categoryRepository.findById(any())).willReturn(Optional.empty());
+        given(categoryRepository.deleteDirectlyById(any())).willReturn(0);
 
         //when
         Long categoryId = 1L;
@@ -0,0 +1,226 @@
+package com.ronald.blogapptdd.service.impl;
+
+import com.ronald.blogapptdd.dto.request.CreatePostRequest;
+import com.ronald.blogapptdd.dto.request.UpdateCategoryRequest;
+import com.ronald.blogapptdd.dto.request.UpdatePostRequest;
+import com.ronald.blogapptdd.dto.request.UpdateTagRequest;
+import com.ronald.blogapptdd.entity.Category;
+import com.ronald.blogapptdd.entity.Post;
+import com.ronald.blogapptdd.entity.PostTag;
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.entity.composite.PostTagKey;
+import com.ronald.blogapptdd.repository.CategoryRepository;
+import com.ronald.blogapptdd.repository.PostRepository;
+import com.ronald.blogapptdd.repository.PostTagRepository;
+import com.ronald.blogapptdd.repository.TagRepository;
+import com.ronald.blogapptdd.service.CategoryService;
+import com.ronald.blogapptdd.service.PostCountService;
+import com.ronald.blogapptdd.service.PostService;
+import com.ronald.blogapptdd.service.TagService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "blog.counters.flush-interval=PT1H")
+class ETagServiceImplTest {
+
+    @Autowired
+    private ETagServiceImpl underTest;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostTagRepository postTagRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private PostCountService postCountService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Category category;
+
+    private Tag tag;
+
+    private Post post;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(Category.builder()
+                .name("Java")
+                .description("Java ne")
+                .build());
+        tag = tagRepository.save(Tag.builder()
+                .name("Spring")
+                .description("Spring ne")
+                .build());
+        post = postRepository.save(Post.builder()
+                .title("Post")
+                .content("Content")
+                .category(category)
+                .build());
+        postTagRepository.save(PostTag.builder()
+                .id(new PostTagKey(post.getId(), tag.getId()))
+                .post(post)
+                .tag(tag)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        postTagRepository.deleteAllInBatch();
+        postRepository.deleteAllInBatch();
+        tagRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void eTagsAreStableWhileNothingChanges() {
+        // when
+        // then
+        assertThat(underTest.getPostETag(post.getId())).isEqualTo(underTest.getPostETag(post.getId()));
+        assertThat(underTest.getPostListETag()).isEqualTo(underTest.getPostListETag());
+        assertThat(underTest.getPostETag(post.getId())).startsWith("\"").endsWith("\"");
+    }
+
+    @Test
+    void postETagChangesWhenPostOrEmbeddedTagChanges() {
+        // given
+        String initial = underTest.getPostETag(post.getId());
+
+        // when
+        postService.updatePost(post.getId(), UpdatePostRequest.builder()
+                .title("New title")
+                .content("Content")
+                .categoryId(category.getId())
+                .tagIds(List.of(tag.getId()))
+                .build());
+        String afterPostUpdate = underTest.getPostETag(post.getId());
+        tagService.updateTag(tag.getId(), UpdateTagRequest.builder()
+                .name("Spring Boot")
+                .description("Spring ne")
+                .build());
+        String afterTagUpdate = underTest.getPostETag(post.getId());
+
+        // then
+        assertThat(afterPostUpdate).isNotEqualTo(initial);
+        assertThat(afterTagUpdate).isNotEqualTo(afterPostUpdate);
+    }
+
+    @Test
+    void postETagIgnoresWritesToOtherPosts() {
+        // given
+        Post other = postRepository.save(Post.builder()
+                .title("Other post")
+                .content("Content")
+                .category(category)
+                .build());
+        String initial = underTest.getPostETag(post.getId());
+
+        // when
+        postService.updatePost(other.getId(), UpdatePostRequest.builder()
+                .title("New title")
+                .content("Content")
+                .categoryId(category.getId())
+                .build());
+
+        // then
+        assertThat(underTest.getPostETag(post.getId())).isEqualTo(initial);
+    }
+
+    @Test
+    void postListETagChangesWhenPostIsReplaced() {
+        // given
+        String initial = underTest.getPostListETag();
+
+        // when
+        postService.deletePost(post.getId());
+        postService.createPost(CreatePostRequest.builder()
+                .title("Post")
+                .content("Content")
+                .categoryId(category.getId())
+                .tagIds(List.of(tag.getId()))
+                .build());
+
+        // then
+        assertThat(underTest.getPostListETag()).isNotEqualTo(initial);
+    }
+
+    @Test
+    void listETagsIgnoreWritesThatHaveNotCommitted() {
+        // given
+        String initial = underTest.getPostListETag();
+
+        // when
+        // then
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            postService.createPost(CreatePostRequest.builder()
+                    .title("Uncommitted")
+                    .content("Content")
+                    .categoryId(category.getId())
+                    .tagIds(List.of())
+                    .build());
+            assertThat(underTest.getPostListETag()).isEqualTo(initial);
+        });
+        assertThat(underTest.getPostListETag()).isNotEqualTo(initial);
+    }
+
+    @Test
+    void categoryListETagChangesWhenCategoryIsUpdated() {
+        // given
+        String initial = underTest.getCategoryListETag();
+
+        // when
+        categoryService.updateCategory(category.getId(), UpdateCategoryRequest.builder()
+                .description("Java and the JVM")
+                .build());
+
+        // then
+        assertThat(underTest.getCategoryListETag()).isNotEqualTo(initial);
+    }
+
+    @Test
+    void tagListETagFollowsTheCounterFlushRatherThanPostWrites() {
+        // given
+        postCountService.flush();
+        String initial = underTest.getTagListETag();
+
+        // when
+        postService.createPost(CreatePostRequest.builder()
+                .title("Another post")
+                .content("Content")
+                .categoryId(category.getId())
+                .tagIds(List.of(tag.getId()))
+                .build());
+        String afterPostWrite = underTest.getTagListETag();
+        postCountService.flush();
+
+        // then
+        assertThat(afterPostWrite).isEqualTo(initial);
+        assertThat(underTest.getTagListETag()).isNotEqualTo(initial);
+    }
+}
@@ -0,0 +1,135 @@
+package com.ronald.blogapptdd.service.impl;
+
+import com.ronald.blogapptdd.config.ExecutorConfig;
+import com.ronald.blogapptdd.dto.request.UpdateTagRequest;
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.exception.UpdateConflictException;
+import com.ronald.blogapptdd.repository.TagRepository;
+import com.ronald.blogapptdd.service.TagService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class OptimisticUpdateRetrierTest {
+
+    private static final int THREADS = 8;
+
+    private static final int UPDATES_PER_THREAD = 25;
+
+    @Autowired
+    private OptimisticUpdateRetrier underTest;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    @Qualifier(ExecutorConfig.WRITE_EXECUTOR)
+    private Executor writeExecutor;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @AfterEach
+    void tearDown() {
+        tagRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void concurrentUpdatesOfOneTagAreNeverLost() throws Exception {
+        // given
+        Tag tag = tagRepository.save(Tag.builder().name("Hot").description("Hot tag").build());
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger givenUp = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+
+        // when
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            workers.add(threads.submit(() -> {
+                start.await();
+                for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                    UpdateTagRequest request = UpdateTagRequest.builder()
+                            .description("Written by " + thread + " in round " + i)
+                            .build();
+                    try {
+                        underTest.execute("tag", () -> tagService.updateTag(tag.getId(), request), writeExecutor).join();
+                        applied.incrementAndGet();
+                    } catch (CompletionException e) {
+                        assertThat(e).hasCauseInstanceOf(UpdateConflictException.class);
+                        givenUp.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(1, TimeUnit.MINUTES);
+        }
+        threads.shutdown();
+
+        // then
+        assertThat(applied.get() + givenUp.get()).isEqualTo(THREADS * UPDATES_PER_THREAD);
+        // every update that reported success moved the version; none overwrote another silently
+        Tag stored = tagRepository.findById(tag.getId()).get();
+        assertThat(stored.getVersion()).isEqualTo(tag.getVersion() + applied.get());
+    }
+
+    @Test
+    void givesUpAfterTheLastAttempt() {
+        // given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when
+        CompletableFuture<Tag> update = underTest.execute("tag", () -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Tag.class, 1L);
+        }, writeExecutor);
+
+        // then
+        assertThatThrownBy(update::join).hasCauseInstanceOf(UpdateConflictException.class);
+        assertThat(attempts.get()).isEqualTo(4);
+    }
+
+    @Test
+    void failsWhenTheExecutorRejectsARetry() {
+        // given
+        AtomicInteger submitted = new AtomicInteger();
+        Executor firstAttemptOnly = task -> {
+            if (submitted.incrementAndGet() > 1) {
+                throw new RejectedExecutionException("The write executor is saturated");
+            }
+            task.run();
+        };
+
+        // when
+        CompletableFuture<Tag> update = underTest.execute("tag", () -> {
+            throw new ObjectOptimisticLockingFailureException(Tag.class, 1L);
+        }, firstAttemptOnly);
+
+        // then
+        assertThatThrownBy(update::join).hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+}
@@ -0,0 +1,159 @@
+package com.ronald.blogapptdd.service.impl;
+
+import com.ronald.blogapptdd.dto.request.DeletePostsRequest;
+import com.ronald.blogapptdd.dto.response.PostDeleteResponseDTO;
+import com.ronald.blogapptdd.entity.Category;
+import com.ronald.blogapptdd.entity.Post;
+import com.ronald.blogapptdd.entity.PostTag;
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.entity.composite.PostTagKey;
+import com.ronald.blogapptdd.repository.CategoryRepository;
+import com.ronald.blogapptdd.repository.PostRepository;
+import com.ronald.blogapptdd.repository.PostTagRepository;
+import com.ronald.blogapptdd.repository.TagRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "blog.bulk-delete.chunk-size=2")
+class PostBulkDeleteServiceImplTest {
+
+    @Autowired
+    private PostBulkDeleteServiceImpl underTest;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostTagRepository postTagRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Category java;
+
+    private Category spring;
+
+    private Tag tag;
+
+    @BeforeEach
+    void setUp() {
+        java = categoryRepository.save(Category.builder()
+                .name("Java")
+                .description("Java ne")
+                .build());
+        spring = categoryRepository.save(Category.builder()
+                .name("Spring")
+                .description("Spring ne")
+                .build());
+        tag = tagRepository.save(Tag.builder()
+                .name("Retention")
+                .description("Retention ne")
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        postTagRepository.deleteAllInBatch();
+        postRepository.deleteAllInBatch();
+        tagRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void deletesEveryPostOfACategoryInChunks() {
+        // given
+        for (int i = 0; i < 5; i++) {
+            save("Java " + i, java);
+        }
+        Post kept = save("Spring", spring);
+
+        // when
+        PostDeleteResponseDTO result = underTest.deletePosts(DeletePostsRequest.builder()
+                .categoryId(java.getId())
+                .build());
+
+        // then
+        assertThat(result.getPostsDeleted()).isEqualTo(5);
+        assertThat(result.getPostTagsDeleted()).isEqualTo(5);
+        assertThat(result.getChunks()).hasSize(3);
+        assertThat(result.getChunks().get(2).getPostsDeleted()).isEqualTo(1);
+        assertThat(postRepository.findAll()).extracting(Post::getId).containsExactly(kept.getId());
+        assertThat(postTagRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void deletesOnlyTheGivenIdsThatMatchTheFilters() {
+        // given
+        Post first = save("First", java);
+        Post second = save("Second", spring);
+        Post third = save("Third", java);
+
+        // when
+        PostDeleteResponseDTO result = underTest.deletePosts(DeletePostsRequest.builder()
+                .ids(List.of(first.getId(), second.getId(), third.getId(), 999_999L))
+                .categoryId(java.getId())
+                .build());
+
+        // then
+        assertThat(result.getPostsDeleted()).isEqualTo(2);
+        assertThat(postRepository.findAll()).extracting(Post::getId).containsExactly(second.getId());
+    }
+
+    @Test
+    void deletesPostsCreatedInTheRange() throws InterruptedException {
+        // given
+        Post old = save("Old", java);
+        Thread.sleep(20);
+        Instant cutOff = Instant.now();
+        Thread.sleep(20);
+        save("New 1", java);
+        save("New 2", spring);
+
+        // when
+        PostDeleteResponseDTO result = underTest.deletePosts(DeletePostsRequest.builder()
+                .createdFrom(cutOff)
+                .build());
+
+        // then
+        assertThat(result.getPostsDeleted()).isEqualTo(2);
+        assertThat(postRepository.findAll()).extracting(Post::getId).containsExactly(old.getId());
+    }
+
+    @Test
+    void refusesToDeleteWithoutCriteria() {
+        // given
+        save("Post", java);
+
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.deletePosts(new DeletePostsRequest()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(postRepository.count()).isEqualTo(1);
+    }
+
+    private Post save(String title, Category category) {
+        Post post = postRepository.save(Post.builder()
+                .title(title)
+                .content("Content of " + title)
+                .category(category)
+                .build());
+        postTagRepository.save(PostTag.builder()
+                .id(new PostTagKey(post.getId(), tag.getId()))
+                .post(post)
+                .tag(tag)
+                .build());
+        return post;
+    }
+}
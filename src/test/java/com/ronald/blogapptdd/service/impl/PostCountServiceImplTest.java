@@ -0,0 +1,174 @@
+package com.ronald.blogapptdd.service.impl;
+
+import com.ronald.blogapptdd.dto.request.CreatePostRequest;
+import com.ronald.blogapptdd.dto.request.UpdatePostRequest;
+import com.ronald.blogapptdd.entity.Category;
+import com.ronald.blogapptdd.entity.Post;
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.entity.TagPostCount;
+import com.ronald.blogapptdd.repository.CategoryPostCountRepository;
+import com.ronald.blogapptdd.repository.CategoryRepository;
+import com.ronald.blogapptdd.repository.PostRepository;
+import com.ronald.blogapptdd.repository.PostTagRepository;
+import com.ronald.blogapptdd.repository.TagPostCountRepository;
+import com.ronald.blogapptdd.repository.TagRepository;
+import com.ronald.blogapptdd.service.PostService;
+import com.ronald.blogapptdd.service.TagService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// keep the scheduled flush out of the way; the tests flush explicitly
+@SpringBootTest(properties = "blog.counters.flush-interval=PT1H")
+class PostCountServiceImplTest {
+
+    @Autowired
+    private PostCountServiceImpl underTest;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostTagRepository postTagRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryPostCountRepository categoryPostCountRepository;
+
+    @Autowired
+    private TagPostCountRepository tagPostCountRepository;
+
+    private Category java;
+
+    private Category python;
+
+    private Tag spring;
+
+    private Tag django;
+
+    @BeforeEach
+    void setUp() {
+        java = categoryRepository.save(Category.builder().name("Java").description("Java ne").build());
+        python = categoryRepository.save(Category.builder().name("Python").description("Python ne").build());
+        spring = tagRepository.save(Tag.builder().name("Spring").description("Spring ne").build());
+        django = tagRepository.save(Tag.builder().name("Django").description("Django ne").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        underTest.flush();
+        categoryPostCountRepository.deleteAllInBatch();
+        tagPostCountRepository.deleteAllInBatch();
+        postTagRepository.deleteAllInBatch();
+        postRepository.deleteAllInBatch();
+        tagRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void countsIncludePendingChangesBeforeAndAfterFlush() {
+        // given
+        createPost(java, spring);
+        createPost(java, spring, django);
+
+        // when
+        Map<Long, Long> pendingCounts = underTest.getTagPostCounts(List.of(spring.getId(), django.getId()));
+        underTest.flush();
+
+        // then
+        assertThat(pendingCounts).containsEntry(spring.getId(), 2L).containsEntry(django.getId(), 1L);
+        assertThat(underTest.getTagPostCounts(List.of(spring.getId(), django.getId())))
+                .containsEntry(spring.getId(), 2L)
+                .containsEntry(django.getId(), 1L);
+        assertThat(underTest.getCategoryPostCounts(List.of(java.getId(), python.getId())))
+                .containsEntry(java.getId(), 2L)
+                .containsEntry(python.getId(), 0L);
+        assertThat(categoryPostCountRepository.findById(java.getId()).get().getPostCount()).isEqualTo(2L);
+    }
+
+    @Test
+    void updateMovesCountsBetweenCategoriesAndTags() {
+        // given
+        Post post = createPost(java, spring);
+        underTest.flush();
+
+        // when
+        postService.updatePost(post.getId(), UpdatePostRequest.builder()
+                .title("Title")
+                .content("Content")
+                .categoryId(python.getId())
+                .tagIds(List.of(django.getId()))
+                .build());
+        underTest.flush();
+
+        // then
+        assertThat(underTest.getCategoryPostCounts(List.of(java.getId(), python.getId())))
+                .containsEntry(java.getId(), 0L)
+                .containsEntry(python.getId(), 1L);
+        assertThat(underTest.getTagPostCounts(List.of(spring.getId(), django.getId())))
+                .containsEntry(spring.getId(), 0L)
+                .containsEntry(django.getId(), 1L);
+    }
+
+    @Test
+    void deletedTagLeavesNoCounterBehind() {
+        // given
+        createPost(java, spring);
+        underTest.flush();
+        createPost(python, spring, django);
+
+        // when
+        tagService.deleteTag(spring.getId());
+        underTest.flush();
+
+        // then
+        assertThat(tagPostCountRepository.findById(spring.getId())).isEmpty();
+        assertThat(tagPostCountRepository.findById(django.getId()).get().getPostCount()).isEqualTo(1L);
+        assertThat(underTest.getTagPostCounts(List.of(spring.getId()))).containsEntry(spring.getId(), 0L);
+    }
+
+    @Test
+    void reconcileRepairsDriftedCounts() {
+        // given
+        createPost(java, spring);
+        createPost(python, spring);
+        underTest.flush();
+        tagPostCountRepository.save(new TagPostCount(spring.getId(), 7));
+        tagPostCountRepository.save(new TagPostCount(django.getId(), 3));
+
+        // when
+        int repaired = underTest.reconcile();
+
+        // then
+        assertThat(repaired).isEqualTo(2);
+        assertThat(underTest.getTagPostCounts(List.of(spring.getId(), django.getId())))
+                .containsEntry(spring.getId(), 2L)
+                .containsEntry(django.getId(), 0L);
+        assertThat(underTest.reconcile()).isZero();
+    }
+
+    private Post createPost(Category category, Tag... tags) {
+        List<Long> tagIds = Arrays.stream(tags).map(Tag::getId).collect(Collectors.toList());
+        return postService.createPost(new CreatePostRequest("Title", "Content", category.getId(), tagIds));
+    }
+}
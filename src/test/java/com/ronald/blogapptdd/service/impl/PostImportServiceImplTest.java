@@ -0,0 +1,135 @@
+package com.ronald.blogapptdd.service.impl;
+
+import com.ronald.blogapptdd.dto.response.ImportChunkResultDTO;
+import com.ronald.blogapptdd.dto.response.PostImportResponseDTO;
+import com.ronald.blogapptdd.entity.Category;
+import com.ronald.blogapptdd.entity.Post;
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.repository.CategoryRepository;
+import com.ronald.blogapptdd.repository.PostRepository;
+import com.ronald.blogapptdd.repository.PostTagRepository;
+import com.ronald.blogapptdd.repository.TagRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "blog.bulk-import.chunk-size=2",
+        "blog.bulk-import.max-reported-chunks=2",
+        "blog.bulk-import.max-record-size=1KB"
+})
+class PostImportServiceImplTest {
+
+    @Autowired
+    private PostImportServiceImpl underTest;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostTagRepository postTagRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Category category;
+
+    private Tag tag;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(Category.builder()
+                .name("Java")
+                .description("Java ne")
+                .build());
+        tag = tagRepository.save(Tag.builder()
+                .name("Spring")
+                .description("Spring ne")
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        postTagRepository.deleteAllInBatch();
+        postRepository.deleteAllInBatch();
+        tagRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void canImportPostsInChunksAndReportBadRecords() throws Exception {
+        // given
+        String ndjson = String.join("\n",
+                record("Post 1", category.getId(), tag.getId()),
+                record("Post 2", category.getId(), tag.getId()),
+                "{not json",
+                "",
+                record("Post 3", 999L, tag.getId()),
+                record("Post 4", category.getId(), null));
+
+        // when
+        PostImportResponseDTO result = underTest.importPosts(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        // then
+        assertThat(result.getRecords()).isEqualTo(5);
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getChunks()).hasSize(2);
+        assertThat(result.isChunksTruncated()).isFalse();
+        assertThat(result.getChunks().get(0).getImported()).isEqualTo(2);
+        assertThat(result.getChunks().get(1).getImported()).isEqualTo(1);
+        assertThat(result.getChunks().get(1).getFailed()).isEqualTo(1);
+        assertThat(result.getErrors()).hasSize(2);
+        assertThat(result.getErrors().get(0).getLine()).isEqualTo(3);
+        assertThat(result.getErrors().get(1).getLine()).isEqualTo(5);
+        assertThat(result.getErrors().get(1).getMessage()).contains("Category not found");
+
+        List<Post> posts = postRepository.findAll();
+        assertThat(posts).hasSize(3);
+        assertThat(postTagRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void skipsRecordsOverTheMaximumSizeAndListsTheFirstChunksOnly() throws Exception {
+        // given
+        String ndjson = String.join("\n",
+                record("Post 1", category.getId(), tag.getId()),
+                record("x".repeat(2000), category.getId(), tag.getId()),
+                record("Post 2", category.getId(), tag.getId()),
+                record("Post 3", category.getId(), tag.getId()),
+                record("Post 4", category.getId(), tag.getId()),
+                record("Post 5", category.getId(), tag.getId()));
+
+        // when
+        PostImportResponseDTO result = underTest.importPosts(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        // then
+        assertThat(result.getRecords()).isEqualTo(6);
+        assertThat(result.getImported()).isEqualTo(5);
+        assertThat(result.getErrors()).hasSize(1);
+        assertThat(result.getErrors().get(0).getLine()).isEqualTo(2);
+        assertThat(result.getErrors().get(0).getMessage()).contains("Record longer than");
+        assertThat(result.getChunks()).extracting(ImportChunkResultDTO::getChunk).containsExactly(1, 2);
+        assertThat(result.isChunksTruncated()).isTrue();
+        assertThat(postRepository.count()).isEqualTo(5);
+    }
+
+    private String record(String title, Long categoryId, Long tagId) {
+        String tagIds = tagId == null ? "[]" : "[" + tagId + "]";
+        return "{\"title\":\"" + title + "\",\"content\":\"Content of " + title + "\","
+                + "\"categoryId\":" + categoryId + ",\"tagIds\":" + tagIds + "}";
+    }
+}
@@ -0,0 +1,269 @@
+package com.ronald.blogapptdd.service.impl;
+
+import com.ronald.blogapptdd.cache.ReferenceDataSnapshot;
+import com.ronald.blogapptdd.dto.request.CreateTagRequest;
+import com.ronald.blogapptdd.dto.request.UpdatePostRequest;
+import com.ronald.blogapptdd.dto.response.CursorPageResponseDTO;
+import com.ronald.blogapptdd.dto.response.PostResponseDTO;
+import com.ronald.blogapptdd.dto.response.PostSummaryDTO;
+import com.ronald.blogapptdd.entity.Category;
+import com.ronald.blogapptdd.entity.Post;
+import com.ronald.blogapptdd.entity.PostTag;
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.entity.composite.PostTagKey;
+import com.ronald.blogapptdd.repository.CategoryRepository;
+import com.ronald.blogapptdd.repository.PostRepository;
+import com.ronald.blogapptdd.repository.PostTagRepository;
+import com.ronald.blogapptdd.repository.TagRepository;
+import com.ronald.blogapptdd.service.TagService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PostServiceImplQueryCountTest {
+
+    private static final int POST_COUNT = 100;
+
+    @Autowired
+    private PostServiceImpl underTest;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostTagRepository postTagRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private ReferenceDataSnapshot referenceDataSnapshot;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Long firstPostId;
+
+    private List<Tag> tags;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Category category = categoryRepository.save(Category.builder()
+                .name("Java")
+                .description("Java ne")
+                .build());
+        tags = tagRepository.saveAll(List.of(
+                Tag.builder().name("Spring").description("Spring ne").build(),
+                Tag.builder().name("JPA").description("JPA ne").build(),
+                Tag.builder().name("Hibernate").description("Hibernate ne").build()));
+
+        for (int i = 0; i < POST_COUNT; i++) {
+            Post post = postRepository.save(Post.builder()
+                    .title("Post " + i)
+                    .content("Content " + i)
+                    .category(category)
+                    .build());
+            if (firstPostId == null) {
+                firstPostId = post.getId();
+            }
+            List<PostTag> postTags = tags.stream()
+                    .map(tag -> PostTag.builder()
+                            .id(new PostTagKey(post.getId(), tag.getId()))
+                            .post(post)
+                            .tag(tag)
+                            .build())
+                    .collect(Collectors.toList());
+            postTagRepository.saveAll(postTags);
+        }
+
+        // rows written through the repositories bypass the change events
+        referenceDataSnapshot.reload();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        postTagRepository.deleteAllInBatch();
+        postRepository.deleteAllInBatch();
+        tagRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+        firstPostId = null;
+    }
+
+    @Test
+    void getPostPageOfHundredPostsUsesTwoStatements() {
+        // when
+        CursorPageResponseDTO<PostResponseDTO> page = underTest.getPostPage(null, POST_COUNT);
+
+        // then
+        assertThat(page.getItems()).hasSize(POST_COUNT);
+        page.getItems().forEach(post -> {
+            assertThat(post.getCategory().getName()).isEqualTo("Java");
+            assertThat(post.getTags()).hasSize(3);
+        });
+        // keyset id query + one fetch-join query for posts, categories and tags
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void getPostSummaryPageOfHundredPostsUsesThreeStatements() {
+        // when
+        CursorPageResponseDTO<PostSummaryDTO> page = underTest.getPostSummaryPage(null, POST_COUNT, false);
+
+        // then
+        assertThat(page.getItems()).hasSize(POST_COUNT);
+        page.getItems().forEach(post -> {
+            assertThat(post.getCategoryName()).isEqualTo("Java");
+            assertThat(post.getTagNames()).containsExactly("Hibernate", "JPA", "Spring");
+            assertThat(post.getExcerpt()).isNull();
+        });
+        // keyset id query + summary rows + tag names
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void getPostSummaryPageWithExcerptCutsContentInDatabase() {
+        // given
+        Post longPost = postRepository.findById(firstPostId).orElseThrow();
+        longPost.setContent("x".repeat(PostRepository.SUMMARY_EXCERPT_LENGTH + 50));
+        postRepository.save(longPost);
+
+        // when
+        CursorPageResponseDTO<PostSummaryDTO> page = underTest.getPostSummaryPage(null, POST_COUNT, true);
+
+        // then
+        page.getItems().forEach(post -> {
+            if (post.getId().equals(firstPostId)) {
+                assertThat(post.getExcerpt()).hasSize(PostRepository.SUMMARY_EXCERPT_LENGTH);
+            } else {
+                assertThat(post.getExcerpt()).startsWith("Content ");
+            }
+        });
+    }
+
+    @Test
+    void updatePostWithUnchangedTagsOnlyLoadsThePost() {
+        // given
+        UpdatePostRequest request = UpdatePostRequest.builder()
+                .title("Post 0")
+                .content("Content 0")
+                .categoryId(categoryRepository.findAll().get(0).getId())
+                .tagIds(tags.stream().map(Tag::getId).collect(Collectors.toList()))
+                .build();
+        statistics.clear();
+
+        // when
+        PostResponseDTO updatedPost = underTest.updatePost(firstPostId, request);
+
+        // then
+        assertThat(updatedPost.getTags()).hasSize(3);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void updatePostWritesOnlyTheTagDifference() {
+        // given
+        Tag extraTag = tagService.createTag(CreateTagRequest.builder().name("JDBC").description("JDBC ne").build());
+        UpdatePostRequest request = UpdatePostRequest.builder()
+                .title("Post 0")
+                .content("Content 0")
+                .categoryId(categoryRepository.findAll().get(0).getId())
+                .tagIds(List.of(tags.get(0).getId(), tags.get(1).getId(), extraTag.getId()))
+                .build();
+        statistics.clear();
+
+        // when
+        PostResponseDTO updatedPost = underTest.updatePost(firstPostId, request);
+
+        // then
+        assertThat(updatedPost.getTags()).extracting(Tag::getName).containsOnly("Spring", "JPA", "JDBC");
+        // load + one delete + one insert + post version bump; the added tag comes from the snapshot
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+        assertThat(postTagRepository.findAllWithTagByPostIdIn(List.of(firstPostId))).hasSize(3);
+    }
+
+    @Test
+    void getAllPostsUsesOneStatement() {
+        // when
+        List<PostResponseDTO> allPosts = underTest.getAllPosts();
+
+        // then
+        assertThat(allPosts).hasSize(POST_COUNT);
+        allPosts.forEach(post -> assertThat(post.getTags()).hasSize(3));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getPostDetailUsesOneStatement() {
+        // when
+        PostResponseDTO postDetail = underTest.getPostDetail(firstPostId);
+
+        // then
+        assertThat(postDetail.getCategory().getName()).isEqualTo("Java");
+        assertThat(postDetail.getTags()).hasSize(3);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void exportPostsOfHundredPostsUsesTwoStatements() {
+        // given
+        List<PostResponseDTO> exported = new ArrayList<>();
+
+        // when
+        underTest.exportPosts(exported::add);
+
+        // then
+        assertThat(exported).hasSize(POST_COUNT);
+        exported.forEach(post -> {
+            assertThat(post.getCategory().getName()).isEqualTo("Java");
+            assertThat(post.getTags()).hasSize(3);
+        });
+        // streamed posts with categories + one tag query per export batch
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void deletePostWithTagsUsesTwoStatements() {
+        // when
+        underTest.deletePost(firstPostId);
+
+        // then
+        // version rows for the change event + one delete; the post_tag rows cascade in the database
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(postRepository.existsById(firstPostId)).isFalse();
+        assertThat(postTagRepository.count()).isEqualTo((POST_COUNT - 1) * 3L);
+    }
+
+    @Test
+    void deleteTagOfEveryPostUsesOneStatement() {
+        // when
+        tagService.deleteTag(tags.get(0).getId());
+
+        // then
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(postTagRepository.count()).isEqualTo(POST_COUNT * 2L);
+    }
+}
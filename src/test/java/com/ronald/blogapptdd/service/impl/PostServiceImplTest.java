@@ -1,36 +1,55 @@
 package com.ronald.blogapptdd.service.impl;
 
+import com.ronald.blogapptdd.cache.PostDetailCache;
+import com.ronald.blogapptdd.cache.ReferenceDataSnapshot;
 import com.ronald.blogapptdd.dto.request.CreatePostRequest;
 import com.ronald.blogapptdd.dto.request.UpdatePostRequest;
+import com.ronald.blogapptdd.dto.response.CursorPageResponseDTO;
 import com.ronald.blogapptdd.dto.response.PostResponseDTO;
+import com.ronald.blogapptdd.dto.response.PostSearchResultDTO;
+import com.ronald.blogapptdd.dto.response.PostSummaryDTO;
 import com.ronald.blogapptdd.entity.Category;
 import com.ronald.blogapptdd.entity.Post;
 import com.ronald.blogapptdd.entity.PostTag;
 import com.ronald.blogapptdd.entity.Tag;
 import com.ronald.blogapptdd.entity.composite.PostTagKey;
 import com.ronald.blogapptdd.exception.CategoryNotFoundException;
+import com.ronald.blogapptdd.exception.InvalidCursorException;
 import com.ronald.blogapptdd.exception.PostNotFoundException;
 import com.ronald.blogapptdd.repository.CategoryRepository;
 import com.ronald.blogapptdd.repository.PostRepository;
 import com.ronald.blogapptdd.repository.PostTagRepository;
 import com.ronald.blogapptdd.repository.TagRepository;
+import com.ronald.blogapptdd.repository.projection.PostSummaryRow;
+import com.ronald.blogapptdd.repository.projection.PostTagName;
+import com.ronald.blogapptdd.repository.projection.PostVersionRow;
+import com.ronald.blogapptdd.search.PostSearchIndex;
+import com.ronald.blogapptdd.search.TagMatch;
+import com.ronald.blogapptdd.search.TagPostIndex;
+import com.ronald.blogapptdd.utils.PostCursor;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 
@@ -51,28 +70,53 @@ class PostServiceImplTest {
     @MockBean
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private PostDetailCache postDetailCache;
+
+    @Autowired
+    private PostSearchIndex postSearchIndex;
+
+    @SpyBean
+    private TagPostIndex tagPostIndex;
+
+    @Autowired
+    private ReferenceDataSnapshot referenceDataSnapshot;
+
     @BeforeEach
     void setUp() {
+        postDetailCache.invalidateAll();
+        postSearchIndex.rebuild(Stream.empty());
+        tagPostIndex.rebuild(Stream.empty());
+        // empty snapshot, so category and tag lookups fall through to the mocked repositories
+        referenceDataSnapshot.reload();
+        // the search indexes read all posts once the context is ready
+        clearInvocations(postRepository, postTagRepository, categoryRepository, tagRepository);
     }
 
     @Test
     public void canCreatePostWithExistingTagsAndCategory() {
         // given
         CreatePostRequest request = new CreatePostRequest("Test Title", "Test Content", 1L, Arrays.asList(1L, 2L));
-        Category category = new Category(1L, "Test Category", "Test Description", new Timestamp(System.currentTimeMillis()));
-        given(categoryRepository.findById(1L)).willReturn(Optional.of(category));
-        given(tagRepository.findById(1L)).willReturn(Optional.of(Tag.builder()
+        Category category = Category.builder()
                 .id(1L)
-                .name("K8s Series")
-                .description("New series")
-                .createdAt(new Timestamp(System.currentTimeMillis()))
-                .build()));
-        given(tagRepository.findById(2L)).willReturn(Optional.of(Tag.builder()
-                .id(2L)
-                .name("K8s Series 2")
-                .description("New series 2")
+                .name("Test Category")
+                .description("Test Description")
                 .createdAt(new Timestamp(System.currentTimeMillis()))
-                .build()));
+                .build();
+        given(categoryRepository.findById(1L)).willReturn(Optional.of(category));
+        given(tagRepository.findByIdIn(Arrays.asList(1L, 2L))).willReturn(Arrays.asList(
+                Tag.builder()
+                        .id(1L)
+                        .name("K8s Series")
+                        .description("New series")
+                        .createdAt(new Timestamp(System.currentTimeMillis()))
+                        .build(),
+                Tag.builder()
+                        .id(2L)
+                        .name("K8s Series 2")
+                        .description("New series 2")
+                        .createdAt(new Timestamp(System.currentTimeMillis()))
+                        .build()));
 
 
         PostTag postTag1 = PostTag.builder()
@@ -103,9 +147,14 @@ class PostServiceImplTest {
         assertThat(result.getContent()).isEqualTo("Test Content");
         assertThat(result.getCategory()).isEqualTo(category);
         assertThat(result.getPostTags()).hasSize(2);
+        assertThat(result.getPostTags().get(0).getId().getPostId()).isEqualTo(1L);
+        assertThat(result.getPostTags().get(0).getId().getTagId()).isEqualTo(1L);
+        assertThat(result.getPostTags().get(1).getId().getPostId()).isEqualTo(1L);
+        assertThat(result.getPostTags().get(1).getId().getTagId()).isEqualTo(2L);
 
         verify(categoryRepository, times(1)).findById(1L);
-        verify(tagRepository, times(2)).findById(any());
+        verify(tagRepository, times(1)).findByIdIn(Arrays.asList(1L, 2L));
+        verify(tagRepository, never()).findById(any());
         verify(postRepository, times(1)).save(any(Post.class));
         verify(postTagRepository, times(1)).saveAll(anyList());
     }
@@ -164,8 +213,8 @@ class PostServiceImplTest {
 
         verify(categoryRepository, times(1)).findById(1L);
         verify(postRepository, times(1)).save(any(Post.class));
-        verify(tagRepository, times(2)).findById(any());
-        verifyNoMoreInteractions(categoryRepository, postRepository, postTagRepository);
+        verify(tagRepository, times(1)).findByIdIn(Arrays.asList(99L, 100L));
+        verifyNoMoreInteractions(categoryRepository, tagRepository, postRepository, postTagRepository);
     }
 
     @Test
@@ -206,6 +255,7 @@ class PostServiceImplTest {
 
         verify(categoryRepository, times(1)).findById(1L);
         verify(postRepository, times(1)).save(any(Post.class));
+        verifyNoInteractions(tagRepository, postTagRepository);
     }
 
     @Test
@@ -231,7 +281,7 @@ class PostServiceImplTest {
                 .createdAt(new Timestamp(System.currentTimeMillis()))
                 .postTags(new ArrayList<>())
                 .build();
-        given(postRepository.findAll()).willReturn(Arrays.asList(post1, post2));
+        given(postRepository.findAllWithCategoryAndTags()).willReturn(Arrays.asList(post1, post2));
 
         // when
         List<PostResponseDTO> allPosts = underTest.getAllPosts();
@@ -248,7 +298,7 @@ class PostServiceImplTest {
         assertThat(allPosts.get(1).getCategory().getName()).isEqualTo("Test Category");
         assertThat(allPosts.get(1).getTags()).isEmpty();
 
-        verify(postRepository, times(1)).findAll();
+        verify(postRepository, times(1)).findAllWithCategoryAndTags();
     }
 
     @Test
@@ -303,7 +353,7 @@ class PostServiceImplTest {
         post1.setPostTags(Arrays.asList(postTag1, postTag2));
         post2.setPostTags(Arrays.asList(postTag3));
 
-        given(postRepository.findAll()).willReturn(Arrays.asList(post1, post2));
+        given(postRepository.findAllWithCategoryAndTags()).willReturn(Arrays.asList(post1, post2));
 
         // when
         List<PostResponseDTO> allPosts = underTest.getAllPosts();
@@ -323,7 +373,7 @@ class PostServiceImplTest {
         assertThat(allPosts.get(1).getTags()).hasSize(1);
         assertThat(allPosts.get(1).getTags().get(0).getName()).isEqualTo("Test Tag 1");
 
-        verify(postRepository, times(1)).findAll();
+        verify(postRepository, times(1)).findAllWithCategoryAndTags();
     }
 
     @Test
@@ -376,7 +426,7 @@ class PostServiceImplTest {
                 .build();
         post.setPostTags(Arrays.asList(postTag, postTag2));
 
-        given(postRepository.findById(1L)).willReturn(Optional.of(post));
+        given(postRepository.findWithCategoryAndTagsById(1L)).willReturn(Optional.of(post));
 
         Post savedPost = Post.builder()
                 .id(1L)
@@ -401,10 +451,113 @@ class PostServiceImplTest {
         assertThat(updatedPost.getTags()).hasSize(1);
         assertThat(updatedPost.getTags().get(0).getName()).isEqualTo("Test Tag");
 
-        verify(postRepository, times(1)).findById(1L);
+        verify(postRepository, times(1)).findWithCategoryAndTagsById(1L);
         verify(postRepository, times(1)).save(any(Post.class));
     }
 
+    @Test
+    public void updatePostWithUnchangedTagsDoesNotWriteTags() {
+        // given
+        Category category = Category.builder()
+                .id(1L)
+                .name("Test Category")
+                .build();
+        Post post = Post.builder()
+                .id(1L)
+                .title("Test Post")
+                .content("This is a test post")
+                .category(category)
+                .build();
+        post.setPostTags(new ArrayList<>(Arrays.asList(
+                PostTag.builder().id(new PostTagKey(1L, 1L)).post(post).tag(Tag.builder().id(1L).build()).build(),
+                PostTag.builder().id(new PostTagKey(1L, 2L)).post(post).tag(Tag.builder().id(2L).build()).build())));
+        given(postRepository.findWithCategoryAndTagsById(1L)).willReturn(Optional.of(post));
+        given(postRepository.save(post)).willReturn(post);
+        UpdatePostRequest request = UpdatePostRequest.builder()
+                .title("Test Post")
+                .content("This is a test post")
+                .categoryId(1L)
+                .tagIds(Arrays.asList(2L, 1L))
+                .build();
+
+        // when
+        PostResponseDTO updatedPost = underTest.updatePost(1L, request);
+
+        // then
+        assertThat(updatedPost.getTags()).hasSize(2);
+        verifyNoInteractions(postTagRepository, tagRepository);
+    }
+
+    @Test
+    public void updatePostWithoutTagIdsKeepsTheTags() {
+        // given
+        Category category = Category.builder()
+                .id(1L)
+                .name("Test Category")
+                .build();
+        Post post = Post.builder()
+                .id(1L)
+                .title("Test Post")
+                .content("This is a test post")
+                .category(category)
+                .build();
+        post.setPostTags(new ArrayList<>(List.of(
+                PostTag.builder().id(new PostTagKey(1L, 1L)).post(post).tag(Tag.builder().id(1L).build()).build())));
+        given(postRepository.findWithCategoryAndTagsById(1L)).willReturn(Optional.of(post));
+        given(postRepository.save(post)).willReturn(post);
+        UpdatePostRequest request = UpdatePostRequest.builder()
+                .title("Test Post Updated")
+                .content("This is a test post")
+                .categoryId(1L)
+                .build();
+
+        // when
+        PostResponseDTO updatedPost = underTest.updatePost(1L, request);
+
+        // then
+        assertThat(updatedPost.getTitle()).isEqualTo("Test Post Updated");
+        assertThat(updatedPost.getTags()).extracting(Tag::getId).containsExactly(1L);
+        verifyNoInteractions(postTagRepository, tagRepository);
+    }
+
+    @Test
+    public void updatePostWritesOnlyTheTagDifference() {
+        // given
+        Category category = Category.builder()
+                .id(1L)
+                .name("Test Category")
+                .build();
+        Post post = Post.builder()
+                .id(1L)
+                .title("Test Post")
+                .content("This is a test post")
+                .category(category)
+                .build();
+        post.setPostTags(new ArrayList<>(Arrays.asList(
+                PostTag.builder().id(new PostTagKey(1L, 1L)).post(post).tag(Tag.builder().id(1L).build()).build(),
+                PostTag.builder().id(new PostTagKey(1L, 2L)).post(post).tag(Tag.builder().id(2L).build()).build())));
+        given(postRepository.findWithCategoryAndTagsById(1L)).willReturn(Optional.of(post));
+        given(postRepository.save(post)).willReturn(post);
+        given(tagRepository.findByIdIn(List.of(3L))).willReturn(List.of(Tag.builder().id(3L).build()));
+        UpdatePostRequest request = UpdatePostRequest.builder()
+                .title("Test Post")
+                .content("This is a test post")
+                .categoryId(1L)
+                .tagIds(Arrays.asList(2L, 3L))
+                .build();
+
+        // when
+        PostResponseDTO updatedPost = underTest.updatePost(1L, request);
+
+        // then
+        assertThat(updatedPost.getTags()).extracting(Tag::getId).containsExactly(2L, 3L);
+        assertThat(post.getUpdatedAt()).isNotNull();
+        verify(postTagRepository, times(1)).deleteByPostIdAndTagIdIn(1L, Set.of(1L));
+        verify(tagRepository, times(1)).findByIdIn(List.of(3L));
+        verify(postTagRepository, times(1)).saveAll(anyList());
+        verify(postTagRepository, never()).deleteAll(anyList());
+    }
+
     @Test
     public void updatePostWhenPostNotFoundThenThrowException() {
         // given
@@ -415,7 +568,7 @@ class PostServiceImplTest {
                 .tagIds(Arrays.asList(1L))
                 .build();
 
-        given(postRepository.findById(1L)).willReturn(Optional.empty());
+        given(postRepository.findWithCategoryAndTagsById(1L)).willReturn(Optional.empty());
 
         // when
         // then
@@ -423,7 +576,7 @@ class PostServiceImplTest {
                 .isInstanceOf(PostNotFoundException.class)
                 .hasMessage("Post not found");
 
-        verify(postRepository, times(1)).findById(1L);
+        verify(postRepository, times(1)).findWithCategoryAndTagsById(1L);
         verify(postRepository, times(0)).save(any(Post.class));
     }
 
@@ -464,7 +617,7 @@ class PostServiceImplTest {
                 .build();
         post.setPostTags(Arrays.asList(postTag, postTag2));
 
-        given(postRepository.findById(1L)).willReturn(Optional.of(post));
+        given(postRepository.findWithCategoryAndTagsById(1L)).willReturn(Optional.of(post));
 
         // when
         PostResponseDTO postDetail = underTest.getPostDetail(1L);
@@ -478,13 +631,55 @@ class PostServiceImplTest {
         assertThat(postDetail.getTags().get(0).getName()).isEqualTo("Test Tag");
         assertThat(postDetail.getTags().get(1).getName()).isEqualTo("Test Tag 2");
 
-        verify(postRepository, times(1)).findById(1L);
+        verify(postRepository, times(1)).findWithCategoryAndTagsById(1L);
+    }
+
+    @Test
+    public void getPostDetailIsServedFromCacheUntilPostIsUpdated() {
+        // given
+        Category category = Category.builder()
+                .id(1L)
+                .name("Test Category")
+                .build();
+
+        Post post = Post.builder()
+                .id(1L)
+                .title("Test Post")
+                .content("This is a test post")
+                .category(category)
+                .createdAt(new Timestamp(System.currentTimeMillis()))
+                .postTags(new ArrayList<>())
+                .build();
+        given(postRepository.findWithCategoryAndTagsById(1L)).willReturn(Optional.of(post));
+        given(postRepository.save(any(Post.class))).willReturn(post);
+
+        UpdatePostRequest request = UpdatePostRequest.builder()
+                .title("Test Post Updated")
+                .content("This is a test post")
+                .categoryId(1L)
+                .tagIds(new ArrayList<>())
+                .build();
+
+        // when
+        underTest.getPostDetail(1L);
+        underTest.getPostDetail(1L);
+
+        // then
+        verify(postRepository, times(1)).findWithCategoryAndTagsById(1L);
+
+        // when
+        underTest.updatePost(1L, request);
+        PostResponseDTO postDetail = underTest.getPostDetail(1L);
+
+        // then
+        assertThat(postDetail.getTitle()).isEqualTo("Test Post Updated");
+        verify(postRepository, times(3)).findWithCategoryAndTagsById(1L);
     }
 
     @Test
     public void getPostDetailNotFoundPostException() {
         // given
-        given(postRepository.findById(1L)).willReturn(Optional.empty());
+        given(postRepository.findWithCategoryAndTagsById(1L)).willReturn(Optional.empty());
 
         // when
         // then
@@ -492,61 +687,299 @@ class PostServiceImplTest {
                 .isInstanceOf(PostNotFoundException.class)
                 .hasMessage("Post not found");
 
-        verify(postRepository, times(1)).findById(1L);
+        verify(postRepository, times(1)).findWithCategoryAndTagsById(1L);
     }
 
     @Test
     public void deletePost() {
+        // given
+        given(postRepository.findVersionRowsById(1L)).willReturn(List.of(versionRow(1L, 1L), versionRow(1L, 2L)));
+
+        // when
+        underTest.deletePost(1L);
+
+        // then
+        // one statement, the post_tag rows go with the post in the database
+        verify(postRepository, times(1)).deleteByIdIn(List.of(1L));
+        verify(postRepository, never()).findById(any());
+        verifyNoInteractions(postTagRepository);
+    }
+
+    @Test
+    public void deleteMissingPostThrowsException() {
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.deletePost(1L))
+                .isInstanceOf(PostNotFoundException.class);
+
+        verify(postRepository, never()).deleteByIdIn(any());
+    }
+
+    @Test
+    public void getFirstPostPageReturnsNextCursorWhenMoreRowsExist() {
         // given
         Category category = Category.builder()
                 .id(1L)
                 .name("Test Category")
-                .description("Test Category Description")
-                .createdAt(new Timestamp(System.currentTimeMillis()))
                 .build();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Post post3 = Post.builder().id(3L).title("Test Post 3").category(category)
+                .createdAt(now).postTags(new ArrayList<>()).build();
+        Post post2 = Post.builder().id(2L).title("Test Post 2").category(category)
+                .createdAt(now).postTags(new ArrayList<>()).build();
+        given(postRepository.findFirstPageIds(any(Pageable.class)))
+                .willReturn(new ArrayList<>(Arrays.asList(3L, 2L, 1L)));
+        given(postRepository.findAllWithCategoryAndTagsByIdIn(List.of(3L, 2L)))
+                .willReturn(Arrays.asList(post2, post3));
 
-        Tag tag = Tag.builder()
+        // when
+        CursorPageResponseDTO<PostResponseDTO> page = underTest.getPostPage(null, 2);
+
+        // then
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.getSize()).isEqualTo(2);
+        assertThat(page.getItems().get(0).getId()).isEqualTo(3L);
+        assertThat(page.getItems().get(1).getId()).isEqualTo(2L);
+        assertThat(page.getNextCursor()).isNotNull();
+        assertThat(PostCursor.decode(page.getNextCursor())).isEqualTo(new PostCursor(now, 2L));
+
+        verify(postRepository, times(1)).findFirstPageIds(any(Pageable.class));
+        verify(postRepository, times(1)).findAllWithCategoryAndTagsByIdIn(List.of(3L, 2L));
+        verify(postRepository, never()).findAll();
+    }
+
+    @Test
+    public void getPostPageAfterCursorReturnsLastPage() {
+        // given
+        Category category = Category.builder()
                 .id(1L)
-                .name("Test Tag")
-                .description("Test Tag Description")
-                .createdAt(new Timestamp(System.currentTimeMillis()))
-                .build();
-        Tag tag2 = Tag.builder()
-                .id(2L)
-                .name("Test Tag 2")
-                .description("Test Tag 2 Description")
-                .createdAt(new Timestamp(System.currentTimeMillis()))
+                .name("Test Category")
                 .build();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Post post1 = Post.builder().id(1L).title("Test Post 1").category(category)
+                .createdAt(now).postTags(new ArrayList<>()).build();
+        String cursor = PostCursor.encode(now, 2L);
+        given(postRepository.findPageIdsAfter(eq(now), eq(2L), any(Pageable.class)))
+                .willReturn(new ArrayList<>(List.of(1L)));
+        given(postRepository.findAllWithCategoryAndTagsByIdIn(List.of(1L)))
+                .willReturn(List.of(post1));
 
-        Post post = Post.builder()
+        // when
+        CursorPageResponseDTO<PostResponseDTO> page = underTest.getPostPage(cursor, 2);
+
+        // then
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.getItems().get(0).getId()).isEqualTo(1L);
+        assertThat(page.getNextCursor()).isNull();
+
+        verify(postRepository, times(1)).findPageIdsAfter(eq(now), eq(2L), any(Pageable.class));
+    }
+
+    @Test
+    public void getPostSummaryPageReturnsNamesWithoutLoadingPosts() {
+        // given
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        given(postRepository.findFirstPageIds(any(Pageable.class)))
+                .willReturn(new ArrayList<>(Arrays.asList(3L, 2L, 1L)));
+        given(postRepository.findSummariesByIdIn(List.of(3L, 2L)))
+                .willReturn(Arrays.asList(
+                        new PostSummaryRow(2L, "Test Post 2", "Test Category", now),
+                        new PostSummaryRow(3L, "Test Post 3", "Test Category", now)));
+        given(postTagRepository.findTagNamesByPostIdIn(List.of(3L, 2L)))
+                .willReturn(Arrays.asList(tagName(3L, "Java"), tagName(3L, "Spring")));
+
+        // when
+        CursorPageResponseDTO<PostSummaryDTO> page = underTest.getPostSummaryPage(null, 2, false);
+
+        // then
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.getItems().get(0).getId()).isEqualTo(3L);
+        assertThat(page.getItems().get(0).getTagNames()).containsExactly("Java", "Spring");
+        assertThat(page.getItems().get(1).getId()).isEqualTo(2L);
+        assertThat(page.getItems().get(1).getTagNames()).isEmpty();
+        assertThat(PostCursor.decode(page.getNextCursor())).isEqualTo(new PostCursor(now, 2L));
+
+        verify(postRepository, never()).findAllWithCategoryAndTagsByIdIn(anyList());
+        verify(postRepository, never()).findSummariesWithExcerptByIdIn(anyList());
+    }
+
+    @Test
+    public void getPostPageWithInvalidCursorThrowException() {
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.getPostPage("not-a-cursor", 2))
+                .isInstanceOf(InvalidCursorException.class);
+
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    public void searchPostsReturnsIndexedPostsBestMatchFirst() {
+        // given
+        Category category = Category.builder()
                 .id(1L)
-                .title("Test Post")
-                .content("This is a test post")
-                .category(category)
-                .createdAt(new Timestamp(System.currentTimeMillis()))
-                .postTags(new ArrayList<>())
+                .name("Test Category")
                 .build();
+        Post post1 = Post.builder().id(1L).title("Spring Boot").content("Spring and Java").category(category)
+                .postTags(new ArrayList<>()).build();
+        Post post2 = Post.builder().id(2L).title("Python").content("A word about Java").category(category)
+                .postTags(new ArrayList<>()).build();
+        postSearchIndex.index(1L, post1.getTitle(), post1.getContent());
+        postSearchIndex.index(2L, post2.getTitle(), post2.getContent());
+        postSearchIndex.index(3L, "Kubernetes", "Containers");
+        given(postRepository.findAllWithCategoryAndTagsByIdIn(List.of(1L, 2L)))
+                .willReturn(Arrays.asList(post2, post1));
 
-        PostTag postTag = PostTag.builder()
-                .id(new PostTagKey(1L, 1L))
-                .post(post)
-                .tag(tag)
+        // when
+        List<PostSearchResultDTO> results = underTest.searchPosts("spring java", 10);
+
+        // then
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).getPost().getId()).isEqualTo(1L);
+        assertThat(results.get(1).getPost().getId()).isEqualTo(2L);
+        assertThat(results.get(0).getScore()).isGreaterThan(results.get(1).getScore());
+
+        verify(postRepository, times(1)).findAllWithCategoryAndTagsByIdIn(List.of(1L, 2L));
+    }
+
+    @Test
+    public void searchPostsWithoutMatchesDoesNotQueryPosts() {
+        // when
+        List<PostSearchResultDTO> results = underTest.searchPosts("nothing", null);
+
+        // then
+        assertThat(results).isEmpty();
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    public void getPostPageByTagsReturnsNewestPostsWithBothTags() {
+        // given
+        Category category = Category.builder()
+                .id(1L)
+                .name("Test Category")
                 .build();
-        PostTag postTag2 = PostTag.builder()
-                .id(new PostTagKey(1L, 2L))
-                .post(post)
-                .tag(tag2)
+        tagPostIndex.add(10L, 1L);
+        tagPostIndex.add(10L, 2L);
+        tagPostIndex.add(10L, 3L);
+        tagPostIndex.add(20L, 2L);
+        tagPostIndex.add(20L, 3L);
+        Post post3 = Post.builder().id(3L).title("Test Post 3").category(category)
+                .postTags(new ArrayList<>()).build();
+        given(postRepository.findAllWithCategoryAndTagsByIdIn(List.of(3L)))
+                .willReturn(List.of(post3));
+
+        // when
+        CursorPageResponseDTO<PostResponseDTO> page = underTest.getPostPageByTags(List.of(10L, 20L), TagMatch.ALL, null, 1);
+
+        // then
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.getItems().get(0).getId()).isEqualTo(3L);
+        assertThat(page.getNextCursor()).isEqualTo("3");
+        verify(postRepository, times(1)).findAllWithCategoryAndTagsByIdIn(List.of(3L));
+    }
+
+    @Test
+    public void getPostPageByTagsOrdersThePageById() {
+        // given
+        // post 1 got the lower id but was created after post 2
+        Category category = Category.builder()
+                .id(1L)
+                .name("Test Category")
                 .build();
-        post.setPostTags(Arrays.asList(postTag, postTag2));
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        tagPostIndex.add(10L, 1L);
+        tagPostIndex.add(10L, 2L);
+        Post post1 = Post.builder().id(1L).title("Test Post 1").category(category)
+                .createdAt(now).postTags(new ArrayList<>()).build();
+        Post post2 = Post.builder().id(2L).title("Test Post 2").category(category)
+                .createdAt(new Timestamp(now.getTime() - 5)).postTags(new ArrayList<>()).build();
+        given(postRepository.findAllWithCategoryAndTagsByIdIn(List.of(2L, 1L)))
+                .willReturn(List.of(post1, post2));
 
-        given(postRepository.findById(1L)).willReturn(Optional.of(post));
+        // when
+        CursorPageResponseDTO<PostResponseDTO> page = underTest.getPostPageByTags(List.of(10L), TagMatch.ALL, null, 2);
+
+        // then
+        assertThat(page.getItems()).extracting(PostResponseDTO::getId).containsExactly(2L, 1L);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void getPostPageByTagsReadsPostTagsUntilTheIndexIsLoaded() {
+        // given
+        Category category = Category.builder()
+                .id(1L)
+                .name("Test Category")
+                .build();
+        doReturn(false).when(tagPostIndex).isLoaded();
+        given(postTagRepository.findPostIdsByTagIds(Set.of(10L, 20L), 2, Long.MAX_VALUE, PageRequest.of(0, 2)))
+                .willReturn(List.of(3L));
+        Post post3 = Post.builder().id(3L).title("Test Post 3").category(category)
+                .createdAt(new Timestamp(System.currentTimeMillis())).postTags(new ArrayList<>()).build();
+        given(postRepository.findAllWithCategoryAndTagsByIdIn(List.of(3L)))
+                .willReturn(List.of(post3));
 
         // when
-        underTest.deletePost(1L);
+        CursorPageResponseDTO<PostResponseDTO> page = underTest.getPostPageByTags(List.of(10L, 20L), TagMatch.ALL, null, 1);
 
         // then
-        verify(postRepository, times(1)).deleteById(1L);
-        verify(postTagRepository, times(1)).deleteAll(post.getPostTags());
+        assertThat(page.getItems()).extracting(PostResponseDTO::getId).containsExactly(3L);
+        assertThat(page.getNextCursor()).isNull();
+        verify(tagPostIndex, never()).findPostIds(anyList(), any(), any(), anyInt());
+    }
+
+    @Test
+    public void getPostPageByTagsWithInvalidCursorThrowException() {
+        // when
+        // then
+        assertThatThrownBy(() -> underTest.getPostPageByTags(List.of(10L), TagMatch.ALL, "abc", 2))
+                .isInstanceOf(InvalidCursorException.class);
+
+        verifyNoInteractions(postRepository);
+    }
+
+    private static PostTagName tagName(Long postId, String name) {
+        return new PostTagName() {
+            @Override
+            public Long getPostId() {
+                return postId;
+            }
+
+            @Override
+            public String getTagName() {
+                return name;
+            }
+        };
+    }
+
+    private static PostVersionRow versionRow(Long categoryId, Long tagId) {
+        return new PostVersionRow() {
+            @Override
+            public Long getPostVersion() {
+                return 0L;
+            }
+
+            @Override
+            public Long getCategoryId() {
+                return categoryId;
+            }
+
+            @Override
+            public Long getCategoryVersion() {
+                return 0L;
+            }
+
+            @Override
+            public Long getTagId() {
+                return tagId;
+            }
+
+            @Override
+            public Long getTagVersion() {
+                return 0L;
+            }
+        };
     }
 
     @AfterEach
@@ -0,0 +1,149 @@
+package com.ronald.blogapptdd.service.impl;
+
+import com.ronald.blogapptdd.cache.ReferenceDataSnapshot;
+import com.ronald.blogapptdd.config.BlogProperties;
+import com.ronald.blogapptdd.dto.request.CreatePostRequest;
+import com.ronald.blogapptdd.entity.Category;
+import com.ronald.blogapptdd.entity.Post;
+import com.ronald.blogapptdd.entity.Tag;
+import com.ronald.blogapptdd.exception.CategoryNotFoundException;
+import com.ronald.blogapptdd.repository.CategoryRepository;
+import com.ronald.blogapptdd.repository.PostRepository;
+import com.ronald.blogapptdd.repository.PostTagRepository;
+import com.ronald.blogapptdd.repository.TagRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "blog.write-behind.enabled=true")
+class PostWriteBehindServiceImplTest {
+
+    private static final int CREATE_COUNT = 50;
+
+    @Autowired
+    private PostWriteBehindServiceImpl underTest;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PostTagRepository postTagRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private ReferenceDataSnapshot referenceDataSnapshot;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private BlogProperties blogProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Category category;
+
+    private List<Tag> tags;
+
+    @BeforeEach
+    void setUp() {
+        category = categoryRepository.save(Category.builder()
+                .name("Java")
+                .description("Java ne")
+                .build());
+        tags = tagRepository.saveAll(List.of(
+                Tag.builder().name("Spring").description("Spring ne").build(),
+                Tag.builder().name("JPA").description("JPA ne").build()));
+        referenceDataSnapshot.reload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        postTagRepository.deleteAllInBatch();
+        postRepository.deleteAllInBatch();
+        tagRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void completesEveryCreateWithItsSavedPost() {
+        // given
+        List<CompletableFuture<Post>> futures = new ArrayList<>();
+
+        // when
+        for (int i = 0; i < CREATE_COUNT; i++) {
+            futures.add(underTest.createPost(request("Post " + i, category.getId())));
+        }
+        List<Post> posts = futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+
+        // then
+        assertThat(posts).extracting(Post::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(posts.get(0).getPostTags()).hasSize(tags.size());
+        assertThat(postRepository.count()).isEqualTo(CREATE_COUNT);
+        assertThat(postTagRepository.count()).isEqualTo((long) CREATE_COUNT * tags.size());
+    }
+
+    @Test
+    void unknownCategoryFailsOnlyThatCreate() {
+        // given
+        CompletableFuture<Post> valid = underTest.createPost(request("Valid", category.getId()));
+        CompletableFuture<Post> invalid = underTest.createPost(request("Invalid", -1L));
+
+        // when
+        // then
+        assertThat(valid.join().getId()).isNotNull();
+        assertThatThrownBy(invalid::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(CategoryNotFoundException.class);
+        assertThat(postRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void writesQueuedCreatesOnStopAndRejectsLaterOnes() {
+        // given
+        PostWriteBehindServiceImpl writer = new PostWriteBehindServiceImpl(postRepository, postTagRepository,
+                referenceDataSnapshot, eventPublisher, blogProperties, transactionManager, new SimpleMeterRegistry());
+        writer.start();
+        CompletableFuture<Post> queued = writer.createPost(request("Queued", category.getId()));
+
+        // when
+        writer.stop();
+        CompletableFuture<Post> late = writer.createPost(request("Late", category.getId()));
+
+        // then
+        assertThat(queued.join().getId()).isNotNull();
+        assertThatThrownBy(late::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+
+    private CreatePostRequest request(String title, Long categoryId) {
+        return CreatePostRequest.builder()
+                .title(title)
+                .content("Content of " + title)
+                .categoryId(categoryId)
+                .tagIds(tags.stream().map(Tag::getId).collect(Collectors.toList()))
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.ronald.blogapptdd.service.impl;
 
+import com.ronald.blogapptdd.cache.ReferenceDataSnapshot;
 import com.ronald.blogapptdd.dto.request.CreateTagRequest;
 import com.ronald.blogapptdd.dto.request.UpdateTagRequest;
 import com.ronald.blogapptdd.entity.Tag;
@@ -21,6 +22,8 @@ import static org.assertj.core.api.Java6Assertions.assertThat;
 import static org.assertj.core.api.Java6Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -33,12 +36,19 @@ class TagServiceImplTest {
     @MockBean
     private TagRepository tagRepository;
 
+    @Autowired
+    private ReferenceDataSnapshot referenceDataSnapshot;
+
     private Tag tag;
 
     private CreateTagRequest request;
 
     @BeforeEach
     void setUp() {
+        // empty snapshot, so tag lookups fall through to the mocked repository
+        referenceDataSnapshot.reload();
+        clearInvocations(tagRepository);
+
         request = CreateTagRequest.builder()
                 .description("My Duyen xinh dep")
                 .name("My Duyen")
@@ -74,8 +84,10 @@ class TagServiceImplTest {
                 .build();
 
         given(tagRepository.findAll()).willReturn(List.of(tag, tag2));
+        referenceDataSnapshot.reload();
 
         //when
+        underTest.getAllTags();
         List<Tag> tags = underTest.getAllTags();
 
         //then
@@ -140,13 +152,25 @@ class TagServiceImplTest {
     public void canDeleteTag() {
         //given
         Long tagId = 1L;
-        given(tagRepository.findById(tagId)).willReturn(Optional.ofNullable(tag));
+        given(tagRepository.deleteDirectlyById(tagId)).willReturn(1);
 
         //when
         underTest.deleteTag(1L);
 
         //then
-        verify(tagRepository).deleteById(1L);
+        verify(tagRepository).deleteDirectlyById(1L);
+        verify(tagRepository, never()).findById(any());
+    }
+
+    @Test
+    public void canNotDeleteMissingTag() {
+        //given
+        given(tagRepository.deleteDirectlyById(any())).willReturn(0);
+
+        //when
+        //then
+        assertThatThrownBy(() -> underTest.deleteTag(1L))
+                .isInstanceOf(TagNotFoundException.class);
     }
 
     @AfterEach